@@ -0,0 +1,179 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.headless;
+
+import com.google.gson.Gson;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.core.pregenerator.IrisPregenerator;
+import com.volmit.iris.core.pregenerator.PregenListener;
+import com.volmit.iris.core.pregenerator.PregenTask;
+import com.volmit.iris.core.pregenerator.methods.HeadlessPregenMethod;
+import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.object.common.HeadlessWorld;
+import com.volmit.iris.engine.object.dimensional.IrisDimension;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.format.Form;
+import com.volmit.iris.util.io.IO;
+import com.volmit.iris.util.math.Position2;
+import org.zeroturnaround.zip.commons.FileUtils;
+
+import java.io.File;
+
+/**
+ * Generates a world to MCA files without a server.
+ * <p>
+ * Usage: java -jar Iris-headless.jar --pack &lt;pack folder&gt; --world &lt;output folder&gt; [--dimension &lt;key&gt;]
+ * [--seed &lt;seed&gt;] [--center &lt;regionX,regionZ&gt;] [--radius &lt;regions&gt;] [--settings &lt;settings.json&gt;]
+ * <p>
+ * The world folder gets a copy of the pack in iris/pack, like any other Iris world, so it can be
+ * dropped into a server afterwards. Interrupted runs resume from the pregen checkpoint.
+ */
+public class IrisHeadlessRunner {
+    public static void main(String[] a) throws Exception {
+        KMap<String, String> args = parse(a);
+
+        if (!args.containsKey("pack") || !args.containsKey("world")) {
+            System.out.println("Usage: --pack <pack folder> --world <output folder> [--dimension <key>] [--seed <seed>] "
+                    + "[--center <regionX,regionZ>] [--radius <regions>] [--settings <settings.json>]");
+            System.exit(1);
+            return;
+        }
+
+        File settings = args.containsKey("settings") ? new File(args.get("settings")) : null;
+        IrisSettings.settings = settings != null && settings.exists()
+                ? new Gson().fromJson(IO.readAll(settings), IrisSettings.class) : new IrisSettings();
+        StubServer.install();
+
+        File world = new File(args.get("world"));
+        File pack = new File(world, "iris/pack");
+        File source = new File(args.get("pack"));
+
+        if (!pack.exists()) {
+            FileUtils.copyDirectory(source, pack);
+        }
+
+        String key = args.getOrDefault("dimension", source.getName());
+        IrisDimension dimension = new IrisData(pack).getDimensionLoader().load(key);
+
+        if (dimension == null) {
+            System.out.println("Cannot find the dimension " + key + " in " + source.getAbsolutePath());
+            System.exit(1);
+            return;
+        }
+
+        String[] center = args.getOrDefault("center", "0,0").split("\\Q,\\E");
+        int radius = Integer.parseInt(args.getOrDefault("radius", "1"));
+        PregenTask task = PregenTask.builder()
+                .center(new Position2(Integer.parseInt(center[0].trim()), Integer.parseInt(center[1].trim())))
+                .width(radius)
+                .height(radius)
+                .build();
+        HeadlessWorld w = new HeadlessWorld(world.getPath(), dimension, Long.parseLong(args.getOrDefault("seed", "1337")), true);
+        long start = System.currentTimeMillis();
+        new IrisPregenerator(task, new HeadlessPregenMethod(w), new ConsoleListener()).start();
+        System.out.println("Finished in " + Form.duration((double) (System.currentTimeMillis() - start), 2));
+        System.exit(0);
+    }
+
+    private static KMap<String, String> parse(String[] a) {
+        KMap<String, String> args = new KMap<>();
+
+        for (int i = 0; i < a.length - 1; i++) {
+            if (a[i].startsWith("--")) {
+                args.put(a[i].substring(2), a[++i]);
+            }
+        }
+
+        return args;
+    }
+
+    private static class ConsoleListener implements PregenListener {
+        @Override
+        public void onTick(double chunksPerSecond, double chunksPerMinute, double regionsPerMinute, double percent, int generated, int totalChunks, int chunksRemaining, long eta, long elapsed, String method) {
+            System.out.println(Form.f(generated) + " of " + Form.f(totalChunks) + " (" + Form.pc(percent, 0) + ") "
+                    + Form.f((int) chunksPerSecond) + " chunks/s, " + Form.f(regionsPerMinute, 1) + " regions/m, ETA "
+                    + Form.duration((double) eta, 2) + " [" + method + "]");
+        }
+
+        @Override
+        public void onChunkGenerating(int x, int z) {
+
+        }
+
+        @Override
+        public void onChunkGenerated(int x, int z) {
+
+        }
+
+        @Override
+        public void onRegionGenerated(int x, int z) {
+
+        }
+
+        @Override
+        public void onRegionGenerating(int x, int z) {
+
+        }
+
+        @Override
+        public void onRegionSkipped(int x, int z) {
+
+        }
+
+        @Override
+        public void onNetworkStarted(int x, int z) {
+
+        }
+
+        @Override
+        public void onNetworkFailed(int x, int z) {
+
+        }
+
+        @Override
+        public void onNetworkReclaim(int revert) {
+
+        }
+
+        @Override
+        public void onNetworkGeneratedChunk(int x, int z) {
+
+        }
+
+        @Override
+        public void onNetworkDownloaded(int x, int z) {
+
+        }
+
+        @Override
+        public void onClose() {
+
+        }
+
+        @Override
+        public void onSaving() {
+
+        }
+
+        @Override
+        public void onChunkExistsInRegionGen(int x, int z) {
+
+        }
+    }
+}
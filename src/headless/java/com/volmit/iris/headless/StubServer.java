@@ -0,0 +1,215 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.headless;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.Server;
+import org.bukkit.craftbukkit.v1_17_R1.block.data.CraftBlockData;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of a Bukkit server to generate worlds without one. Block data is created
+ * straight from the bootstrapped Minecraft registries, one-off sync tasks run on a single
+ * stand-in main thread and repeating tasks are ignored, as nothing ticks while baking a world.
+ * Everything else answers with a default value.
+ */
+public class StubServer {
+    private static final String[][] BOOTSTRAP = {
+            {"net.minecraft.SharedConstants", "a"},
+            {"net.minecraft.server.DispenserRegistry", "init"}
+    };
+    private static final Logger logger = Logger.getLogger("Iris");
+    private static final AtomicInteger taskIds = new AtomicInteger(1);
+    private static final ScheduledExecutorService main = Executors.newSingleThreadScheduledExecutor((r) -> {
+        Thread t = new Thread(r, "Iris Headless Main");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ExecutorService async = Executors.newCachedThreadPool((r) -> {
+        Thread t = new Thread(r, "Iris Headless Async");
+        t.setDaemon(true);
+        return t;
+    });
+    private static Thread mainThread;
+
+    /**
+     * Bootstrap the Minecraft registries and install the stub as the Bukkit server.
+     * Does nothing if a server is already installed.
+     */
+    public static synchronized void install() throws Exception {
+        // The proxy server's class name carries no craftbukkit version, bind the nms we stub against
+        System.setProperty("iris.nms", CraftBlockData.class.getPackage().getName().split("\\Q.\\E")[3]);
+
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+
+        for (String[] i : BOOTSTRAP) {
+            Method m = Class.forName(i[0]).getDeclaredMethod(i[1]);
+            m.setAccessible(true);
+            m.invoke(null);
+        }
+
+        main.submit(() -> mainThread = Thread.currentThread()).get();
+        Bukkit.setServer(proxy(Server.class, StubServer::server));
+    }
+
+    private static Object server(Method m, Object[] args) {
+        switch (m.getName()) {
+            case "getLogger":
+                return logger;
+            case "getName":
+                return "Iris Headless";
+            case "getVersion":
+                return "headless";
+            case "getBukkitVersion":
+                return "1.17.1-R0.1-SNAPSHOT";
+            case "isPrimaryThread":
+                return Thread.currentThread() == mainThread;
+            case "getWorlds":
+            case "getOnlinePlayers":
+                return Collections.emptyList();
+            case "getScheduler":
+                return proxy(BukkitScheduler.class, StubServer::scheduler);
+            case "getPluginManager":
+                return proxy(PluginManager.class, (mm, a) -> defaultValue(mm.getReturnType()));
+            case "createBlockData":
+                if (args.length == 1 && args[0] instanceof String) {
+                    return CraftBlockData.newData(null, (String) args[0]);
+                }
+
+                return CraftBlockData.newData((Material) args[0], args.length > 1 && args[1] instanceof String ? (String) args[1] : null);
+            default:
+                return defaultValue(m.getReturnType());
+        }
+    }
+
+    private static Object scheduler(Method m, Object[] args) {
+        switch (m.getName()) {
+            case "scheduleSyncDelayedTask":
+                main.schedule((Runnable) args[1], delay(args), TimeUnit.MILLISECONDS);
+                return taskIds.getAndIncrement();
+            case "scheduleAsyncDelayedTask":
+                async.execute(() -> {
+                    sleep(delay(args));
+                    ((Runnable) args[1]).run();
+                });
+                return taskIds.getAndIncrement();
+            case "scheduleSyncRepeatingTask":
+            case "scheduleAsyncRepeatingTask":
+                return taskIds.getAndIncrement();
+            case "isCurrentlyRunning":
+            case "isQueued":
+                return false;
+            default:
+                return defaultValue(m.getReturnType());
+        }
+    }
+
+    private static long delay(Object[] args) {
+        return args.length > 2 && args[2] instanceof Long ? (Long) args[2] * 50L : 0L;
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class[]{type}, (p, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                switch (m.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(p);
+                    case "equals":
+                        return p == a[0];
+                    default:
+                        return type.getSimpleName() + "Stub";
+                }
+            }
+
+            return handler.handle(m, a == null ? new Object[0] : a);
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return List.class.isAssignableFrom(type) ? Collections.emptyList() : null;
+        }
+
+        if (type == boolean.class) {
+            return false;
+        }
+
+        if (type == void.class) {
+            return null;
+        }
+
+        if (type == long.class) {
+            return 0L;
+        }
+
+        if (type == double.class) {
+            return 0D;
+        }
+
+        if (type == float.class) {
+            return 0F;
+        }
+
+        if (type == char.class) {
+            return (char) 0;
+        }
+
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+
+        if (type == short.class) {
+            return (short) 0;
+        }
+
+        return 0;
+    }
+
+    private interface Handler {
+        Object handle(Method m, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.headless.StubServer;
+import com.volmit.iris.util.io.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * Shared setup for the benchmarks. Installs default settings and the headless stub
+ * server so block data and the matter slicers resolve without a real server.
+ */
+public class BenchmarkEnvironment {
+    public static final String PACK = "benchmark-pack";
+    public static final String DIMENSION = "benchmark";
+    private static final String[] PACK_FILES = {
+            "dimensions/benchmark.json",
+            "regions/plains.json",
+            "biomes/plains.json",
+            "biomes/ocean.json",
+            "generators/default.json"
+    };
+
+    public static synchronized void install() throws Exception {
+        if (IrisSettings.settings == null) {
+            IrisSettings.settings = new IrisSettings();
+        }
+
+        StubServer.install();
+    }
+
+    /**
+     * Copy the bundled test pack out of the classpath
+     *
+     * @return the pack folder
+     */
+    public static File extractPack() throws IOException {
+        File folder = Files.createTempDirectory("iris-benchmark").toFile();
+
+        for (String i : PACK_FILES) {
+            File f = new File(folder, i);
+            f.getParentFile().mkdirs();
+
+            try (InputStream in = BenchmarkEnvironment.class.getResourceAsStream("/" + PACK + "/" + i);
+                 FileOutputStream out = new FileOutputStream(f)) {
+                if (in == null) {
+                    throw new IOException("Missing bundled pack file " + i);
+                }
+
+                IO.fullTransfer(in, out, 8192);
+            }
+        }
+
+        return folder;
+    }
+}
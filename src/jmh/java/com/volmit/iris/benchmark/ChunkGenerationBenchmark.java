@@ -0,0 +1,78 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.framework.Engine;
+import com.volmit.iris.engine.object.common.HeadlessWorld;
+import com.volmit.iris.engine.object.dimensional.IrisDimension;
+import com.volmit.iris.engine.platform.HeadlessGenerator;
+import com.volmit.iris.util.hunk.Hunk;
+import com.volmit.iris.util.io.IO;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full engine generate of one chunk against the bundled test pack. Every invocation
+ * generates a chunk that has not been generated before, so mantle work is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkGenerationBenchmark {
+    @Param({"false", "true"})
+    public boolean multicore;
+
+    private File pack;
+    private File world;
+    private HeadlessGenerator generator;
+    private Engine engine;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        pack = BenchmarkEnvironment.extractPack();
+        world = Files.createTempDirectory("iris-benchmark-world").toFile();
+        IrisDimension dimension = new IrisData(pack).getDimensionLoader().load(BenchmarkEnvironment.DIMENSION);
+        generator = new HeadlessWorld(world.getAbsolutePath(), dimension, 1337, true).generate();
+        engine = generator.getEngine();
+    }
+
+    @TearDown
+    public void tearDown() {
+        generator.close();
+        IO.delete(world);
+        IO.delete(pack);
+    }
+
+    @Benchmark
+    public Hunk<BlockData> generate() {
+        int i = index++;
+        Hunk<BlockData> blocks = Hunk.newArrayHunk(16, engine.getHeight(), 16);
+        Hunk<Biome> biomes = Hunk.newArrayHunk(16, engine.getHeight(), 16);
+        engine.generate((i & 63) << 4, (i >> 6) << 4, blocks, biomes, multicore);
+        return blocks;
+    }
+}
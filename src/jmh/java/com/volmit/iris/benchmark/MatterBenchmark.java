@@ -0,0 +1,77 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.util.data.B;
+import com.volmit.iris.util.matter.IrisMatter;
+import com.volmit.iris.util.matter.Matter;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a single 16x16x16 matter section holding block and int slices at a
+ * given fill ratio
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatterBenchmark {
+    @Param({"0.05", "1.0"})
+    public double fill;
+
+    private Matter matter;
+    private byte[] data;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        matter = new IrisMatter(16, 16, 16);
+        BlockData[] palette = {B.get("STONE"), B.get("DIRT"), B.get("GRASS_BLOCK"), B.get("WATER")};
+        int count = (int) (4096 * fill);
+
+        for (int i = 0; i < count; i++) {
+            int x = i & 15;
+            int y = (i >> 8) & 15;
+            int z = (i >> 4) & 15;
+            matter.slice(BlockData.class).set(x, y, z, palette[i % palette.length]);
+            matter.slice(Integer.class).set(x, y, z, i);
+        }
+
+        data = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        ByteArrayOutputStream boas = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(boas);
+        matter.writeDos(dos);
+        dos.flush();
+        return boas.toByteArray();
+    }
+
+    @Benchmark
+    public Matter read() throws Exception {
+        return Matter.read(new ByteArrayInputStream(data));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.util.noise.NoiseGenerator;
+import com.volmit.iris.util.noise.NoiseType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw 2D and 3D evaluation cost of every noise type over a 32x32 grid, point by point and batched
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(NoiseBenchmark.SAMPLES)
+public class NoiseBenchmark {
+    static final int SIZE = 32;
+    static final int SAMPLES = SIZE * SIZE;
+
+    @Param
+    public NoiseType type;
+
+    private NoiseGenerator generator;
+    private final double[] xs = new double[SAMPLES];
+    private final double[] ys = new double[SAMPLES];
+    private final double[] zs = new double[SAMPLES];
+    private final double[] out = new double[SAMPLES];
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        generator = type.create(1337);
+
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                xs[(i * SIZE) + j] = i * 0.31;
+                ys[(i * SIZE) + j] = j * 0.17;
+                zs[(i * SIZE) + j] = j * 0.31;
+            }
+        }
+    }
+
+    @Benchmark
+    public void noise2D(Blackhole b) {
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                b.consume(generator.noise(i * 0.31, j * 0.31));
+            }
+        }
+    }
+
+    @Benchmark
+    public void noise3D(Blackhole b) {
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                b.consume(generator.noise(i * 0.31, j * 0.17, j * 0.31));
+            }
+        }
+    }
+
+    @Benchmark
+    public void noise2DBatch(Blackhole b) {
+        generator.noise(xs, zs, out);
+        b.consume(out);
+    }
+
+    @Benchmark
+    public void noise3DBatch(Blackhole b) {
+        generator.noise(xs, ys, zs, out);
+        b.consume(out);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.object.common.IObjectPlacer;
+import com.volmit.iris.engine.object.objects.IrisObject;
+import com.volmit.iris.engine.object.objects.IrisObjectPlacement;
+import com.volmit.iris.engine.object.tile.TileData;
+import com.volmit.iris.util.data.B;
+import com.volmit.iris.util.io.IO;
+import com.volmit.iris.util.mantle.Mantle;
+import com.volmit.iris.util.math.RNG;
+import org.bukkit.block.TileState;
+import org.bukkit.block.data.BlockData;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Placing a solid cube object into a mantle. Placements cycle through a single region
+ * so the plate stays loaded and the numbers reflect the write path, not plate IO.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectPlacementBenchmark {
+    private static final int HEIGHT = 256;
+
+    @Param({"5", "16"})
+    public int size;
+
+    private File folder;
+    private Mantle mantle;
+    private IObjectPlacer placer;
+    private IrisObject object;
+    private IrisObjectPlacement placement;
+    private RNG rng;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        folder = Files.createTempDirectory("iris-benchmark-mantle").toFile();
+        mantle = new Mantle(folder, HEIGHT);
+        placer = new MantlePlacer(mantle);
+        object = new IrisObject(size, size, size);
+        BlockData stone = B.get("STONE");
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    object.setUnsigned(i, j, k, stone);
+                }
+            }
+        }
+
+        placement = new IrisObjectPlacement();
+        rng = new RNG(1337);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mantle.close();
+        IO.delete(folder);
+    }
+
+    @Benchmark
+    public int place() {
+        int i = index++;
+        return object.place((i * 37) & 511, -1, (i * 101) & 511, placer, placement, rng, null);
+    }
+
+    private static class MantlePlacer implements IObjectPlacer {
+        private final Mantle mantle;
+
+        private MantlePlacer(Mantle mantle) {
+            this.mantle = mantle;
+        }
+
+        @Override
+        public int getHighest(int x, int z, IrisData data) {
+            return 64;
+        }
+
+        @Override
+        public int getHighest(int x, int z, IrisData data, boolean ignoreFluid) {
+            return 64;
+        }
+
+        @Override
+        public void set(int x, int y, int z, BlockData d) {
+            mantle.set(x, y, z, d);
+        }
+
+        @Override
+        public BlockData get(int x, int y, int z) {
+            return mantle.get(x, y, z, BlockData.class);
+        }
+
+        @Override
+        public boolean isPreventingDecay() {
+            return false;
+        }
+
+        @Override
+        public boolean isSolid(int x, int y, int z) {
+            BlockData d = get(x, y, z);
+            return d != null && d.getMaterial().isSolid();
+        }
+
+        @Override
+        public boolean isUnderwater(int x, int z) {
+            return false;
+        }
+
+        @Override
+        public int getFluidHeight() {
+            return 63;
+        }
+
+        @Override
+        public boolean isDebugSmartBore() {
+            return false;
+        }
+
+        @Override
+        public void setTile(int xx, int yy, int zz, TileData<? extends TileState> tile) {
+
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.util.math.RNG;
+import com.volmit.iris.util.noise.CNG;
+import com.volmit.iris.util.stream.ProceduralStream;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampling a noise stream directly against sampling it through a 2D cache. The cached
+ * variant walks the same chunk-sized window every invocation, so after warmup it measures
+ * hits, which is what neighbouring chunk lookups look like during generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@OperationsPerInvocation(StreamCacheBenchmark.SAMPLES)
+public class StreamCacheBenchmark {
+    static final int SIZE = 16;
+    static final int SAMPLES = SIZE * SIZE;
+
+    @Param({"1024", "65536"})
+    public int cacheSize;
+
+    private ProceduralStream<Double> uncached;
+    private ProceduralStream<Double> cached;
+    private int offset;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        uncached = CNG.signature(new RNG(1337)).stream();
+        cached = CNG.signature(new RNG(1337)).stream().cache2D(cacheSize);
+    }
+
+    @Benchmark
+    public void uncached(Blackhole b) {
+        sample(uncached, 0, b);
+    }
+
+    @Benchmark
+    public void cachedHit(Blackhole b) {
+        sample(cached, 0, b);
+    }
+
+    @Benchmark
+    public void cachedMiss(Blackhole b) {
+        offset += SIZE;
+        sample(cached, offset, b);
+    }
+
+    private void sample(ProceduralStream<Double> stream, int ox, Blackhole b) {
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                b.consume(stream.get(ox + i, j));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.benchmark;
+
+import com.volmit.iris.util.mantle.TectonicPlate;
+import com.volmit.iris.util.matter.Matter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a tectonic plate with a configurable number of populated chunks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TectonicPlateBenchmark {
+    private static final int HEIGHT = 256;
+
+    @Param({"16", "1024"})
+    public int chunks;
+
+    private TectonicPlate plate;
+    private byte[] data;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkEnvironment.install();
+        plate = new TectonicPlate(HEIGHT);
+
+        for (int i = 0; i < chunks; i++) {
+            int x = i & 31;
+            int z = (i >> 5) & 31;
+
+            for (int s = 0; s < 4; s++) {
+                Matter m = plate.getOrCreate(x, z).getOrCreate(s);
+
+                for (int j = 0; j < 64; j++) {
+                    m.slice(Integer.class).set(j & 15, (j * 7) & 15, (j * 13) & 15, j);
+                }
+            }
+        }
+
+        data = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws Exception {
+        ByteArrayOutputStream boas = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(boas);
+        plate.write(dos);
+        dos.flush();
+        return boas.toByteArray();
+    }
+
+    @Benchmark
+    public TectonicPlate read() throws Exception {
+        return new TectonicPlate(HEIGHT, new DataInputStream(new ByteArrayInputStream(data)));
+    }
+}
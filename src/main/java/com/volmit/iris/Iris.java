@@ -90,6 +90,7 @@ public class Iris extends VolmitPlugin implements Listener {
     public static OraxenLink linkOraxen;
     public static MythicMobsLink linkMythicMobs;
     public static TreeManager saplingManager;
+    public static MetricsManager metrics;
     private static final Queue<Runnable> syncJobs = new ShurikenQueue<>();
     public static IrisCompat compat;
     public static FileWatcher configWatcher;
@@ -127,6 +128,7 @@ public class Iris extends VolmitPlugin implements Listener {
         linkMythicMobs = new MythicMobsLink();
         saplingManager = new TreeManager();
         edit = new EditManager();
+        metrics = new MetricsManager();
         configWatcher = new FileWatcher(getDataFile("settings.json"));
         getServer().getPluginManager().registerEvents(new CommandLocate(), this);
         getServer().getPluginManager().registerEvents(new WandManager(), this);
@@ -158,6 +160,7 @@ public class Iris extends VolmitPlugin implements Listener {
 
         executors.clear();
         board.disable();
+        metrics.close();
         Iris.debug("Cancelled all tasks");
         Bukkit.getScheduler().cancelTasks(this);
         Iris.debug("Unregistered all events");
@@ -177,7 +180,7 @@ public class Iris extends VolmitPlugin implements Listener {
     }
 
     public static KList<Object> initialize(String s, Class<? extends Annotation> slicedClass) {
-        JarScanner js = new JarScanner(instance.getJarFile(), s);
+        JarScanner js = new JarScanner(getIrisJar(), s);
         KList<Object> v = new KList<>();
         J.attempt(js::scan);
         for (Class<?> i : js.getClasses()) {
@@ -193,6 +196,24 @@ public class Iris extends VolmitPlugin implements Listener {
         return v;
     }
 
+    /**
+     * The jar (or classes folder) Iris was loaded from. Falls back to the code source
+     * when there is no plugin instance, such as in the headless runner or benchmarks.
+     */
+    public static File getIrisJar() {
+        if (instance != null) {
+            return instance.getJarFile();
+        }
+
+        try {
+            return new File(Iris.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Throwable e) {
+            Iris.reportError(e);
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     private void fixShading() {
         ShadeFix.fix(ComponentSerializer.class);
     }
@@ -41,6 +41,7 @@ public class IrisSettings {
     private IrisSettingsGUI gui = new IrisSettingsGUI();
     private IrisSettingsGenerator generator = new IrisSettingsGenerator();
     private IrisSettingsStudio studio = new IrisSettingsStudio();
+    private IrisSettingsPerformance performance = new IrisSettingsPerformance();
     public int configurationVersion = 3;
 
     public boolean isStudio() {
@@ -138,6 +139,23 @@ public class IrisSettings {
         public boolean disableTimeAndWeather = true;
     }
 
+    @Data
+    public static class IrisSettingsPerformance {
+        public double updateBudgetMillis = 2;
+        public int pregenCheckpointBatch = 256;
+        public int pregenRegionsInFlight = 4;
+        public int pregenRegionMemoryMB = 256;
+        public boolean adaptivePregen = true;
+        public int metricsPort = 0;
+        public String metricsFile = "";
+        public int metricsIntervalSeconds = 15;
+        public boolean mantlePrefetch = true;
+        public int mantlePrefetchSeconds = 6;
+        public int mantlePrefetchChunksPerSecond = 48;
+        public int mantlePrefetchPlateLoads = 2;
+        public int mantlePrefetchMaxPlates = 48;
+    }
+
     public static IrisSettings get() {
         if (settings != null) {
             return settings;
@@ -0,0 +1,212 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core;
+
+import com.sun.net.httpserver.HttpServer;
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.tools.IrisToolbelt;
+import com.volmit.iris.engine.framework.Engine;
+import com.volmit.iris.util.atomics.AtomicHistogram;
+import com.volmit.iris.util.atomics.AtomicRollingHistogram;
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.io.IO;
+import com.volmit.iris.util.scheduling.J;
+import com.volmit.iris.util.stream.utility.CachedStream2D;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Exports engine timings in the Prometheus text format, either to a file that is rewritten
+ * every interval (for the node exporter textfile collector) or over a local http listener.
+ * Both are off unless configured in the performance settings.
+ */
+public class MetricsManager {
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+    private volatile KList<Engine> engines;
+    private HttpServer server;
+    private int task;
+
+    public MetricsManager() {
+        IrisSettings.IrisSettingsPerformance s = IrisSettings.get().getPerformance();
+        engines = new KList<>();
+        task = -1;
+
+        if (s.getMetricsPort() <= 0 && s.getMetricsFile().trim().isEmpty()) {
+            return;
+        }
+
+        if (s.getMetricsPort() > 0) {
+            try {
+                server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), s.getMetricsPort()), 0);
+                server.createContext("/metrics", (exchange) -> {
+                    byte[] data = render(engines).getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                    exchange.sendResponseHeaders(200, data.length);
+
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(data);
+                    }
+                });
+                server.start();
+                Iris.info("Serving metrics on http://localhost:" + s.getMetricsPort() + "/metrics");
+            } catch (IOException e) {
+                Iris.reportError(e);
+                Iris.error("Failed to bind the metrics listener to port " + s.getMetricsPort());
+                e.printStackTrace();
+                server = null;
+            }
+        }
+
+        task = J.sr(this::update, Math.max(1, s.getMetricsIntervalSeconds()) * 20);
+    }
+
+    private void update() {
+        KList<Engine> e = new KList<>();
+
+        for (World i : Bukkit.getWorlds()) {
+            if (IrisToolbelt.isIrisWorld(i) && IrisToolbelt.access(i).getEngine() != null) {
+                e.add(IrisToolbelt.access(i).getEngine());
+            }
+        }
+
+        engines = e;
+        String file = IrisSettings.get().getPerformance().getMetricsFile().trim();
+
+        if (!file.isEmpty()) {
+            J.a(() -> {
+                try {
+                    File f = new File(file);
+                    File tmp = new File(f.getPath() + ".tmp");
+                    IO.writeAll(tmp, render(e));
+
+                    if (!tmp.renameTo(f)) {
+                        f.delete();
+                        tmp.renameTo(f);
+                    }
+                } catch (IOException ex) {
+                    Iris.reportError(ex);
+                    ex.printStackTrace();
+                }
+            });
+        }
+    }
+
+    public void close() {
+        if (task != -1) {
+            J.csr(task);
+            task = -1;
+        }
+
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * Render the metrics of the given engines in the Prometheus text format
+     *
+     * @param engines the engines
+     * @return the exposition text
+     */
+    public static String render(KList<Engine> engines) {
+        StringBuilder b = new StringBuilder();
+        summary(b, "iris_engine_stage_latency_ms", "Engine generation stage latency", "stage", engines, (e) -> e.getMetrics().getStages());
+        summary(b, "iris_mantle_component_latency_ms", "Mantle component latency per chunk", "component", engines, (e) -> e.getMetrics().getComponents());
+        summary(b, "iris_mantle_plate_io_ms", "Tectonic plate load and save latency", "op", engines, (e) -> {
+            KMap<String, AtomicRollingHistogram> m = new KMap<>();
+            m.put("load", e.getMantle().getMantle().getLoadTimes());
+            m.put("save", e.getMantle().getMantle().getSaveTimes());
+            return m;
+        });
+
+        KList<String> hits = new KList<>();
+        KList<String> misses = new KList<>();
+        KList<String> ratios = new KList<>();
+
+        for (Engine i : engines) {
+            KMap<String, CachedStream2D<?>> streams = i.getComplex().getCachedStreams();
+
+            for (String j : streams.k().sort()) {
+                String labels = labels(i, "stream", j);
+                CachedStream2D<?> s = streams.get(j);
+                hits.add("iris_stream_cache_hits_total" + labels + " " + s.getHits());
+                misses.add("iris_stream_cache_misses_total" + labels + " " + s.getMisses());
+                ratios.add("iris_stream_cache_hit_ratio" + labels + " " + s.getHitRatio());
+            }
+        }
+
+        family(b, "iris_stream_cache_hits_total", "Complex stream cache hits", "counter", hits);
+        family(b, "iris_stream_cache_misses_total", "Complex stream cache misses", "counter", misses);
+        family(b, "iris_stream_cache_hit_ratio", "Complex stream cache hit ratio", "gauge", ratios);
+        return b.toString();
+    }
+
+    private static void summary(StringBuilder b, String name, String help, String label, KList<Engine> engines, Function<Engine, KMap<String, AtomicRollingHistogram>> source) {
+        KList<String> lines = new KList<>();
+        KList<String> maxes = new KList<>();
+
+        for (Engine i : engines) {
+            KMap<String, AtomicRollingHistogram> m = source.apply(i);
+
+            for (String j : m.k().sort()) {
+                AtomicHistogram h = m.get(j).getHistogram();
+                String labels = labels(i, label, j);
+                double[] q = h.getPercentiles(QUANTILES);
+
+                for (int k = 0; k < QUANTILES.length; k++) {
+                    lines.add(name + labels.substring(0, labels.length() - 1) + ",quantile=\"" + QUANTILES[k] + "\"} " + q[k]);
+                }
+
+                lines.add(name + "_sum" + labels + " " + h.getSum());
+                lines.add(name + "_count" + labels + " " + h.getCount());
+                maxes.add(name.replace("_ms", "_max_ms") + labels + " " + h.getMax());
+            }
+        }
+
+        family(b, name, help, "summary", lines);
+        family(b, name.replace("_ms", "_max_ms"), help + " (max)", "gauge", maxes);
+    }
+
+    private static void family(StringBuilder b, String name, String help, String type, KList<String> lines) {
+        b.append("# HELP ").append(name).append(" ").append(help).append("\n");
+        b.append("# TYPE ").append(name).append(" ").append(type).append("\n");
+
+        for (String i : lines) {
+            b.append(i).append("\n");
+        }
+    }
+
+    private static String labels(Engine engine, String label, String value) {
+        return "{world=\"" + escape(engine.getWorld().name()) + "\"," + label + "=\"" + escape(value) + "\"}";
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -38,7 +38,7 @@ public class CommandIrisMetrics extends MortarCommand {
 
     @Override
     public void addTabOptions(VolmitSender sender, String[] args, KList<String> list) {
-
+        list.add("reset");
     }
 
     @Override
@@ -54,7 +54,12 @@ public class CommandIrisMetrics extends MortarCommand {
             Engine g = IrisToolbelt.access(world).getEngine();
 
             try {
-                g.printMetrics(sender);
+                if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+                    g.resetMetrics();
+                    sender.sendMessage("Metrics reset.");
+                } else {
+                    g.printMetrics(sender);
+                }
             } catch (Throwable e) {
                 Iris.reportError(e);
                 sender.sendMessage("You must be in an iris world.");
@@ -70,6 +75,6 @@ public class CommandIrisMetrics extends MortarCommand {
 
     @Override
     protected String getArgsUsage() {
-        return "";
+        return "[reset]";
     }
 }
@@ -3,6 +3,9 @@ package com.volmit.iris.core.command.pregen;
 import com.volmit.iris.Iris;
 import com.volmit.iris.core.gui.PregeneratorJob;
 import com.volmit.iris.core.pregenerator.PregenTask;
+import com.volmit.iris.core.pregenerator.PregeneratorMethod;
+import com.volmit.iris.core.pregenerator.methods.SyndicatePregenMethod;
+import com.volmit.iris.engine.platform.PlatformChunkGenerator;
 import com.volmit.iris.core.tools.IrisToolbelt;
 import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.math.Position2;
@@ -14,7 +17,7 @@ import org.bukkit.World;
 
 public class CommandIrisPregenStart extends MortarCommand {
 
-    private static final KList<String> argus = new KList<>("radius=", "x=", "z=");
+    private static final KList<String> argus = new KList<>("radius=", "x=", "z=", "loopback=");
 
     public CommandIrisPregenStart() {
         super("start", "create", "c", "new", "+");
@@ -73,7 +76,7 @@ public class CommandIrisPregenStart extends MortarCommand {
 
     @Override
     protected String getArgsUsage() {
-        return "<radius> [x=<centerX>] [z=<centerZ>] [world=<world>] [-here]";
+        return "<radius> [x=<centerX>] [z=<centerZ>] [world=<world>] [loopback=<nodes>] [-here]";
     }
 
     @Override
@@ -95,6 +98,7 @@ public class CommandIrisPregenStart extends MortarCommand {
         int height = -1;
         int x = 0;
         int z = 0;
+        int loopback = 0;
         boolean here = false;
 
         // Check all arguments
@@ -126,6 +130,7 @@ public class CommandIrisPregenStart extends MortarCommand {
                         }
                         case "x" -> x = getVal(val);
                         case "z" -> z = getVal(val);
+                        case "loopback" -> loopback = Integer.parseInt(val);
                         default -> failed.add(a + " (no type)");
                     }
                 }
@@ -186,6 +191,7 @@ public class CommandIrisPregenStart extends MortarCommand {
                 .append(",")
                 .append(z)
                 .append("\n")
+                .append(loopback > 0 ? "   - Loopback     > " + loopback + " syndicate nodes\n" : "")
 
                 // Append failed args
                 .append(failed.isEmpty() ? "(No failed arguments)\n" : "FAILED ARGS:\n");
@@ -194,7 +200,7 @@ public class CommandIrisPregenStart extends MortarCommand {
         }
 
         // Start pregen and append info to details
-        if (pregenerate(world, width, height, x, z)) {
+        if (pregenerate(world, width, height, x, z, loopback)) {
             details.append("Successfully started pregen.");
         } else {
             details.append("Failed to start pregen. Doublecheck your arguments!");
@@ -209,21 +215,37 @@ public class CommandIrisPregenStart extends MortarCommand {
     /**
      * Pregenerate a
      *
-     * @param world  world with a
-     * @param width  and
-     * @param height with center
-     * @param x      and
-     * @param z      coords
+     * @param world    world with a
+     * @param width    and
+     * @param height   with center
+     * @param x        and
+     * @param z        coords
+     * @param loopback the amount of in-process syndicate nodes to spread the task over, or 0 to generate normally
      * @return true if successful
      */
-    private boolean pregenerate(World world, int width, int height, int x, int z) {
+    private boolean pregenerate(World world, int width, int height, int x, int z, int loopback) {
         try {
-            IrisToolbelt.pregenerate(PregenTask
+            PregenTask task = PregenTask
                     .builder()
                     .center(new Position2(x, z))
                     .width(width >> 9 + 1)
                     .height(height >> 9 + 1)
-                    .build(), world);
+                    .build();
+
+            if (loopback > 0) {
+                PlatformChunkGenerator gen = IrisToolbelt.access(world);
+
+                if (gen == null) {
+                    return false;
+                }
+
+                PregeneratorMethod method = SyndicatePregenMethod.loopback(loopback, 1, task,
+                        world.getWorldFolder(), gen.getEngine().getDimension(), world.getSeed());
+                IrisToolbelt.pregenerate(task, method);
+                return true;
+            }
+
+            IrisToolbelt.pregenerate(task, world);
         } catch (Throwable e) {
             Iris.reportError(e);
             e.printStackTrace();
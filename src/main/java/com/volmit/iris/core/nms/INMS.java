@@ -41,6 +41,12 @@ public class INMS {
             return "BUKKIT";
         }
 
+        String forced = System.getProperty("iris.nms");
+
+        if (forced != null) {
+            return forced;
+        }
+
         try {
             return Bukkit.getServer().getClass().getCanonicalName().split("\\Q.\\E")[3];
         } catch (Throwable e) {
@@ -69,6 +69,15 @@ public interface INMSBinding {
 
     int countCustomBiomes();
 
+    /**
+     * Force a biome base into a chunk's biome storage
+     *
+     * @param x                  the block x (chunk relative)
+     * @param y                  the block y
+     * @param z                  the block z (chunk relative)
+     * @param somethingVeryDirty the biome base
+     * @param chunk              the biome grid
+     */
     void forceBiomeInto(int x, int y, int z, Object somethingVeryDirty, ChunkGenerator.BiomeGrid chunk);
 
     default boolean supportsDataPacks() {
@@ -367,7 +367,7 @@ public class NMSBinding17_1 implements INMSBinding {
     public void forceBiomeInto(int x, int y, int z, Object somethingVeryDirty, ChunkGenerator.BiomeGrid chunk) {
         try {
             BiomeStorage s = (BiomeStorage) getFieldForBiomeStorage(chunk).get(chunk);
-            s.setBiome(x, y, z, (BiomeBase) somethingVeryDirty);
+            s.setBiome(x >> 2, y >> 2, z >> 2, (BiomeBase) somethingVeryDirty);
         } catch (IllegalAccessException e) {
             Iris.reportError(e);
             e.printStackTrace();
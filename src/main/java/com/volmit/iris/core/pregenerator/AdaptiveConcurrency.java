@@ -0,0 +1,196 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core.pregenerator;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.util.math.M;
+import com.volmit.iris.util.math.RollingSequence;
+import com.volmit.iris.util.scheduling.J;
+
+/**
+ * Limits how many chunks a pregen method keeps in flight and tunes that limit while running.
+ * Every second the observed chunks per second are compared to the previous second. If the
+ * throughput improved, the limit keeps moving in the same direction, otherwise it turns around.
+ * Heap pressure and (for server backed methods) a server falling behind on ticks always
+ * shrink the limit.
+ * <p>
+ * Slots are released as chunks complete in any order, so a single slow chunk never holds up others.
+ */
+public class AdaptiveConcurrency {
+    private static final double HEAP_LIMIT = 0.85;
+    private static final double MSPT_LIMIT = 55;
+    private final int min;
+    private final int max;
+    private final RollingSequence tickTimes;
+    private int tickTask = -1;
+    private long lastTick;
+    private int limit;
+    private int inFlight;
+    private int completed;
+    private int direction;
+    private double lastRate;
+    private long lastTune;
+
+    /**
+     * @param start  the initial amount of chunks in flight
+     * @param max    the most chunks which may ever be in flight
+     * @param server true to also watch the server tick time, for methods which generate through the server
+     */
+    public AdaptiveConcurrency(int start, int max, boolean server) {
+        this.min = 1;
+        this.max = Math.max(min, max);
+        this.limit = Math.max(min, Math.min(this.max, start));
+        this.direction = 1;
+        this.lastRate = 0;
+        this.lastTune = M.ms();
+        tickTimes = new RollingSequence(20);
+
+        if (server) {
+            lastTick = M.ms();
+            tickTask = J.sr(() -> {
+                long now = M.ms();
+                tickTimes.put(now - lastTick);
+                lastTick = now;
+            }, 0);
+        }
+    }
+
+    /**
+     * Wait for a free slot. Every successful call must be paired with a call to {@link #release()}
+     *
+     * @return true if a slot was acquired, false if the thread was interrupted while waiting (nothing to release)
+     */
+    public synchronized boolean acquire() {
+        tune();
+
+        while (inFlight >= limit) {
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+
+            tune();
+        }
+
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Take a free slot without waiting. Every successful call must be paired with a call to
+     * {@link #release()} or {@link #cancel()}
+     *
+     * @return true if a slot was acquired
+     */
+    public synchronized boolean tryAcquire() {
+        tune();
+
+        if (inFlight >= limit) {
+            return false;
+        }
+
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Give back a slot which was acquired but never used for a chunk
+     */
+    public synchronized void cancel() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Free a slot once a chunk has completed (or failed)
+     */
+    public synchronized void release() {
+        inFlight--;
+        completed++;
+        notifyAll();
+    }
+
+    /**
+     * Wait until every acquired slot has been released again
+     */
+    public synchronized void awaitIdle() {
+        while (inFlight > 0) {
+            try {
+                wait(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public void close() {
+        if (tickTask != -1) {
+            J.csr(tickTask);
+            tickTask = -1;
+        }
+    }
+
+    private void tune() {
+        long now = M.ms();
+
+        if (now - lastTune < 1000 || !IrisSettings.get().getPerformance().isAdaptivePregen()) {
+            return;
+        }
+
+        double rate = completed / ((now - lastTune) / 1000D);
+        completed = 0;
+        lastTune = now;
+        int old = limit;
+
+        if (isHeapPressured() || isServerBehind()) {
+            direction = -1;
+            limit = Math.max(min, (limit * 3) / 4);
+        } else {
+            if (rate < lastRate * 0.97) {
+                direction = -direction;
+            }
+
+            limit = Math.max(min, Math.min(max, limit + (direction * Math.max(1, limit / 8))));
+        }
+
+        lastRate = rate;
+
+        if (old != limit) {
+            Iris.debug("Pregen concurrency " + old + " -> " + limit + " (" + (int) rate + " chunks/s)");
+            notifyAll();
+        }
+    }
+
+    private boolean isHeapPressured() {
+        Runtime r = Runtime.getRuntime();
+        return r.totalMemory() - r.freeMemory() > r.maxMemory() * HEAP_LIMIT;
+    }
+
+    private boolean isServerBehind() {
+        return tickTask != -1 && tickTimes.getAverage() > MSPT_LIMIT;
+    }
+}
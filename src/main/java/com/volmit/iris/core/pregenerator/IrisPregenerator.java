@@ -19,6 +19,8 @@
 package com.volmit.iris.core.pregenerator;
 
 import com.volmit.iris.Iris;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.collection.KSet;
 import com.volmit.iris.util.format.Form;
 import com.volmit.iris.util.math.M;
@@ -28,6 +30,8 @@ import com.volmit.iris.util.scheduling.ChronoLatch;
 import com.volmit.iris.util.scheduling.J;
 import com.volmit.iris.util.scheduling.Looper;
 
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -47,6 +51,7 @@ public class IrisPregenerator {
     private final AtomicInteger generatedLast;
     private final AtomicInteger generatedLastMinute;
     private final AtomicInteger totalChunks;
+    private final AtomicInteger resumedChunks;
     private final AtomicLong startTime;
     private final ChronoLatch minuteLatch;
     private final AtomicReference<String> currentGeneratorMethod;
@@ -54,6 +59,8 @@ public class IrisPregenerator {
     private final KSet<Position2> retry;
     private final KSet<Position2> net;
     private final ChronoLatch cl;
+    private final KList<CompletableFuture<?>> inFlight;
+    private PregenCheckpoint checkpoint;
 
     public IrisPregenerator(PregenTask task, PregeneratorMethod generator, PregenListener listener) {
         this.listener = listenify(listener);
@@ -65,6 +72,7 @@ public class IrisPregenerator {
         this.generator = generator;
         retry = new KSet<>();
         net = new KSet<>();
+        inFlight = new KList<>();
         currentGeneratorMethod = new AtomicReference<>("Void");
         minuteLatch = new ChronoLatch(60000, false);
         chunksPerSecond = new RollingSequence(10);
@@ -74,6 +82,7 @@ public class IrisPregenerator {
         generatedLast = new AtomicInteger(0);
         generatedLastMinute = new AtomicInteger(0);
         totalChunks = new AtomicInteger(0);
+        resumedChunks = new AtomicInteger(0);
         task.iterateRegions((_a, _b) -> totalChunks.addAndGet(1024));
         startTime = new AtomicLong(M.ms());
         ticker = new Looper() {
@@ -91,12 +100,18 @@ public class IrisPregenerator {
                     regionsPerMinute.put((double) minuteGenerated / 1024D);
                 }
 
+                if (checkpoint != null) {
+                    checkpoint.flush();
+                }
+
+                int concurrency = generator.getConcurrency();
                 listener.onTick(chunksPerSecond.getAverage(), chunksPerMinute.getAverage(),
                         regionsPerMinute.getAverage(),
                         (double) generated.get() / (double) totalChunks.get(),
                         generated.get(), totalChunks.get(),
                         totalChunks.get() - generated.get(),
-                        eta, M.ms() - startTime.get(), currentGeneratorMethod.get());
+                        eta, M.ms() - startTime.get(), currentGeneratorMethod.get()
+                                + (concurrency > 0 ? " (" + concurrency + " in flight)" : ""));
 
                 if (cl.flip()) {
                     Iris.info("Pregen: " + Form.f(generated.get()) + " of " + Form.f(totalChunks.get()) + " (" + Form.pc((double) generated.get() / (double) totalChunks.get(), 0) + ") " + Form.f((int) chunksPerSecond.getAverage()) + "/s ETA: " + Form.duration((double) eta, 2));
@@ -109,7 +124,7 @@ public class IrisPregenerator {
 
     private long computeETA() {
         return (long) ((totalChunks.get() - generated.get()) *
-                ((double) (M.ms() - startTime.get()) / (double) generated.get()));
+                ((double) (M.ms() - startTime.get()) / (double) (generated.get() - resumedChunks.get())));
     }
 
     public void close() {
@@ -121,6 +136,7 @@ public class IrisPregenerator {
         ticker.start();
         checkRegions();
         task.iterateRegions((x, z) -> visitRegion(x, z, true));
+        waitForRegions(0);
         task.iterateRegions((x, z) -> visitRegion(x, z, false));
         shutdown();
     }
@@ -132,11 +148,33 @@ public class IrisPregenerator {
     private void init() {
         generator.init();
         generator.save();
+        File folder = generator.getWorldFolder();
+
+        if (folder != null) {
+            checkpoint = PregenCheckpoint.open(folder, task);
+            task.iterateRegions((x, z) -> {
+                if (checkpoint.isRegionComplete(x, z)) {
+                    generatedRegions.add(new Position2(x, z));
+                }
+            });
+            resumedChunks.set(checkpoint.getCompletedChunks());
+            generated.addAndGet(resumedChunks.get());
+
+            if (resumedChunks.get() > 0) {
+                Iris.info("Resuming pregen with " + Form.f(resumedChunks.get()) + " chunks (" + Form.f(checkpoint.getCompletedRegions()) + " regions) already generated");
+            }
+        }
     }
 
     private void shutdown() {
+        waitForRegions(0);
         listener.onSaving();
         generator.close();
+
+        if (checkpoint != null) {
+            checkpoint.close(!shutdown.get());
+        }
+
         ticker.interrupt();
         listener.onClose();
     }
@@ -153,33 +191,140 @@ public class IrisPregenerator {
 
         Position2 pos = new Position2(x, z);
 
-        if (generatedRegions.contains(pos)) {
+        if (isRegionGenerated(pos)) {
             return;
         }
 
         currentGeneratorMethod.set(generator.getMethod(x, z));
         boolean hit = false;
-        if (generator.supportsRegions(x, z, listener) && regions) {
+        if (generator.supportsRegions(x, z, listener) && regions && generator.supportsPipelining()) {
+            pipelineRegion(x, z, pos);
+        } else if (generator.supportsRegions(x, z, listener) && regions) {
             hit = true;
             listener.onRegionGenerating(x, z);
+
+            if (checkpoint != null) {
+                generated.addAndGet(-checkpoint.clearRegion(x, z));
+            }
+
             generator.generateRegion(x, z, listener);
         } else if (!regions) {
             hit = true;
             listener.onRegionGenerating(x, z);
-            PregenTask.iterateRegion(x, z, (xx, zz) -> generator.generateChunk(xx, zz, listener));
+            PregenTask.iterateRegion(x, z, (xx, zz) -> {
+                if (checkpoint != null && checkpoint.isChunkComplete(xx, zz)) {
+                    listener.onChunkExistsInRegionGen(xx, zz);
+                    return;
+                }
+
+                generator.generateChunk(xx, zz, listener);
+            });
         }
 
         if (hit) {
             listener.onRegionGenerated(x, z);
             listener.onSaving();
             generator.save();
+
+            if (checkpoint != null) {
+                checkpoint.markRegion(x, z);
+            }
+
+            markRegionGenerated(pos);
+        }
+    }
+
+    private boolean isRegionGenerated(Position2 pos) {
+        synchronized (generatedRegions) {
+            return generatedRegions.contains(pos);
+        }
+    }
+
+    private void markRegionGenerated(Position2 pos) {
+        synchronized (generatedRegions) {
             generatedRegions.add(pos);
-            checkRegions();
         }
     }
 
+    /**
+     * Start a region without waiting for it, so the generator threads never idle on a region's tail.
+     * Regions are started in spiral order, which means every region in flight borders the previous
+     * one and they share most of the mantle plates they touch. A region only counts as generated once
+     * its future succeeds, a failed one is left to the per chunk pass after all regions are done.
+     */
+    private void pipelineRegion(int x, int z, Position2 pos) {
+        waitForRegions(getMaxRegionsInFlight() - 1);
+        listener.onRegionGenerating(x, z);
+
+        if (checkpoint != null) {
+            generated.addAndGet(-checkpoint.clearRegion(x, z));
+        }
+
+        CompletableFuture<?> f = generator.generateRegionAsync(x, z, listener).whenComplete((v, e) -> {
+            if (e != null) {
+                Iris.error("Failed to pregenerate region " + x + " " + z + ", retrying it chunk by chunk");
+                Iris.reportError(e);
+                e.printStackTrace();
+                return;
+            }
+
+            listener.onRegionGenerated(x, z);
+
+            if (checkpoint != null) {
+                checkpoint.markRegion(x, z);
+            }
+
+            markRegionGenerated(pos);
+        });
+
+        synchronized (inFlight) {
+            inFlight.add(f);
+        }
+    }
+
+    /**
+     * Block until at most the given amount of pipelined regions are still generating. While the heap
+     * is nearly full, the pipeline is drained completely so only one region is generated at a time.
+     */
+    private void waitForRegions(int max) {
+        while (true) {
+            CompletableFuture<?> oldest;
+
+            synchronized (inFlight) {
+                inFlight.removeIf(CompletableFuture::isDone);
+
+                if (inFlight.size() <= (isMemoryLow() ? 0 : max)) {
+                    return;
+                }
+
+                oldest = inFlight.get(0);
+            }
+
+            try {
+                oldest.get();
+            } catch (Throwable e) {
+                Iris.reportError(e);
+            }
+
+            synchronized (inFlight) {
+                inFlight.remove(oldest);
+            }
+        }
+    }
+
+    private int getMaxRegionsInFlight() {
+        long budget = Runtime.getRuntime().maxMemory() / 2;
+        long perRegion = Math.max(1, IrisSettings.get().getPerformance().getPregenRegionMemoryMB()) * 1024L * 1024L;
+        return (int) Math.max(1, Math.min(IrisSettings.get().getPerformance().getPregenRegionsInFlight(), budget / perRegion));
+    }
+
+    private boolean isMemoryLow() {
+        Runtime r = Runtime.getRuntime();
+        return r.totalMemory() - r.freeMemory() > r.maxMemory() * 0.85;
+    }
+
     private void checkRegion(int x, int z) {
-        if (generatedRegions.contains(new Position2(x, z))) {
+        if (isRegionGenerated(new Position2(x, z))) {
             return;
         }
 
@@ -210,6 +355,10 @@ public class IrisPregenerator {
             public void onChunkGenerated(int x, int z) {
                 listener.onChunkGenerated(x, z);
                 generated.addAndGet(1);
+
+                if (checkpoint != null) {
+                    checkpoint.markChunk(x, z);
+                }
             }
 
             @Override
@@ -0,0 +1,429 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core.pregenerator;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.util.documentation.ChunkCoordinates;
+import com.volmit.iris.util.documentation.RegionCoordinates;
+import com.volmit.iris.util.math.Position2;
+import com.volmit.iris.util.nbt.mca.MCAUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A crash safe journal of the progress of a single pregen task. Generated chunks and finished
+ * regions are appended as fixed size records and fsynced in batches, so a restart only loses
+ * the last unsynced batch. When reopened, the journal is replayed, any torn record left by a
+ * crash is dropped, and the result is checked against the region file headers on disk.
+ */
+@SuppressWarnings("ResultOfMethodCallIgnored")
+public class PregenCheckpoint {
+    private static final int MAGIC = 0x49504A31;
+    private static final int HEADER_SIZE = 20;
+    private static final int RECORD_SIZE = 9;
+    private static final byte CHUNK = 0;
+    private static final byte REGION = 1;
+    private final File file;
+    private final File regionFolder;
+    private final PregenTask task;
+    private final LongSet regions;
+    private final Long2ObjectMap<long[]> chunks;
+    private final LongArrayList pendingChunks;
+    private final LongArrayList pendingRegions;
+    private FileOutputStream fos;
+    private DataOutputStream out;
+
+    private PregenCheckpoint(File worldFolder, PregenTask task) {
+        this.task = task;
+        this.file = new File(worldFolder, "iris/pregen/" + task.getCenter().getX() + "." + task.getCenter().getZ()
+                + "." + task.getWidth() + "x" + task.getHeight() + ".journal");
+        this.regionFolder = new File(worldFolder, "region");
+        regions = new LongOpenHashSet();
+        chunks = new Long2ObjectOpenHashMap<>();
+        pendingChunks = new LongArrayList();
+        pendingRegions = new LongArrayList();
+    }
+
+    /**
+     * Open (or create) the checkpoint for the given task in the given world. A task is identified
+     * by its center and size, so starting the same pregen again resumes where it left off.
+     *
+     * @param worldFolder the world folder
+     * @param task        the task
+     * @return the checkpoint, already replayed and validated against the region files
+     */
+    public static PregenCheckpoint open(File worldFolder, PregenTask task) {
+        PregenCheckpoint c = new PregenCheckpoint(worldFolder, task);
+
+        try {
+            c.replay();
+            c.validate();
+            c.compact();
+        } catch (IOException e) {
+            Iris.error("Failed to read pregen checkpoint " + c.file.getAbsolutePath() + ", starting over");
+            Iris.reportError(e);
+            e.printStackTrace();
+            c.regions.clear();
+            c.chunks.clear();
+            c.file.delete();
+        }
+
+        return c;
+    }
+
+    @RegionCoordinates
+    public synchronized boolean isRegionComplete(int x, int z) {
+        return regions.contains(Cache.key(x, z));
+    }
+
+    @ChunkCoordinates
+    public synchronized boolean isChunkComplete(int x, int z) {
+        if (regions.contains(Cache.key(x >> 5, z >> 5))) {
+            return true;
+        }
+
+        long[] bits = chunks.get(Cache.key(x >> 5, z >> 5));
+        return bits != null && (bits[index(x, z) >> 6] & (1L << index(x, z))) != 0;
+    }
+
+    /**
+     * @return the amount of chunks inside the task which are already generated
+     */
+    public synchronized int getCompletedChunks() {
+        int c = regions.size() * 1024;
+
+        for (long[] i : chunks.values()) {
+            for (long j : i) {
+                c += Long.bitCount(j);
+            }
+        }
+
+        return c;
+    }
+
+    public synchronized int getCompletedRegions() {
+        return regions.size();
+    }
+
+    /**
+     * Forget partial progress of a region which is about to be generated as a whole again
+     *
+     * @param x the region x
+     * @param z the region z
+     * @return the amount of chunks which were marked as done before
+     */
+    @RegionCoordinates
+    public synchronized int clearRegion(int x, int z) {
+        long[] bits = chunks.remove(Cache.key(x, z));
+        int c = 0;
+
+        if (bits != null) {
+            for (long i : bits) {
+                c += Long.bitCount(i);
+            }
+        }
+
+        return c;
+    }
+
+    @ChunkCoordinates
+    public synchronized void markChunk(int x, int z) {
+        long key = Cache.key(x >> 5, z >> 5);
+
+        if (regions.contains(key)) {
+            return;
+        }
+
+        long[] bits = chunks.computeIfAbsent(key, (k) -> new long[16]);
+        int i = index(x, z);
+
+        if ((bits[i >> 6] & (1L << i)) != 0) {
+            return;
+        }
+
+        bits[i >> 6] |= 1L << i;
+        pendingChunks.add(Cache.key(x, z));
+
+        if (pendingChunks.size() >= IrisSettings.get().getPerformance().getPregenCheckpointBatch()) {
+            flush();
+        }
+    }
+
+    /**
+     * Mark a region as done. Only call this after the region has been saved, as the
+     * journal is synced to disk right away.
+     */
+    @RegionCoordinates
+    public synchronized void markRegion(int x, int z) {
+        long key = Cache.key(x, z);
+
+        if (regions.add(key)) {
+            chunks.remove(key);
+            pendingRegions.add(key);
+            flush();
+        }
+    }
+
+    /**
+     * Append all pending records to the journal and sync it to the disk
+     */
+    public synchronized void flush() {
+        if (pendingChunks.isEmpty() && pendingRegions.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (out == null) {
+                openJournal();
+            }
+
+            for (long i : pendingChunks) {
+                out.writeByte(CHUNK);
+                out.writeLong(i);
+            }
+
+            for (long i : pendingRegions) {
+                out.writeByte(REGION);
+                out.writeLong(i);
+            }
+
+            out.flush();
+            fos.getFD().sync();
+            pendingChunks.clear();
+            pendingRegions.clear();
+        } catch (IOException e) {
+            Iris.error("Failed to write pregen checkpoint " + file.getAbsolutePath());
+            Iris.reportError(e);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flush and close the journal
+     *
+     * @param finished if the task completed, in which case the journal is no longer needed
+     */
+    public synchronized void close(boolean finished) {
+        flush();
+
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+                fos = null;
+            }
+        } catch (IOException e) {
+            Iris.reportError(e);
+            e.printStackTrace();
+        }
+
+        if (finished) {
+            file.delete();
+        }
+    }
+
+    private void openJournal() throws IOException {
+        file.getParentFile().mkdirs();
+        boolean fresh = !file.exists() || file.length() < HEADER_SIZE;
+        fos = new FileOutputStream(file, !fresh);
+        out = new DataOutputStream(new BufferedOutputStream(fos));
+
+        if (fresh) {
+            writeHeader(out);
+        }
+    }
+
+    private void writeHeader(DataOutputStream dos) throws IOException {
+        dos.writeInt(MAGIC);
+        dos.writeInt(task.getCenter().getX());
+        dos.writeInt(task.getCenter().getZ());
+        dos.writeInt(task.getWidth());
+        dos.writeInt(task.getHeight());
+    }
+
+    private void replay() throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+
+        long valid = HEADER_SIZE;
+
+        try (DataInputStream din = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (din.readInt() != MAGIC
+                    || din.readInt() != task.getCenter().getX()
+                    || din.readInt() != task.getCenter().getZ()
+                    || din.readInt() != task.getWidth()
+                    || din.readInt() != task.getHeight()) {
+                throw new IOException("Checkpoint does not belong to this task");
+            }
+
+            while (true) {
+                byte type = din.readByte();
+                long key = din.readLong();
+
+                if (type == CHUNK) {
+                    int x = Cache.keyX(key);
+                    int z = Cache.keyZ(key);
+                    long region = Cache.key(x >> 5, z >> 5);
+
+                    if (!regions.contains(region)) {
+                        long[] bits = chunks.computeIfAbsent(region, (k) -> new long[16]);
+                        bits[index(x, z) >> 6] |= 1L << index(x, z);
+                    }
+                } else if (type == REGION) {
+                    regions.add(key);
+                    chunks.remove(key);
+                } else {
+                    break;
+                }
+
+                valid += RECORD_SIZE;
+            }
+        } catch (EOFException ignored) {
+            // A torn record at the end is expected after a crash
+        }
+
+        if (valid < file.length()) {
+            Iris.warn("Dropping " + (file.length() - valid) + " bytes of incomplete pregen checkpoint data");
+        }
+    }
+
+    /**
+     * Only trust chunks which actually made it into the region files. Anything else
+     * (a region file which was deleted, or chunks which never got saved before a crash)
+     * will be generated again.
+     */
+    private void validate() {
+        LongSet keys = new LongOpenHashSet(regions);
+        keys.addAll(chunks.keySet());
+        int dropped = 0;
+
+        for (long i : keys) {
+            int rx = Cache.keyX(i);
+            int rz = Cache.keyZ(i);
+            long[] present = new long[16];
+            File f = new File(regionFolder, "r." + rx + "." + rz + ".mca");
+
+            if (f.exists()) {
+                try {
+                    for (Position2 j : MCAUtil.sampleChunkPositions(f)) {
+                        int idx = index(j.getX(), j.getZ());
+                        present[idx >> 6] |= 1L << idx;
+                    }
+                } catch (Throwable e) {
+                    Iris.reportError(e);
+                }
+            }
+
+            long[] bits = chunks.get(i);
+
+            if (regions.remove(i)) {
+                bits = new long[16];
+                Arrays.fill(bits, -1L);
+            }
+
+            int full = 0;
+
+            for (int j = 0; j < 16; j++) {
+                dropped += Long.bitCount(bits[j] & ~present[j]);
+                bits[j] &= present[j];
+                full += Long.bitCount(bits[j]);
+            }
+
+            if (full == 1024) {
+                regions.add(i);
+                chunks.remove(i);
+            } else if (full == 0) {
+                chunks.remove(i);
+            } else {
+                chunks.put(i, bits);
+            }
+        }
+
+        if (dropped > 0) {
+            Iris.warn("Pregen checkpoint had " + dropped + " chunks which are missing from the region files, they will be generated again");
+        }
+    }
+
+    /**
+     * Rewrite the journal so it only holds the validated state
+     */
+    private void compact() throws IOException {
+        if (regions.isEmpty() && chunks.isEmpty()) {
+            file.delete();
+            return;
+        }
+
+        file.getParentFile().mkdirs();
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (FileOutputStream f = new FileOutputStream(tmp)) {
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(f));
+            writeHeader(dos);
+
+            for (long i : regions) {
+                dos.writeByte(REGION);
+                dos.writeLong(i);
+            }
+
+            for (Long2ObjectMap.Entry<long[]> i : chunks.long2ObjectEntrySet()) {
+                int rx = Cache.keyX(i.getLongKey()) << 5;
+                int rz = Cache.keyZ(i.getLongKey()) << 5;
+
+                for (int j = 0; j < 1024; j++) {
+                    if ((i.getValue()[j >> 6] & (1L << j)) != 0) {
+                        dos.writeByte(CHUNK);
+                        dos.writeLong(Cache.key(rx + (j & 31), rz + (j >> 5)));
+                    }
+                }
+            }
+
+            dos.flush();
+            f.getFD().sync();
+        }
+
+        if (file.exists()) {
+            file.delete();
+        }
+
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Failed to move pregen checkpoint into " + file.getAbsolutePath());
+        }
+    }
+
+    private static int index(int x, int z) {
+        return ((z & 31) << 5) | (x & 31);
+    }
+}
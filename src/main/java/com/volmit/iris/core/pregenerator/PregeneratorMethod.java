@@ -18,6 +18,9 @@
 
 package com.volmit.iris.core.pregenerator;
 
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Represents something that is capable of generating in chunks or regions, or both
  */
@@ -74,4 +77,45 @@ public interface PregeneratorMethod {
      * @param listener
      */
     void generateChunk(int x, int z, PregenListener listener);
+
+    /**
+     * Return true if this method can keep several regions in flight through generateRegionAsync
+     *
+     * @return true if regions can be pipelined
+     */
+    default boolean supportsPipelining() {
+        return false;
+    }
+
+    /**
+     * Start generating a region without waiting for it. Only called if supportsPipelining()
+     * and supportsRegions() both return true.
+     *
+     * @param x        the x region
+     * @param z        the z region
+     * @param listener signal chunks generating & generated. Parallel capable.
+     * @return a future which completes once the region is generated and written to disk
+     */
+    default CompletableFuture<?> generateRegionAsync(int x, int z, PregenListener listener) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Return how many chunks this method currently keeps in flight
+     *
+     * @return the current limit or 0 if this method does not adapt its concurrency
+     */
+    default int getConcurrency() {
+        return 0;
+    }
+
+    /**
+     * Return the folder of the world this method generates into. If a folder is returned,
+     * progress is checkpointed there so the same task can be resumed after a restart.
+     *
+     * @return the world folder or null if this method cannot be resumed
+     */
+    default File getWorldFolder() {
+        return null;
+    }
 }
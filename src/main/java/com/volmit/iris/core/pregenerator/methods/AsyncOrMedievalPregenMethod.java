@@ -23,6 +23,8 @@ import com.volmit.iris.core.pregenerator.PregeneratorMethod;
 import io.papermc.lib.PaperLib;
 import org.bukkit.World;
 
+import java.io.File;
+
 public class AsyncOrMedievalPregenMethod implements PregeneratorMethod {
     private final PregeneratorMethod method;
 
@@ -64,4 +66,14 @@ public class AsyncOrMedievalPregenMethod implements PregeneratorMethod {
     public void generateChunk(int x, int z, PregenListener listener) {
         method.generateChunk(x, z, listener);
     }
+
+    @Override
+    public int getConcurrency() {
+        return method.getConcurrency();
+    }
+
+    @Override
+    public File getWorldFolder() {
+        return method.getWorldFolder();
+    }
 }
@@ -19,21 +19,21 @@
 package com.volmit.iris.core.pregenerator.methods;
 
 import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.core.pregenerator.AdaptiveConcurrency;
 import com.volmit.iris.core.pregenerator.PregenListener;
 import com.volmit.iris.core.pregenerator.PregeneratorMethod;
-import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.parallel.MultiBurst;
 import com.volmit.iris.util.scheduling.J;
 import io.papermc.lib.PaperLib;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 
-import java.util.concurrent.CompletableFuture;
+import java.io.File;
 
 public class AsyncPregenMethod implements PregeneratorMethod {
     private final World world;
     private final MultiBurst burst;
-    private final KList<CompletableFuture<?>> future;
+    private final AdaptiveConcurrency concurrency;
 
     public AsyncPregenMethod(World world, int threads) {
         if (!PaperLib.isPaper()) {
@@ -42,7 +42,7 @@ public class AsyncPregenMethod implements PregeneratorMethod {
 
         this.world = world;
         burst = new MultiBurst("Iris Async Pregenerator", IrisSettings.get().getConcurrency().getPregenThreadPriority(), threads);
-        future = new KList<>(1024);
+        concurrency = new AdaptiveConcurrency(threads, threads * 4, true);
     }
 
     private void unloadAndSaveAllChunks() {
@@ -58,25 +58,26 @@ public class AsyncPregenMethod implements PregeneratorMethod {
         }
     }
 
+    /**
+     * Request the chunk without holding a thread on it, so the concurrency limit and not the pool
+     * size bounds the chunks in flight. The slot is released once paper finished the chunk.
+     */
     private void completeChunk(int x, int z, PregenListener listener) {
-        try {
-            PaperLib.getChunkAtAsync(world, x, z, true).get();
-            listener.onChunkGenerated(x, z);
-        } catch (Throwable e) {
-            J.sleep(5);
-            future.add(burst.complete(() -> completeChunk(x, z, listener)));
-        }
-    }
+        PaperLib.getChunkAtAsync(world, x, z, true).whenComplete((chunk, e) -> {
+            if (e != null) {
+                burst.complete(() -> {
+                    J.sleep(5);
+                    completeChunk(x, z, listener);
+                });
+                return;
+            }
 
-    private void waitForChunks() {
-        for (CompletableFuture<?> i : future.copy()) {
             try {
-                i.get();
-                future.remove(i);
-            } catch (Throwable e) {
-                e.printStackTrace();
+                listener.onChunkGenerated(x, z);
+            } finally {
+                concurrency.release();
             }
-        }
+        });
     }
 
     @Override
@@ -91,14 +92,15 @@ public class AsyncPregenMethod implements PregeneratorMethod {
 
     @Override
     public void close() {
-        waitForChunks();
+        concurrency.awaitIdle();
+        concurrency.close();
         burst.shutdownAndAwait();
         unloadAndSaveAllChunks();
     }
 
     @Override
     public void save() {
-        waitForChunks();
+        concurrency.awaitIdle();
         unloadAndSaveAllChunks();
     }
 
@@ -114,11 +116,21 @@ public class AsyncPregenMethod implements PregeneratorMethod {
 
     @Override
     public void generateChunk(int x, int z, PregenListener listener) {
-        if (future.size() > IrisSettings.getThreadCount(IrisSettings.get().getConcurrency().getPregenThreadCount())) {
-            waitForChunks();
+        if (!concurrency.acquire()) {
+            return;
         }
 
         listener.onChunkGenerating(x, z);
-        future.add(burst.complete(() -> completeChunk(x, z, listener)));
+        completeChunk(x, z, listener);
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency.getLimit();
+    }
+
+    @Override
+    public File getWorldFolder() {
+        return world.getWorldFolder();
     }
 }
@@ -24,6 +24,9 @@ import com.volmit.iris.engine.object.common.HeadlessWorld;
 import com.volmit.iris.engine.platform.HeadlessGenerator;
 import lombok.Getter;
 
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
 public class HeadlessPregenMethod implements PregeneratorMethod {
     private final HeadlessWorld world;
 
@@ -69,8 +72,28 @@ public class HeadlessPregenMethod implements PregeneratorMethod {
         generator.generateRegion(x, z, listener);
     }
 
+    @Override
+    public boolean supportsPipelining() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<?> generateRegionAsync(int x, int z, PregenListener listener) {
+        return generator.generateRegionAsync(x, z, listener);
+    }
+
+    @Override
+    public int getConcurrency() {
+        return generator.getConcurrency();
+    }
+
     @Override
     public void generateChunk(int x, int z, PregenListener listener) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public File getWorldFolder() {
+        return world.getWorld().worldFolder();
+    }
 }
@@ -28,6 +28,7 @@ import com.volmit.iris.util.math.Position2;
 import org.bukkit.World;
 
 import java.io.File;
+import java.util.concurrent.CompletableFuture;
 
 public class HybridPregenMethod implements PregeneratorMethod {
     private final PregeneratorMethod headless;
@@ -94,8 +95,28 @@ public class HybridPregenMethod implements PregeneratorMethod {
         headless.generateRegion(x, z, listener);
     }
 
+    @Override
+    public boolean supportsPipelining() {
+        return headless.supportsPipelining();
+    }
+
+    @Override
+    public CompletableFuture<?> generateRegionAsync(int x, int z, PregenListener listener) {
+        return headless.generateRegionAsync(x, z, listener);
+    }
+
+    @Override
+    public int getConcurrency() {
+        return Math.max(headless.getConcurrency(), inWorld.getConcurrency());
+    }
+
     @Override
     public void generateChunk(int x, int z, PregenListener listener) {
         inWorld.generateChunk(x, z, listener);
     }
+
+    @Override
+    public File getWorldFolder() {
+        return world.getWorldFolder();
+    }
 }
@@ -19,38 +19,27 @@
 package com.volmit.iris.core.pregenerator.methods;
 
 import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.core.pregenerator.AdaptiveConcurrency;
 import com.volmit.iris.core.pregenerator.PregenListener;
 import com.volmit.iris.core.pregenerator.PregeneratorMethod;
-import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.scheduling.J;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 
-import java.util.concurrent.CompletableFuture;
+import java.io.File;
 
 public class MedievalPregenMethod implements PregeneratorMethod {
     private final World world;
-    private final KList<CompletableFuture<?>> futures;
+    private final AdaptiveConcurrency concurrency;
 
     public MedievalPregenMethod(World world) {
         this.world = world;
-        futures = new KList<>();
-    }
-
-    private void waitForChunks() {
-        for (CompletableFuture<?> i : futures) {
-            try {
-                i.get();
-            } catch (Throwable e) {
-                e.printStackTrace();
-            }
-        }
-
-        futures.clear();
+        int threads = IrisSettings.getThreadCount(IrisSettings.get().getConcurrency().getPregenThreadCount());
+        concurrency = new AdaptiveConcurrency(threads, threads * 2, true);
     }
 
     private void unloadAndSaveAllChunks() {
-        waitForChunks();
+        concurrency.awaitIdle();
         try {
             J.sfut(() -> {
                 for (Chunk i : world.getLoadedChunks()) {
@@ -71,6 +60,7 @@ public class MedievalPregenMethod implements PregeneratorMethod {
     @Override
     public void close() {
         unloadAndSaveAllChunks();
+        concurrency.close();
     }
 
     @Override
@@ -95,14 +85,28 @@ public class MedievalPregenMethod implements PregeneratorMethod {
 
     @Override
     public void generateChunk(int x, int z, PregenListener listener) {
-        if (futures.size() > IrisSettings.getThreadCount(IrisSettings.get().getConcurrency().getPregenThreadCount())) {
-            waitForChunks();
+        if (!concurrency.acquire()) {
+            return;
         }
 
         listener.onChunkGenerating(x, z);
-        futures.add(J.sfut(() -> {
-            world.getChunkAt(x, z);
-            listener.onChunkGenerated(x, z);
-        }));
+        J.s(() -> {
+            try {
+                world.getChunkAt(x, z);
+                listener.onChunkGenerated(x, z);
+            } finally {
+                concurrency.release();
+            }
+        });
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency.getLimit();
+    }
+
+    @Override
+    public File getWorldFolder() {
+        return world.getWorldFolder();
     }
 }
@@ -18,120 +18,68 @@
 
 package com.volmit.iris.core.pregenerator.methods;
 
-import com.google.common.util.concurrent.AtomicDouble;
 import com.volmit.iris.Iris;
 import com.volmit.iris.core.pregenerator.PregenListener;
 import com.volmit.iris.core.pregenerator.PregenTask;
 import com.volmit.iris.core.pregenerator.PregeneratorMethod;
-import com.volmit.iris.core.pregenerator.syndicate.SyndicateClient;
-import com.volmit.iris.core.pregenerator.syndicate.command.*;
+import com.volmit.iris.core.pregenerator.syndicate.SyndicateCoordinator;
+import com.volmit.iris.core.pregenerator.syndicate.SyndicateLoopbackNode;
+import com.volmit.iris.core.pregenerator.syndicate.SyndicateNode;
 import com.volmit.iris.engine.object.dimensional.IrisDimension;
-import com.volmit.iris.util.io.IO;
-import com.volmit.iris.util.scheduling.J;
-import lombok.Getter;
-import org.zeroturnaround.zip.ZipUtil;
+import com.volmit.iris.util.collection.KList;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class SyndicatePregenMethod implements PregeneratorMethod {
-    @Getter
-    private final String address;
-    private String nickname;
-    private final int port;
-    private final String password;
-    private final IrisDimension dimension;
-    private boolean ready = false;
+    private final KList<SyndicateNode> nodes;
+    private final KList<SyndicateLoopbackNode> loopback;
     private final File worldFolder;
-    private final UUID pack = UUID.randomUUID();
-    private final long seed;
+    private final SyndicateCoordinator coordinator;
 
-    public SyndicatePregenMethod(String nickname, File worldFolder, String address, int port, String password, IrisDimension dimension, long seed) {
-        this.seed = seed;
-        this.worldFolder = worldFolder;
-        this.address = address;
-        this.port = port;
-        this.password = password;
-        this.dimension = dimension;
-    }
-
-    private SyndicateClient.SyndicateClientBuilder connect() {
-        return SyndicateClient.builder().address(address).port(port);
+    public SyndicatePregenMethod(KList<SyndicateNode> nodes, PregenTask task, File worldFolder, IrisDimension dimension, long seed) {
+        this(nodes, new KList<>(), task, worldFolder, dimension, seed);
     }
 
-    public synchronized void setup() {
-        if (ready) {
-            return;
-        }
-
-        ready = false;
-        try {
-            connect().command(SyndicateInstallPack
-                            .builder()
-                            .dimension(dimension)
-                            .pack(pack)
-                            .seed(seed)
-                            .build())
-                    .output((o) -> {
-                        File to = new File(Iris.getTemp(), "send-" + pack + ".zip");
-                        ZipUtil.pack(dimension.getLoader().getDataFolder(), to);
-
-                        try {
-                            IO.writeAll(to, o);
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-
-                        to.deleteOnExit();
-                    })
-                    .build().go((response, data) -> {
-                        if (response instanceof SyndicateBusy) {
-                            throw new RuntimeException("Service is busy, will try later");
-                        }
-
-                        ready = true;
-                    });
-            ready = true;
-        } catch (Throwable throwable) {
-            if (throwable instanceof RuntimeException) {
-                ready = false;
-                return;
-            }
-
-            throwable.printStackTrace();
-        }
+    private SyndicatePregenMethod(KList<SyndicateNode> nodes, KList<SyndicateLoopbackNode> loopback, PregenTask task, File worldFolder, IrisDimension dimension, long seed) {
+        this.nodes = nodes;
+        this.loopback = loopback;
+        this.worldFolder = worldFolder;
+        coordinator = new SyndicateCoordinator(nodes, task, dimension, seed, worldFolder);
     }
 
-    public boolean canGenerate() {
-        if (!ready) {
-            J.a(this::setup);
+    /**
+     * Run a task across in-process loopback nodes. Useful to test the cluster on a single machine.
+     *
+     * @param count   the amount of loopback nodes
+     * @param regions the amount of regions each node generates at once
+     */
+    public static SyndicatePregenMethod loopback(int count, int regions, PregenTask task, File worldFolder, IrisDimension dimension, long seed) throws IOException {
+        KList<SyndicateLoopbackNode> loopback = new KList<>();
+        KList<SyndicateNode> nodes = new KList<>();
+
+        for (int i = 0; i < count; i++) {
+            SyndicateLoopbackNode n = new SyndicateLoopbackNode("Loopback " + (i + 1), regions);
+            loopback.add(n);
+            nodes.add(n.getNode());
         }
 
-        return ready;
+        return new SyndicatePregenMethod(nodes, loopback, task, worldFolder, dimension, seed);
     }
 
     @Override
     public void init() {
-        J.a(this::setup);
+
     }
 
     @Override
     public void close() {
-        if (ready) {
-            try {
-                connect()
-                        .command(SyndicateClose
-                                .builder()
-                                .pack(pack)
-                                .build())
-                        .build()
-                        .go((__, __b) -> {
-                        });
-            } catch (Throwable throwable) {
-                throwable.printStackTrace();
-            }
+        coordinator.close();
+
+        for (SyndicateLoopbackNode i : loopback) {
+            i.close();
         }
     }
 
@@ -147,110 +95,27 @@ public class SyndicatePregenMethod implements PregeneratorMethod {
 
     @Override
     public String getMethod(int x, int z) {
-        return "Syndicate<" + nickname + ">";
+        return "Syndicate<" + nodes.toString(", ") + ">";
     }
 
-    private double checkProgress(int x, int z) {
-        AtomicDouble progress = new AtomicDouble(-1);
-        try {
-            connect()
-                    .command(SyndicateGetProgress.builder()
-                            .pack(pack).build()).output((i) -> {
-                    }).build().go((response, o) -> {
-                        if (response instanceof SyndicateSendProgress) {
-                            if (((SyndicateSendProgress) response).isAvailable()) {
-                                progress.set(((SyndicateSendProgress) response).getProgress());
-                                File f = new File(worldFolder, "region/r." + x + "." + z + ".mca");
-                                try {
-                                    f.getParentFile().mkdirs();
-                                    IO.writeAll(f, o);
-                                    progress.set(1000);
-                                } catch (Throwable e) {
-                                    e.printStackTrace();
-                                }
-                            }
-                        }
-                    });
-        } catch (Throwable throwable) {
-            throwable.printStackTrace();
-        }
+    @Override
+    public boolean supportsPipelining() {
+        return true;
+    }
 
-        return progress.get();
+    @Override
+    public CompletableFuture<?> generateRegionAsync(int x, int z, PregenListener listener) {
+        coordinator.start(listener);
+        return coordinator.getRegion(x, z);
     }
 
     @Override
     public void generateRegion(int x, int z, PregenListener listener) {
-        if (!ready) {
-            throw new RuntimeException();
-        }
-
         try {
-            connect().command(SyndicateGenerate
-                            .builder()
-                            .x(x).z(z).pack(pack)
-                            .build())
-                    .build().go((response, data) -> {
-                        if (response instanceof SyndicateOK) {
-                            listener.onNetworkStarted(x, z);
-                            J.a(() -> {
-                                double lastp = 0;
-                                int calls = 0;
-                                boolean installed = false;
-                                while (true) {
-                                    J.sleep(100);
-                                    double progress = checkProgress(x, z);
-
-                                    if (progress == 1000) {
-                                        installed = true;
-                                        AtomicInteger a = new AtomicInteger(calls);
-                                        PregenTask.iterateRegion(x, z, (xx, zz) -> {
-                                            if (a.decrementAndGet() < 0) {
-                                                listener.onNetworkGeneratedChunk(xx, zz);
-                                            }
-                                        });
-                                        calls = 1024;
-                                    } else if (progress < 0) {
-                                        break;
-                                    }
-
-                                    int change = (int) Math.floor((progress - lastp) * 1024D);
-                                    change = change == 0 ? 1 : change;
-
-                                    AtomicInteger a = new AtomicInteger(calls);
-                                    AtomicInteger b = new AtomicInteger(change);
-                                    PregenTask.iterateRegion(x, z, (xx, zz) -> {
-                                        if (a.decrementAndGet() < 0) {
-                                            if (b.decrementAndGet() >= 0) {
-                                                listener.onNetworkGeneratedChunk(xx, zz);
-                                            }
-                                        }
-                                    });
-                                    calls += change;
-                                }
-
-                                if (!installed) {
-                                    // TODO RETRY REGION
-                                    return;
-                                }
-
-                                listener.onNetworkDownloaded(x, z);
-                            });
-                        } else if (response instanceof SyndicateInstallFirst) {
-                            ready = false;
-                            throw new RuntimeException();
-                        } else if (response instanceof SyndicateBusy) {
-                            throw new RuntimeException();
-                        } else {
-                            throw new RuntimeException();
-                        }
-                    });
-        } catch (Throwable throwable) {
-
-            if (throwable instanceof RuntimeException) {
-                throw (RuntimeException) throwable;
-            }
-
-            throwable.printStackTrace();
+            generateRegionAsync(x, z, listener).get();
+        } catch (InterruptedException | ExecutionException e) {
+            Iris.reportError(e);
+            e.printStackTrace();
         }
     }
 
@@ -258,4 +123,14 @@ public class SyndicatePregenMethod implements PregeneratorMethod {
     public void generateChunk(int x, int z, PregenListener listener) {
 
     }
+
+    @Override
+    public int getConcurrency() {
+        return coordinator.getRegionsInFlight() * 1024;
+    }
+
+    @Override
+    public File getWorldFolder() {
+        return worldFolder;
+    }
 }
@@ -22,30 +22,39 @@ import com.volmit.iris.core.pregenerator.syndicate.command.SyndicateCommand;
 import com.volmit.iris.util.function.Consumer2;
 import lombok.Builder;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.function.Consumer;
 
 @Builder
 public class SyndicateClient {
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 30000;
     private final String address;
     private final int port;
+    private final String password;
     private final SyndicateCommand command;
     private final Consumer<DataOutputStream> output;
 
     public void go(Consumer2<SyndicateCommand, DataInputStream> handler) throws Throwable {
-        Socket socket = new Socket(address, port);
-        DataInputStream i = new DataInputStream(socket.getInputStream());
-        DataOutputStream o = new DataOutputStream(socket.getOutputStream());
-        SyndicateCommandIO.write(command, o);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(address, port), CONNECT_TIMEOUT);
+            socket.setSoTimeout(READ_TIMEOUT);
+            DataInputStream i = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream o = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            o.writeUTF(password == null ? "" : password);
+            SyndicateCommandIO.write(command, o);
 
-        if (output != null) {
-            output.accept(o);
-        }
+            if (output != null) {
+                output.accept(o);
+            }
 
-        o.flush();
-        handler.accept(SyndicateCommandIO.read(i), i);
-        socket.close();
+            o.flush();
+            handler.accept(SyndicateCommandIO.read(i), i);
+        }
     }
 }
@@ -0,0 +1,445 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core.pregenerator.syndicate;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.pregenerator.PregenListener;
+import com.volmit.iris.core.pregenerator.PregenTask;
+import com.volmit.iris.core.pregenerator.syndicate.command.SyndicateStatus;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.engine.object.dimensional.IrisDimension;
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.math.M;
+import com.volmit.iris.util.scheduling.J;
+import org.zeroturnaround.zip.ZipUtil;
+
+import java.io.File;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads the regions of a pregen task over several syndicate nodes.
+ * <p>
+ * The task is cut into one contiguous shard of regions per node, so each node works on
+ * neighbouring regions and reuses its mantle. A node which runs out of work steals half of
+ * the unstarted regions of the busiest node. Nodes are polled with a heartbeat, and a node
+ * which stops answering has all of its regions handed back to the others. If no node has answered
+ * for a while, every unfinished region fails instead of waiting forever. Finished regions
+ * are downloaded gzipped and checked against their CRC32 before they are installed into the world.
+ */
+public class SyndicateCoordinator {
+    private static final long HEARTBEAT_INTERVAL = 250;
+    private static final long HEARTBEAT_TIMEOUT = 10000;
+    private static final long CLUSTER_TIMEOUT = 60000;
+    private static final int FETCH_ATTEMPTS = 3;
+    private final UUID pack = UUID.randomUUID();
+    private final KList<NodeWorker> workers;
+    private final IrisDimension dimension;
+    private final long seed;
+    private final File worldFolder;
+    private final KMap<Long, CompletableFuture<Void>> regions;
+    private final ConcurrentLinkedDeque<Long> orphans;
+    private final AtomicInteger remaining;
+    private final AtomicBoolean started;
+    private final AtomicBoolean running;
+    private volatile PregenListener listener;
+    private File packZip;
+
+    public SyndicateCoordinator(KList<SyndicateNode> nodes, PregenTask task, IrisDimension dimension, long seed, File worldFolder) {
+        this.dimension = dimension;
+        this.seed = seed;
+        this.worldFolder = worldFolder;
+        regions = new KMap<>();
+        orphans = new ConcurrentLinkedDeque<>();
+        remaining = new AtomicInteger(0);
+        started = new AtomicBoolean(false);
+        running = new AtomicBoolean(true);
+        workers = new KList<>();
+
+        for (SyndicateNode i : nodes) {
+            workers.add(new NodeWorker(i));
+        }
+
+        KList<Long> order = new KList<>();
+        task.iterateRegions((x, z) -> {
+            if (getRegionFile(x, z).exists()) {
+                return;
+            }
+
+            long key = Cache.key(x, z);
+            order.add(key);
+            regions.put(key, new CompletableFuture<>());
+        });
+        remaining.set(order.size());
+        int shard = (int) Math.ceil(order.size() / (double) Math.max(1, workers.size()));
+
+        for (int i = 0; i < order.size(); i++) {
+            workers.get(Math.min(workers.size() - 1, i / Math.max(1, shard))).queue.add(order.get(i));
+        }
+    }
+
+    /**
+     * Package the dimension and start working on all nodes. Does nothing if already started.
+     *
+     * @param listener receives the network callbacks
+     */
+    public void start(PregenListener listener) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        this.listener = listener;
+        packZip = new File(Iris.getTemp(), "syndicate-" + pack + ".zip");
+        packZip.getParentFile().mkdirs();
+        ZipUtil.pack(dimension.getLoader().getDataFolder(), packZip);
+        packZip.deleteOnExit();
+
+        for (NodeWorker i : workers) {
+            i.lastSeen = M.ms();
+            i.start();
+        }
+    }
+
+    /**
+     * @return a future which completes once the region is downloaded into the world folder
+     */
+    public CompletableFuture<Void> getRegion(int x, int z) {
+        CompletableFuture<Void> f = regions.get(Cache.key(x, z));
+        return f == null ? CompletableFuture.completedFuture(null) : f;
+    }
+
+    public int getRegionsInFlight() {
+        int c = 0;
+
+        for (NodeWorker i : workers) {
+            c += i.inFlight.size();
+        }
+
+        return c;
+    }
+
+    public void close() {
+        running.set(false);
+
+        for (NodeWorker i : workers) {
+            try {
+                i.join(HEARTBEAT_TIMEOUT);
+                i.node.close(pack);
+            } catch (Throwable e) {
+                Iris.reportError(e);
+            }
+        }
+
+        for (CompletableFuture<Void> i : regions.values()) {
+            if (!i.isDone()) {
+                i.cancel(false);
+            }
+        }
+
+        if (packZip != null) {
+            packZip.delete();
+        }
+    }
+
+    /**
+     * Fail every unfinished region once no node has answered for {@link #CLUSTER_TIMEOUT}
+     *
+     * @return true if the cluster is gone and the remaining regions were failed
+     */
+    private boolean failIfClusterLost() {
+        long now = M.ms();
+
+        for (NodeWorker i : workers) {
+            if (now - i.lastSeen <= CLUSTER_TIMEOUT) {
+                return false;
+            }
+        }
+
+        if (running.compareAndSet(true, false)) {
+            Iris.error("No syndicate node answered for " + (CLUSTER_TIMEOUT / 1000) + "s, failing " + remaining.get() + " remaining regions");
+            IllegalStateException e = new IllegalStateException("All syndicate nodes are unreachable");
+
+            for (CompletableFuture<Void> i : regions.values()) {
+                if (i.completeExceptionally(e)) {
+                    remaining.decrementAndGet();
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private File getRegionFile(int x, int z) {
+        return new File(worldFolder, "region/r." + x + "." + z + ".mca");
+    }
+
+    private Long steal(NodeWorker thief) {
+        NodeWorker victim = null;
+
+        for (NodeWorker i : workers) {
+            if (i != thief && (victim == null || i.queue.size() > victim.queue.size())) {
+                victim = i;
+            }
+        }
+
+        if (victim == null || victim.queue.isEmpty()) {
+            return null;
+        }
+
+        int take = Math.max(1, victim.queue.size() / 2);
+        KList<Long> stolen = new KList<>();
+
+        for (int i = 0; i < take; i++) {
+            Long r = victim.queue.pollLast();
+
+            if (r == null) {
+                break;
+            }
+
+            stolen.add(r);
+        }
+
+        for (Long i : stolen) {
+            thief.queue.addFirst(i);
+        }
+
+        if (!stolen.isEmpty()) {
+            Iris.debug("Syndicate node " + thief.node + " stole " + stolen.size() + " regions from " + victim.node);
+        }
+
+        return thief.queue.pollFirst();
+    }
+
+    private void emitChunks(long region, int from, int to) {
+        AtomicInteger a = new AtomicInteger(0);
+        PregenTask.iterateRegion(Cache.keyX(region), Cache.keyZ(region), (x, z) -> {
+            int i = a.getAndIncrement();
+
+            if (i >= from && i < to) {
+                listener.onNetworkGeneratedChunk(x, z);
+            }
+        });
+    }
+
+    private class NodeWorker extends Thread {
+        private final SyndicateNode node;
+        private final ConcurrentLinkedDeque<Long> queue;
+        private final KMap<Long, Integer> inFlight;
+        private boolean installed;
+        private volatile long lastSeen;
+
+        public NodeWorker(SyndicateNode node) {
+            this.node = node;
+            queue = new ConcurrentLinkedDeque<>();
+            inFlight = new KMap<>();
+            setName("Iris Syndicate Coordinator " + node);
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (running.get() && remaining.get() > 0) {
+                try {
+                    if (!installed) {
+                        installed = node.install(pack, dimension.getLoadKey(), seed, packZip);
+                        lastSeen = M.ms();
+
+                        if (!installed) {
+                            J.sleep(1000);
+                            continue;
+                        }
+                    }
+
+                    SyndicateStatus status = node.heartbeat(pack);
+                    lastSeen = M.ms();
+
+                    if (!pack.equals(status.getPack())) {
+                        Iris.warn("Syndicate node " + node + " lost the pack, reinstalling");
+                        reclaim();
+                        continue;
+                    }
+
+                    collect(status);
+                    fill(status.getCapacity());
+                } catch (Throwable e) {
+                    Iris.debug("Syndicate node " + node + " did not answer: " + e.getMessage());
+
+                    if (M.ms() - lastSeen > HEARTBEAT_TIMEOUT) {
+                        if (!inFlight.isEmpty() || !queue.isEmpty()) {
+                            Iris.warn("Syndicate node " + node + " timed out, reassigning its regions");
+                            reclaim();
+                        }
+
+                        if (failIfClusterLost()) {
+                            return;
+                        }
+
+                        J.sleep(1000);
+                    }
+                }
+
+                J.sleep(HEARTBEAT_INTERVAL);
+            }
+        }
+
+        private void collect(SyndicateStatus status) throws Throwable {
+            KMap<Long, Integer> generating = new KMap<>();
+
+            for (int i = 0; i < status.getGenerating().length; i++) {
+                generating.put(status.getGenerating()[i], status.getProgress()[i]);
+            }
+
+            for (long i : status.getFinished()) {
+                Integer reported = inFlight.get(i);
+
+                if (reported == null) {
+                    continue;
+                }
+
+                emitChunks(i, reported, 1024);
+                inFlight.put(i, 1024);
+                download(i);
+            }
+
+            for (Long i : inFlight.k()) {
+                Integer p = generating.get(i);
+
+                if (p != null) {
+                    int reported = inFlight.get(i);
+
+                    if (p > reported) {
+                        emitChunks(i, reported, p);
+                        inFlight.put(i, p);
+                    }
+                } else if (inFlight.containsKey(i) && !contains(status.getFinished(), i)) {
+                    Iris.warn("Syndicate node " + node + " dropped region " + Cache.keyX(i) + " " + Cache.keyZ(i) + ", reassigning it");
+                    reclaim(i);
+                }
+            }
+        }
+
+        private void download(long region) throws Throwable {
+            int x = Cache.keyX(region);
+            int z = Cache.keyZ(region);
+
+            for (int i = 0; i < FETCH_ATTEMPTS; i++) {
+                if (node.fetch(pack, x, z, getRegionFile(x, z))) {
+                    inFlight.remove(region);
+
+                    try {
+                        node.fetched(pack, x, z);
+                    } catch (Throwable e) {
+                        Iris.warn("Could not confirm region " + x + " " + z + " to " + node + ", it keeps its copy until the pack closes");
+                    }
+
+                    listener.onNetworkDownloaded(x, z);
+
+                    if (regions.get(region).complete(null)) {
+                        remaining.decrementAndGet();
+                    }
+
+                    return;
+                }
+
+                Iris.warn("Checksum mismatch downloading region " + x + " " + z + " from " + node + ", retrying");
+            }
+
+            reclaim(region);
+        }
+
+        private void fill(int capacity) throws Throwable {
+            while (running.get() && inFlight.size() < capacity) {
+                Long next = queue.pollFirst();
+
+                if (next == null) {
+                    next = orphans.pollFirst();
+                }
+
+                if (next == null) {
+                    next = steal(this);
+                }
+
+                if (next == null) {
+                    return;
+                }
+
+                if (regions.get(next).isDone()) {
+                    continue;
+                }
+
+                int x = Cache.keyX(next);
+                int z = Cache.keyZ(next);
+
+                try {
+                    if (!node.generate(pack, x, z)) {
+                        queue.addFirst(next);
+                        return;
+                    }
+                } catch (Throwable e) {
+                    queue.addFirst(next);
+                    throw e;
+                }
+
+                inFlight.put(next, 0);
+                listener.onNetworkStarted(x, z);
+            }
+        }
+
+        /**
+         * Hand every region of this node back to the others
+         */
+        private void reclaim() {
+            installed = false;
+
+            for (Long i : inFlight.k()) {
+                reclaim(i);
+            }
+
+            Long i;
+
+            while ((i = queue.pollFirst()) != null) {
+                orphans.add(i);
+            }
+        }
+
+        private void reclaim(long region) {
+            Integer reported = inFlight.remove(region);
+            listener.onNetworkFailed(Cache.keyX(region), Cache.keyZ(region));
+
+            if (reported != null && reported > 0) {
+                listener.onNetworkReclaim(reported);
+            }
+
+            orphans.addFirst(region);
+        }
+
+        private boolean contains(long[] a, long v) {
+            for (long i : a) {
+                if (i == v) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
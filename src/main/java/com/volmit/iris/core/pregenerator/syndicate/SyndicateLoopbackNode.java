@@ -0,0 +1,61 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core.pregenerator.syndicate;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.util.io.IO;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * A syndicate node running inside this server, listening on the loopback interface only.
+ * It speaks the same protocol as a remote node, so a whole cluster can be run on one machine.
+ */
+public class SyndicateLoopbackNode {
+    private final SyndicateServer server;
+    private final File cache;
+    @Getter
+    private final SyndicateNode node;
+
+    /**
+     * @param nickname the name of the node
+     * @param regions  the amount of regions this node generates at once
+     */
+    public SyndicateLoopbackNode(String nickname, int regions) throws IOException {
+        cache = new File(Iris.getTemp(), "syndicate-loopback/" + UUID.randomUUID());
+        cache.mkdirs();
+        server = new SyndicateServer(cache, InetAddress.getLoopbackAddress(), 0, null, regions);
+        node = new SyndicateNode(nickname, InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), null);
+    }
+
+    public void close() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            Iris.reportError(e);
+            e.printStackTrace();
+        }
+
+        IO.delete(cache);
+    }
+}
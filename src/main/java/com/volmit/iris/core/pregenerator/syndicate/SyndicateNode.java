@@ -0,0 +1,178 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.core.pregenerator.syndicate;
+
+import com.volmit.iris.core.pregenerator.syndicate.command.*;
+import com.volmit.iris.util.io.IO;
+import lombok.Data;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The client side of a single syndicate node
+ */
+@Data
+public class SyndicateNode {
+    private final String nickname;
+    private final String address;
+    private final int port;
+    private final String password;
+
+    private SyndicateClient.SyndicateClientBuilder connect() {
+        return SyndicateClient.builder().address(address).port(port).password(password);
+    }
+
+    private SyndicateCommand send(SyndicateCommand command) throws Throwable {
+        AtomicReference<SyndicateCommand> response = new AtomicReference<>();
+        connect().command(command).build().go((r, i) -> response.set(r));
+        return response.get();
+    }
+
+    /**
+     * Send the zipped pack to the node. Does nothing on the node if it already has this pack.
+     *
+     * @return true if the node accepted the pack, false if it is busy with another pack
+     */
+    public boolean install(UUID pack, String dimension, long seed, File packZip) throws Throwable {
+        AtomicReference<SyndicateCommand> response = new AtomicReference<>();
+        connect().command(SyndicateInstallPack.builder()
+                        .pack(pack)
+                        .dimension(dimension)
+                        .seed(seed)
+                        .build())
+                .output((o) -> {
+                    try {
+                        o.writeInt((int) packZip.length());
+                        Files.copy(packZip.toPath(), o);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .build().go((r, i) -> response.set(r));
+
+        if (response.get() instanceof SyndicateError) {
+            throw new IllegalStateException("Node " + nickname + " could not install the pack");
+        }
+
+        return response.get() instanceof SyndicateOK;
+    }
+
+    /**
+     * Ask the node to generate a region
+     *
+     * @return true if the node took the region, false if it is at capacity
+     * @throws IllegalStateException if the node does not have the pack (anymore)
+     */
+    public boolean generate(UUID pack, int x, int z) throws Throwable {
+        SyndicateCommand r = send(SyndicateGenerate.builder().pack(pack).x(x).z(z).build());
+
+        if (r instanceof SyndicateInstallFirst) {
+            throw new IllegalStateException("Node " + nickname + " lost the pack");
+        }
+
+        return r instanceof SyndicateOK;
+    }
+
+    public SyndicateStatus heartbeat(UUID pack) throws Throwable {
+        SyndicateCommand r = send(SyndicateHeartbeat.builder().pack(pack).build());
+
+        if (r instanceof SyndicateStatus) {
+            return (SyndicateStatus) r;
+        }
+
+        throw new IllegalStateException("Unexpected heartbeat response " + r.getClass().getSimpleName());
+    }
+
+    /**
+     * Download a finished region into the given file. The compressed stream is checked against
+     * the checksum sent by the node before anything is written to the target.
+     *
+     * @return true if the region was downloaded and verified
+     */
+    public boolean fetch(UUID pack, int x, int z, File into) throws Throwable {
+        File gz = new File(into.getParentFile(), into.getName() + ".gz.part");
+        File part = new File(into.getParentFile(), into.getName() + ".part");
+        AtomicReference<SyndicateRegionData> data = new AtomicReference<>();
+        AtomicReference<Long> crc = new AtomicReference<>();
+        into.getParentFile().mkdirs();
+        connect().command(SyndicateFetch.builder().pack(pack).x(x).z(z).build())
+                .build().go((r, i) -> {
+                    if (!(r instanceof SyndicateRegionData)) {
+                        return;
+                    }
+
+                    data.set((SyndicateRegionData) r);
+                    CRC32 c = new CRC32();
+
+                    try (FileOutputStream out = new FileOutputStream(gz)) {
+                        IO.transfer(new CheckedInputStream(i, c), out, 8192, data.get().getLength());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    crc.set(c.getValue());
+                });
+
+        try {
+            if (data.get() == null || crc.get() == null || gz.length() != data.get().getLength() || crc.get() != data.get().getChecksum()) {
+                return false;
+            }
+
+            try (InputStream in = new GZIPInputStream(new FileInputStream(gz));
+                 FileOutputStream out = new FileOutputStream(part)) {
+                IO.fullTransfer(in, out, 8192);
+            }
+
+            if (into.exists()) {
+                into.delete();
+            }
+
+            return part.renameTo(into);
+        } finally {
+            gz.delete();
+            part.delete();
+        }
+    }
+
+    /**
+     * Tell the node a fetched region was verified, it keeps the region until then
+     */
+    public void fetched(UUID pack, int x, int z) throws Throwable {
+        send(SyndicateFetched.builder().pack(pack).x(x).z(z).build());
+    }
+
+    public void close(UUID pack) throws Throwable {
+        send(SyndicateClose.builder().pack(pack).build());
+    }
+
+    public String toString() {
+        return nickname;
+    }
+}
@@ -18,66 +18,117 @@
 
 package com.volmit.iris.core.pregenerator.syndicate;
 
+import com.volmit.iris.Iris;
 import com.volmit.iris.core.pregenerator.PregenListener;
 import com.volmit.iris.core.pregenerator.syndicate.command.*;
+import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.data.cache.Cache;
 import com.volmit.iris.engine.object.common.HeadlessWorld;
+import com.volmit.iris.engine.object.dimensional.IrisDimension;
 import com.volmit.iris.engine.platform.HeadlessGenerator;
+import com.volmit.iris.util.collection.KMap;
 import com.volmit.iris.util.io.IO;
-import com.volmit.iris.util.scheduling.J;
 import org.zeroturnaround.zip.ZipUtil;
 
 import java.io.*;
+import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A syndicate node. It holds one pack at a time, but generates up to capacity regions of it at once.
+ * Finished regions are kept gzipped until the coordinator confirms it fetched and verified them, so a
+ * failed download can simply be fetched again. Every connection is served on its own thread, so
+ * heartbeats and fetches are answered while a pack is installed or regions are queued.
+ */
 public class SyndicateServer extends Thread implements PregenListener {
-    private final int port;
     private final String password;
-    private boolean busy;
-    private final int tc;
-    private HeadlessGenerator generator;
+    private final int capacity;
+    private volatile HeadlessGenerator generator;
     private final ServerSocket server;
     private final File cache;
-    private UUID currentId = null;
-    private final AtomicInteger g = new AtomicInteger(0);
-    private File lastGeneratedRegion = null;
-
+    private final ExecutorService connections;
+    private final Object lock = new Object();
+    private volatile UUID currentId = null;
+    private final KMap<Long, AtomicInteger> generating = new KMap<>();
+    private final KMap<Long, Long> finished = new KMap<>();
+
+    /**
+     * @param cache    the folder to keep packs and worlds in
+     * @param port     the port to listen on
+     * @param password the password
+     * @param tc       the amount of regions this node generates at once
+     */
     public SyndicateServer(File cache, int port, String password, int tc) throws IOException {
-        this.port = port;
+        this(cache, null, port, password, tc);
+    }
+
+    public SyndicateServer(File cache, InetAddress bind, int port, String password, int tc) throws IOException {
         this.cache = cache;
         this.password = password;
-        this.tc = tc;
-        start();
-        server = new ServerSocket(port);
+        this.capacity = Math.max(1, tc);
+        server = new ServerSocket(port, 50, bind);
         server.setSoTimeout(1000);
+        connections = Executors.newCachedThreadPool((r) -> {
+            Thread t = new Thread(r, "Iris Syndicate " + server.getLocalPort() + " Connection");
+            t.setDaemon(true);
+            return t;
+        });
+        setName("Iris Syndicate " + server.getLocalPort());
+        start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
     }
 
     public void run() {
-        while (!interrupted()) {
+        while (!interrupted() && !server.isClosed()) {
             try {
                 Socket client = server.accept();
-                DataInputStream i = new DataInputStream(client.getInputStream());
-                DataOutputStream o = new DataOutputStream(client.getOutputStream());
-                try {
-                    handle(client, i, o);
-                    o.flush();
-                } catch (Throwable throwable) {
-                    throwable.printStackTrace();
-                }
-                client.close();
+                connections.execute(() -> serve(client));
             } catch (SocketTimeoutException ignored) {
 
             } catch (IOException e) {
-                e.printStackTrace();
+                if (!server.isClosed()) {
+                    e.printStackTrace();
+                }
             }
         }
     }
 
+    private void serve(Socket client) {
+        try (client) {
+            DataInputStream i = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+            DataOutputStream o = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()));
+            handle(client, i, o);
+            o.flush();
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+        }
+    }
+
     private void handle(Socket client, DataInputStream i, DataOutputStream o) throws Throwable {
+        String pass = i.readUTF();
+
+        if (password != null && !password.isEmpty() && !password.equals(pass)) {
+            Iris.warn("Syndicate node rejected a connection from " + client.getInetAddress() + " with the wrong password");
+            SyndicateCommandIO.write(new SyndicateError(), o);
+            o.flush();
+            return;
+        }
+
         SyndicateCommand cmd = handle(SyndicateCommandIO.read(i), i, o);
 
         if (cmd != null) {
@@ -91,88 +142,222 @@ public class SyndicateServer extends Thread implements PregenListener {
         return new File(cache, id.toString().charAt(2) + "/" + id.toString().substring(0, 4) + "/" + id);
     }
 
+    private File getFinishedRegion(int x, int z) {
+        return new File(getCachedDim(currentId), "out/r." + x + "." + z + ".mca.gz");
+    }
+
     private SyndicateCommand handle(SyndicateCommand command, DataInputStream i, DataOutputStream o) throws Throwable {
         if (command instanceof SyndicateInstallPack) {
-            if (busy) {
-                return new SyndicateBusy();
+            synchronized (lock) {
+                return install((SyndicateInstallPack) command, i);
             }
+        }
 
-            if (generator != null) {
-                generator.close();
-                IO.delete(generator.getWorld().getWorld().worldFolder());
-                generator = null;
+        if (command instanceof SyndicateGenerate) {
+            synchronized (lock) {
+                return generate((SyndicateGenerate) command);
             }
+        }
 
-            UUID id = ((SyndicateInstallPack) command).getPack();
-            File cacheload = new File(cache, id.toString().charAt(2) + "/" + id.toString().substring(0, 4) + "/" + id + ".zip");
-            File cachestore = getCachedDim(id);
-            IO.delete(cachestore);
-            int len = i.readInt();
-            cacheload.getParentFile().mkdirs();
-            byte[] buf = new byte[8192];
-            FileOutputStream fos = new FileOutputStream(cacheload);
-            IO.transfer(i, fos, buf, len);
-            fos.close();
-            ZipUtil.unpack(cacheload, cachestore);
-            cacheload.deleteOnExit();
-            HeadlessWorld w = new HeadlessWorld("turbo/" + id, ((SyndicateInstallPack) command).getDimension(), ((SyndicateInstallPack) command).getSeed());
-            w.setStudio(true);
-            generator = w.generate();
+        if (command instanceof SyndicateHeartbeat) {
+            return status();
+        }
+
+        if (command instanceof SyndicateFetch) {
+            fetch((SyndicateFetch) command, o);
+            return null;
+        }
+
+        if (command instanceof SyndicateFetched) {
+            fetched((SyndicateFetched) command);
             return new SyndicateOK();
         }
 
-        if (command instanceof SyndicateGenerate) {
-            if (busy) {
-                return new SyndicateBusy();
+        if (command instanceof SyndicateClose) {
+            synchronized (lock) {
+                if (generator != null && Objects.equals(currentId, ((SyndicateClose) command).getPack()) && generating.isEmpty()) {
+                    closePack();
+                }
             }
 
-            if (generator == null || !Objects.equals(currentId, ((SyndicateGenerate) command).getPack())) {
-                return new SyndicateInstallFirst();
-            }
+            return new SyndicateOK();
+        }
 
-            g.set(0);
-            busy = true;
-            J.a(() -> {
-                busy = false;
-                lastGeneratedRegion = generator.generateRegionToFile(((SyndicateGenerate) command).getX(), ((SyndicateGenerate) command).getZ(), this);
-            });
+        throw new IllegalStateException("Unexpected value: " + command.getClass());
+    }
+
+    private SyndicateCommand install(SyndicateInstallPack command, DataInputStream i) throws Throwable {
+        UUID id = command.getPack();
+        int len = i.readInt();
+
+        if (generator != null && Objects.equals(currentId, id)) {
+            i.skipBytes(len);
             return new SyndicateOK();
         }
 
-        if (command instanceof SyndicateClose) {
-            if (generator != null && Objects.equals(currentId, ((SyndicateClose) command).getPack()) && !busy) {
-                generator.close();
-                IO.delete(generator.getWorld().getWorld().worldFolder());
-                generator = null;
-                currentId = null;
+        if (!generating.isEmpty()) {
+            i.skipBytes(len);
+            return new SyndicateBusy();
+        }
+
+        closePack();
+        File cachestore = getCachedDim(id);
+        File cacheload = new File(cachestore.getParentFile(), id + ".zip");
+        IO.delete(cachestore);
+        cacheload.getParentFile().mkdirs();
+        byte[] buf = new byte[8192];
+        FileOutputStream fos = new FileOutputStream(cacheload);
+        IO.transfer(i, fos, buf, len);
+        fos.close();
+        File pack = new File(cachestore, "iris/pack");
+        ZipUtil.unpack(cacheload, pack);
+        cacheload.delete();
+        IrisDimension dimension = new IrisData(pack).getDimensionLoader().load(command.getDimension());
+
+        if (dimension == null) {
+            Iris.error("Syndicate pack " + id + " does not contain the dimension " + command.getDimension());
+            return new SyndicateError();
+        }
+
+        HeadlessWorld w = new HeadlessWorld(cachestore.getPath(), dimension, command.getSeed(), true);
+        generator = w.generate();
+        currentId = id;
+        return new SyndicateOK();
+    }
+
+    private SyndicateCommand generate(SyndicateGenerate g) {
+        if (generator == null || !Objects.equals(currentId, g.getPack())) {
+            return new SyndicateInstallFirst();
+        }
+
+        long key = Cache.key(g.getX(), g.getZ());
+
+        if (generating.containsKey(key) || finished.containsKey(key)) {
+            return new SyndicateOK();
+        }
+
+        if (generating.size() >= capacity) {
+            return new SyndicateBusy();
+        }
+
+        generating.put(key, new AtomicInteger(0));
+        HeadlessGenerator gen = generator;
+        gen.generateRegionAsync(g.getX(), g.getZ(), this).whenComplete((v, e) -> {
+            try {
+                if (e == null) {
+                    finished.put(key, compress(gen.getWriter().getRegionFile(g.getX(), g.getZ()), getFinishedRegion(g.getX(), g.getZ())));
+                } else {
+                    Iris.reportError(e);
+                    e.printStackTrace();
+                }
+            } catch (IOException ex) {
+                Iris.reportError(ex);
+                ex.printStackTrace();
             }
+
+            generating.remove(key);
+        });
+        return new SyndicateOK();
+    }
+
+    private SyndicateStatus status() {
+        long[] gen = new long[generating.size()];
+        int[] progress = new int[gen.length];
+        int n = 0;
+
+        for (Map.Entry<Long, AtomicInteger> j : generating.entrySet()) {
+            if (n >= gen.length) {
+                break;
+            }
+
+            gen[n] = j.getKey();
+            progress[n++] = j.getValue().get();
         }
 
-        if (command instanceof SyndicateGetProgress) {
-            if (generator != null && busy && Objects.equals(currentId, ((SyndicateGetProgress) command).getPack())) {
-                return SyndicateSendProgress.builder().progress((double) g.get() / 1024D).build();
-            } else if (generator != null && !busy && Objects.equals(currentId, ((SyndicateGetProgress) command).getPack()) && lastGeneratedRegion != null && lastGeneratedRegion.exists()) {
-                SyndicateCommandIO.write(SyndicateSendProgress
-                        .builder()
-                        .progress(1).available(true)
-                        .build(), o);
-                o.writeLong(lastGeneratedRegion.length());
-                IO.writeAll(lastGeneratedRegion, o);
-                return null;
-            } else if (generator == null) {
-                return new SyndicateInstallFirst();
-            } else {
-                return new SyndicateBusy();
+        long[] done = new long[finished.size()];
+        int m = 0;
+
+        for (Long j : finished.keySet()) {
+            if (m >= done.length) {
+                break;
             }
+
+            done[m++] = j;
         }
 
-        throw new IllegalStateException("Unexpected value: " + command.getClass());
+        return SyndicateStatus.builder()
+                .pack(generator == null ? null : currentId)
+                .capacity(capacity)
+                .generating(Arrays.copyOf(gen, n))
+                .progress(Arrays.copyOf(progress, n))
+                .finished(Arrays.copyOf(done, m))
+                .build();
+    }
+
+    private void fetch(SyndicateFetch f, DataOutputStream o) throws IOException {
+        Long checksum = Objects.equals(currentId, f.getPack()) ? finished.get(Cache.key(f.getX(), f.getZ())) : null;
+        File region = checksum == null ? null : getFinishedRegion(f.getX(), f.getZ());
+
+        if (region == null || !region.exists()) {
+            SyndicateCommandIO.write(new SyndicateError(), o);
+            return;
+        }
+
+        SyndicateCommandIO.write(SyndicateRegionData.builder()
+                .x(f.getX()).z(f.getZ())
+                .length(region.length())
+                .checksum(checksum)
+                .build(), o);
+        try (FileInputStream in = new FileInputStream(region)) {
+            IO.fullTransfer(in, o, 8192);
+        }
+
+        o.flush();
+    }
+
+    private void fetched(SyndicateFetched f) {
+        if (Objects.equals(currentId, f.getPack()) && finished.remove(Cache.key(f.getX(), f.getZ())) != null) {
+            getFinishedRegion(f.getX(), f.getZ()).delete();
+        }
+    }
+
+    /**
+     * Gzip a region file
+     *
+     * @return the CRC32 of the compressed bytes
+     */
+    private long compress(File region, File into) throws IOException {
+        into.getParentFile().mkdirs();
+        CRC32 crc = new CRC32();
+
+        try (FileInputStream in = new FileInputStream(region);
+             GZIPOutputStream out = new GZIPOutputStream(new CheckedOutputStream(new FileOutputStream(into), crc))) {
+            IO.fullTransfer(in, out, 8192);
+        }
+
+        region.delete();
+        return crc.getValue();
+    }
+
+    private void closePack() {
+        if (generator != null) {
+            generator.close();
+            IO.delete(getCachedDim(currentId));
+            generator = null;
+        }
+
+        finished.clear();
+        currentId = null;
     }
 
     public void close() throws IOException {
         interrupt();
-        generator.close();
         server.close();
+        connections.shutdownNow();
+
+        synchronized (lock) {
+            closePack();
+        }
     }
 
     @Override
@@ -187,7 +372,11 @@ public class SyndicateServer extends Thread implements PregenListener {
 
     @Override
     public void onChunkGenerated(int x, int z) {
-        g.incrementAndGet();
+        AtomicInteger g = generating.get(Cache.key(x >> 5, z >> 5));
+
+        if (g != null) {
+            g.incrementAndGet();
+        }
     }
 
     @Override
@@ -23,13 +23,17 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-@Data
+import java.util.UUID;
+
 @Builder
-@NoArgsConstructor
 @AllArgsConstructor
-public class SyndicateSendProgress implements SyndicateCommand {
+@NoArgsConstructor
+@Data
+public class SyndicateFetch implements SyndicateCommand {
+    @Builder.Default
+    private int x = 0;
     @Builder.Default
-    private double progress = 0;
+    private int z = 0;
     @Builder.Default
-    private boolean available = false;
+    private UUID pack = UUID.randomUUID();
 }
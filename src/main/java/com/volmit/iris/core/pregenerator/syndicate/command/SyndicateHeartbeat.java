@@ -25,11 +25,11 @@ import lombok.NoArgsConstructor;
 
 import java.util.UUID;
 
-@Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-public class SyndicateGetProgress implements SyndicateCommand {
+@Data
+public class SyndicateHeartbeat implements SyndicateCommand {
     @Builder.Default
-    private UUID pack = UUID.randomUUID();
+    private UUID pack = null;
 }
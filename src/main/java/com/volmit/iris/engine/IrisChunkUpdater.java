@@ -0,0 +1,161 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.engine;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.engine.framework.Engine;
+import com.volmit.iris.engine.framework.EngineAssignedComponent;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.documentation.ChunkCoordinates;
+import com.volmit.iris.util.mantle.MantleFlag;
+import com.volmit.iris.util.parallel.MultiBurst;
+import com.volmit.iris.util.scheduling.J;
+import com.volmit.iris.util.scheduling.PrecisionStopwatch;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Applies mantle block updates (loot & lighting) to freshly populated chunks. Update positions are
+ * collected off the main thread into packed int lists, then applied on the main thread within a
+ * per tick time budget. Jobs for chunks which unload before they are applied are parked until the
+ * chunk loads again.
+ */
+public class IrisChunkUpdater extends EngineAssignedComponent {
+    private final ConcurrentLinkedQueue<UpdateJob> ready;
+    private final KMap<Long, UpdateJob> parked;
+    private final int taskId;
+
+    public IrisChunkUpdater(Engine engine) {
+        super(engine, "Updates");
+        ready = new ConcurrentLinkedQueue<>();
+        parked = new KMap<>();
+        taskId = J.sr(this::tick, 0);
+    }
+
+    /**
+     * Collect the update positions of a chunk in the background & queue them to be applied
+     *
+     * @param c the chunk
+     */
+    @ChunkCoordinates
+    public void queue(Chunk c) {
+        int cx = c.getX();
+        int cz = c.getZ();
+
+        MultiBurst.burst.lazy(() -> {
+            IntArrayList positions = new IntArrayList();
+            getEngine().getMantle().getMantle().iterateChunk(cx, cz, Boolean.class, (x, y, z, v) -> {
+                if (v != null && v) {
+                    positions.add(pack(x & 15, y, z & 15));
+                }
+            }, MantleFlag.UPDATE);
+
+            if (!positions.isEmpty()) {
+                ready.add(new UpdateJob(cx, cz, positions));
+            }
+        });
+    }
+
+    /**
+     * Requeue any parked updates for a chunk which was unloaded before they were applied
+     *
+     * @param c the chunk
+     */
+    @ChunkCoordinates
+    public void resume(Chunk c) {
+        UpdateJob job = parked.remove(Cache.key(c));
+
+        if (job != null) {
+            ready.add(job);
+        }
+    }
+
+    private void tick() {
+        if (ready.isEmpty() || !getEngine().getWorld().hasRealWorld()) {
+            return;
+        }
+
+        PrecisionStopwatch p = PrecisionStopwatch.start();
+        double budget = IrisSettings.get().getPerformance().getUpdateBudgetMillis();
+        World world = getEngine().getWorld().realWorld();
+        UpdateJob job;
+
+        try {
+            while ((job = ready.peek()) != null) {
+                if (!world.isChunkLoaded(job.x, job.z)) {
+                    ready.poll();
+                    parked.put(Cache.key(job.x, job.z), job);
+                    continue;
+                }
+
+                Chunk c = world.getChunkAt(job.x, job.z);
+                long seed = Cache.key(job.x, job.z);
+
+                while (job.index < job.positions.size()) {
+                    int v = job.positions.getInt(job.index++);
+                    int x = v & 15;
+                    int z = (v >> 4) & 15;
+                    getEngine().update(x, v >>> 8, z, c, seed, x > 0 && x < 15 && z > 0 && z < 15);
+
+                    if ((job.index & 15) == 0 && p.getMilliseconds() > budget) {
+                        return;
+                    }
+                }
+
+                ready.poll();
+            }
+        } catch (Throwable e) {
+            Iris.reportError(e);
+            e.printStackTrace();
+            ready.poll();
+        } finally {
+            getEngine().getMetrics().getUpdates().put(p.getMilliseconds());
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        J.csr(taskId);
+        ready.clear();
+        parked.clear();
+    }
+
+    private static int pack(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    private static class UpdateJob {
+        private final int x;
+        private final int z;
+        private final IntArrayList positions;
+        private int index;
+
+        public UpdateJob(int x, int z, IntArrayList positions) {
+            this.x = x;
+            this.z = z;
+            this.positions = positions;
+            this.index = 0;
+        }
+    }
+}
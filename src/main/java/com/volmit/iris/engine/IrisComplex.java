@@ -21,6 +21,7 @@ package com.volmit.iris.engine;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.volmit.iris.Iris;
 import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.actuator.IrisCarveField;
 import com.volmit.iris.engine.actuator.IrisTerrainNormalActuator;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.modifier.IrisCaveModifier;
@@ -42,11 +43,14 @@ import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import com.volmit.iris.util.stream.ProceduralStream;
 import com.volmit.iris.util.stream.interpolation.Interpolated;
+import com.volmit.iris.util.stream.utility.CachedStream2D;
 import lombok.Data;
 import org.bukkit.Material;
 import org.bukkit.block.Biome;
 import org.bukkit.block.data.BlockData;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.List;
 import java.util.UUID;
 
@@ -97,6 +101,34 @@ public class IrisComplex implements DataProvider {
     private ProceduralStream<BlockData> fluidStream;
     private IrisBiome focus;
 
+    /**
+     * Get every top level stream of this complex that is backed by a 2D cache, keyed by field name
+     *
+     * @return the cached streams
+     */
+    public KMap<String, CachedStream2D<?>> getCachedStreams() {
+        KMap<String, CachedStream2D<?>> streams = new KMap<>();
+
+        for (Field i : IrisComplex.class.getDeclaredFields()) {
+            if (Modifier.isStatic(i.getModifiers()) || !ProceduralStream.class.isAssignableFrom(i.getType())) {
+                continue;
+            }
+
+            try {
+                Object v = i.get(this);
+
+                if (v instanceof CachedStream2D) {
+                    streams.put(i.getName(), (CachedStream2D<?>) v);
+                }
+            } catch (IllegalAccessException e) {
+                Iris.reportError(e);
+                e.printStackTrace();
+            }
+        }
+
+        return streams;
+    }
+
     public ProceduralStream<IrisBiome> getBiomeStream(InferredType type) {
         switch (type) {
             case CAVE:
@@ -330,10 +362,12 @@ public class IrisComplex implements DataProvider {
             int m = heightf;
 
             if (engine.getDimension().isCarving() && engine.getDimension().getTerrainMode().equals(IrisTerrainMode.NORMAL)) {
-                if (engine.getDimension().isCarved(getData(), rx, m, rz, ((IrisTerrainNormalActuator) engine.getTerrainActuator()).getRng(), heightf)) {
+                IrisCarveField carve = ((IrisTerrainNormalActuator) engine.getTerrainActuator()).getCarveField();
+
+                if (carve.isCarved(rx, m, rz, heightf)) {
                     m--;
 
-                    while (engine.getDimension().isCarved(getData(), rx, m, rz, ((IrisTerrainNormalActuator) engine.getTerrainActuator()).getRng(), heightf)) {
+                    while (carve.isCarved(rx, m, rz, heightf)) {
                         m--;
                     }
                 }
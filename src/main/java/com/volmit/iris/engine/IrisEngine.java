@@ -39,6 +39,8 @@ import com.volmit.iris.engine.object.decoration.IrisDecorator;
 import com.volmit.iris.engine.object.engine.IrisEngineData;
 import com.volmit.iris.engine.object.objects.IrisObjectPlacement;
 import com.volmit.iris.engine.scripting.EngineExecutionEnvironment;
+import com.volmit.iris.util.atomics.AtomicHistogram;
+import com.volmit.iris.util.atomics.AtomicRollingHistogram;
 import com.volmit.iris.util.atomics.AtomicRollingSequence;
 import com.volmit.iris.util.collection.KMap;
 import com.volmit.iris.util.context.IrisContext;
@@ -53,6 +55,7 @@ import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.scheduling.ChronoLatch;
 import com.volmit.iris.util.scheduling.J;
 import com.volmit.iris.util.scheduling.PrecisionStopwatch;
+import com.volmit.iris.util.stream.utility.CachedStream2D;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.bukkit.Chunk;
@@ -84,6 +87,7 @@ public class IrisEngine extends BlockPopulator implements Engine {
     private final ChronoLatch perSecondLatch;
     private final EngineExecutionEnvironment execution;
     private final EngineWorldManager worldManager;
+    private final IrisChunkUpdater chunkUpdater;
     private volatile int parallelism;
     private final EngineMetrics metrics;
     private volatile int minHeight;
@@ -125,6 +129,7 @@ public class IrisEngine extends BlockPopulator implements Engine {
         getData().setEngine(this);
         getEngineData();
         worldManager = new IrisWorldManager(this);
+        chunkUpdater = new IrisChunkUpdater(this);
         minHeight = 0;
         failing = false;
         closed = false;
@@ -151,11 +156,9 @@ public class IrisEngine extends BlockPopulator implements Engine {
 
     @Override
     public IrisEngineData getEngineData() {
-        World w = null;
-
         return engineData.aquire(() -> {
-            //TODO: Method this file
-            File f = new File(getWorld().worldFolder(), "iris/engine-data/" + getDimension().getLoadKey() + ".json");
+            File f = getEngineDataFile();
+            IrisEngineData data = null;
 
             if (!f.exists()) {
                 try {
@@ -167,15 +170,36 @@ public class IrisEngine extends BlockPopulator implements Engine {
             }
 
             try {
-                return new Gson().fromJson(IO.readAll(f), IrisEngineData.class);
+                data = new Gson().fromJson(IO.readAll(f), IrisEngineData.class);
             } catch (Throwable e) {
                 e.printStackTrace();
             }
 
-            return new IrisEngineData();
+            if (data == null) {
+                data = new IrisEngineData();
+            }
+
+            if (data.setChunkFolder(getEngineDataChunkFolder())) {
+                try {
+                    IO.writeAll(f, new Gson().toJson(data));
+                } catch (IOException e) {
+                    Iris.reportError(e);
+                    e.printStackTrace();
+                }
+            }
+
+            return data;
         });
     }
 
+    private File getEngineDataFile() {
+        return new File(getWorld().worldFolder(), "iris/engine-data/" + getDimension().getLoadKey() + ".json");
+    }
+
+    private File getEngineDataChunkFolder() {
+        return new File(getWorld().worldFolder(), "iris/engine-data/" + getDimension().getLoadKey());
+    }
+
     @Override
     public int getGenerated() {
         return generated.get();
@@ -283,6 +307,40 @@ public class IrisEngine extends BlockPopulator implements Engine {
 
             sender.sendMessage("  " + befb + num + afb + ": " + C.BOLD + C.WHITE + Form.pc(weights.get(i), 0));
         }
+
+        sender.sendMessage("Tail Latencies (p50 / p95 / p99 / max): ");
+        printLatencies(sender, "", getMetrics().getStages());
+        printLatencies(sender, "mantle.", getMetrics().getComponents());
+        KMap<String, AtomicRollingHistogram> plates = new KMap<>();
+        plates.put("plate.load", getMantle().getMantle().getLoadTimes());
+        plates.put("plate.save", getMantle().getMantle().getSaveTimes());
+        printLatencies(sender, "mantle.", plates);
+    }
+
+    @Override
+    public void resetMetrics() {
+        getMetrics().reset();
+        getMantle().getMantle().getLoadTimes().getHistogram().reset();
+        getMantle().getMantle().getSaveTimes().getHistogram().reset();
+
+        for (CachedStream2D<?> i : getComplex().getCachedStreams().values()) {
+            i.resetStats();
+        }
+    }
+
+    private void printLatencies(CommandSender sender, String prefix, KMap<String, AtomicRollingHistogram> timings) {
+        for (String i : timings.k().sort()) {
+            AtomicHistogram h = timings.get(i).getHistogram();
+
+            if (h.getCount() == 0) {
+                continue;
+            }
+
+            double[] p = h.getPercentiles(0.5, 0.95, 0.99);
+            sender.sendMessage("  " + C.GREEN + prefix + i + C.GRAY + ": " + C.WHITE + Form.duration(p[0], 1)
+                    + C.GRAY + " / " + C.WHITE + Form.duration(p[1], 1) + C.GRAY + " / " + C.WHITE
+                    + Form.duration(p[2], 1) + C.GRAY + " / " + C.RED + Form.duration(h.getMax(), 1));
+        }
     }
 
     @Override
@@ -290,6 +348,7 @@ public class IrisEngine extends BlockPopulator implements Engine {
         J.car(art);
         closed = true;
         getWorldManager().close();
+        getChunkUpdater().close();
         getTarget().close();
         saveEngineData();
         getMantle().close();
@@ -361,21 +420,22 @@ public class IrisEngine extends BlockPopulator implements Engine {
         try {
             PrecisionStopwatch p = PrecisionStopwatch.start();
             Hunk<BlockData> blocks = vblocks.listen((xx, y, zz, t) -> catchBlockUpdates(x + xx, y + getMinHeight(), z + zz, t));
+            ChunkContext context = new ChunkContext(this, x, z, vblocks.getHeight());
 
             switch (getDimension().getTerrainMode()) {
                 case NORMAL -> {
                     getMantle().generateMatter(x >> 4, z >> 4);
-                    getTerrainActuator().actuate(x, z, vblocks, multicore);
-                    getBiomeActuator().actuate(x, z, vbiomes, multicore);
-                    getCaveModifier().modify(x, z, vblocks, multicore);
-                    getRavineModifier().modify(x, z, vblocks, multicore);
-                    getPostModifier().modify(x, z, vblocks, multicore);
-                    getDecorantActuator().actuate(x, z, blocks, multicore);
+                    getTerrainActuator().actuate(x, z, vblocks, multicore, context);
+                    getBiomeActuator().actuate(x, z, vbiomes, multicore, context);
+                    getCaveModifier().modify(x, z, vblocks, multicore, context);
+                    getRavineModifier().modify(x, z, vblocks, multicore, context);
+                    getPostModifier().modify(x, z, vblocks, multicore, context);
+                    getDecorantActuator().actuate(x, z, blocks, multicore, context);
                     getMantle().insertMatter(x >> 4, z >> 4, BlockData.class, blocks);
-                    getDepositModifier().modify(x, z, blocks, multicore);
+                    getDepositModifier().modify(x, z, blocks, multicore, context);
                 }
                 case ISLANDS -> {
-                    getTerrainActuator().actuate(x, z, vblocks, multicore);
+                    getTerrainActuator().actuate(x, z, vblocks, multicore, context);
                 }
             }
 
@@ -390,11 +450,11 @@ public class IrisEngine extends BlockPopulator implements Engine {
 
     @Override
     public void saveEngineData() {
-        //TODO: Method this file
-        File f = new File(getWorld().worldFolder(), "iris/engine-data/" + getDimension().getLoadKey() + ".json");
+        File f = getEngineDataFile();
         f.getParentFile().mkdirs();
         try {
             IO.writeAll(f, new Gson().toJson(getEngineData()));
+            getEngineData().saveChunks();
             Iris.debug("Saved Engine Data");
         } catch (IOException e) {
             Iris.error("Failed to save Engine Data");
@@ -29,10 +29,12 @@ import com.volmit.iris.engine.object.engine.IrisEngineChunkData;
 import com.volmit.iris.engine.object.engine.IrisEngineData;
 import com.volmit.iris.engine.object.engine.IrisEngineSpawnerCooldown;
 import com.volmit.iris.engine.object.entity.IrisEntitySpawn;
+import com.volmit.iris.engine.object.feature.IrisFeaturePositional;
 import com.volmit.iris.engine.object.regional.IrisRegion;
 import com.volmit.iris.engine.object.spawners.IrisSpawner;
 import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.data.AliasTable;
 import com.volmit.iris.util.format.Form;
 import com.volmit.iris.util.math.M;
 import com.volmit.iris.util.math.RNG;
@@ -50,19 +52,21 @@ import org.bukkit.inventory.ItemStack;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class IrisWorldManager extends EngineAssignedWorldManager {
     private final Looper looper;
     private final KMap<Long, Long> chunkCooldowns;
+    private final KMap<String, SpawnTable> spawnTables;
+    private final KMap<Long, SpawnTable> chunkSpawnTables;
     private double energy = 25;
     private int entityCount = 0;
     private final ChronoLatch cl;
     private final ChronoLatch ecl;
     private final ChronoLatch cln;
+    private final ChronoLatch pcl;
+    private final MantlePrefetcher prefetcher;
     private long charge = 0;
     private int actuallySpawned = 0;
     private int cooldown = 0;
@@ -73,7 +77,11 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
         cl = null;
         ecl = null;
         cln = null;
+        pcl = null;
+        prefetcher = null;
         chunkCooldowns = null;
+        spawnTables = null;
+        chunkSpawnTables = null;
         looper = null;
     }
 
@@ -82,7 +90,11 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
         cln = new ChronoLatch(60000);
         cl = new ChronoLatch(3000);
         ecl = new ChronoLatch(250);
+        pcl = new ChronoLatch(500);
+        prefetcher = new MantlePrefetcher(engine);
         chunkCooldowns = new KMap<>();
+        spawnTables = new KMap<>();
+        chunkSpawnTables = new KMap<>();
         energy = 25;
         looper = new Looper() {
             @Override
@@ -103,6 +115,8 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
 
                 if (cln.flip()) {
                     engine.getEngineData().cleanup(getEngine());
+                    engine.getEngineData().saveChunks();
+                    chunkSpawnTables.clear();
                 }
 
                 if (precount != null) {
@@ -201,27 +215,7 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
     }
 
     private void spawnIn(Chunk c, IrisBiome biome, IrisRegion region) {
-        //@builder
-        IrisEntitySpawn v = spawnRandomly(Stream.concat(Stream.concat(
-                                        getData().getSpawnerLoader()
-                                                .loadAll(getDimension().getEntitySpawners())
-                                                .shuffleCopy(RNG.r).stream().filter(this::canSpawn),
-                                        getData().getSpawnerLoader().streamAll(getEngine().getMantle()
-                                                        .getFeaturesInChunk(c).stream()
-                                                        .flatMap((o) -> o.getFeature().getEntitySpawners().stream()))
-                                                .filter(this::canSpawn))
-                                .filter((i) -> i.isValid(biome))
-                                .flatMap(this::stream),
-                        Stream.concat(getData().getSpawnerLoader()
-                                        .loadAll(getEngine().getRegion(c.getX() << 4, c.getZ() << 4).getEntitySpawners())
-                                        .shuffleCopy(RNG.r).stream().filter(this::canSpawn)
-                                        .flatMap(this::stream),
-                                getData().getSpawnerLoader()
-                                        .loadAll(getEngine().getSurfaceBiome(c.getX() << 4, c.getZ() << 4).getEntitySpawners())
-                                        .shuffleCopy(RNG.r).stream().filter(this::canSpawn)
-                                        .flatMap(this::stream)))
-                .collect(Collectors.toList()))
-                .popRandom(RNG.r);
+        IrisEntitySpawn v = getSpawnTable(c, biome, region).pick(this, RNG.r);
 
         if (v != null && v.getReferenceSpawner() != null) {
             int maxEntCount = v.getReferenceSpawner().getMaxEntitiesPerChunk();
@@ -240,7 +234,6 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
                 J.s(() -> spawn(c, v));
             }
         }
-        //@done
     }
 
     private void spawn(Chunk c, IrisEntitySpawn i) {
@@ -249,19 +242,7 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
         if (!i.getReferenceSpawner().getMaximumRatePerChunk().isInfinite()) {
             allow = false;
             IrisEngineChunkData cd = getEngine().getEngineData().getChunk(c.getX(), c.getZ());
-            IrisEngineSpawnerCooldown sc = null;
-            for (IrisEngineSpawnerCooldown j : cd.getCooldowns()) {
-                if (j.getSpawner().equals(i.getReferenceSpawner().getLoadKey())) {
-                    sc = j;
-                    break;
-                }
-            }
-
-            if (sc == null) {
-                sc = new IrisEngineSpawnerCooldown();
-                sc.setSpawner(i.getReferenceSpawner().getLoadKey());
-                cd.getCooldowns().add(sc);
-            }
+            IrisEngineSpawnerCooldown sc = cd.getOrCreateCooldown(i.getReferenceSpawner().getLoadKey());
 
             if (sc.canSpawn(i.getReferenceSpawner().getMaximumRatePerChunk())) {
                 sc.spawn(getEngine());
@@ -279,26 +260,47 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
         }
     }
 
-    private Stream<IrisEntitySpawn> stream(IrisSpawner s) {
-        for (IrisEntitySpawn i : s.getSpawns()) {
-            i.setReferenceSpawner(s);
-        }
+    /**
+     * Get the spawn table for a chunk. Tables are shared by every chunk with the same biome & region
+     * unless the chunk contains features with their own spawners. Both caches live as long as this
+     * world manager, which is rebuilt with the engine on every hotload.
+     */
+    private SpawnTable getSpawnTable(Chunk c, IrisBiome biome, IrisRegion region) {
+        return chunkSpawnTables.computeIfAbsent(Cache.key(c), (k) -> {
+            KList<String> featureSpawners = new KList<>();
+
+            for (IrisFeaturePositional i : getEngine().getMantle().getFeaturesInChunk(c)) {
+                featureSpawners.addAll(i.getFeature().getEntitySpawners());
+            }
 
-        return s.getSpawns().stream();
+            if (featureSpawners.isEmpty()) {
+                return spawnTables.computeIfAbsent(biome.getLoadKey() + "/" + region.getLoadKey(),
+                        (kk) -> createSpawnTable(biome, region, featureSpawners));
+            }
+
+            return createSpawnTable(biome, region, featureSpawners);
+        });
     }
 
-    private KList<IrisEntitySpawn> spawnRandomly(List<IrisEntitySpawn> types) {
-        KList<IrisEntitySpawn> rarityTypes = new KList<>();
-        int totalRarity = 0;
-        for (IrisEntitySpawn i : types) {
-            totalRarity += IRare.get(i);
+    private SpawnTable createSpawnTable(IrisBiome biome, IrisRegion region, KList<String> featureSpawners) {
+        KList<IrisSpawner> spawners = new KList<>();
+
+        for (IrisSpawner i : getData().getSpawnerLoader().loadAll(getDimension().getEntitySpawners())) {
+            if (i.isValid(biome)) {
+                spawners.addIfMissing(i);
+            }
         }
 
-        for (IrisEntitySpawn i : types) {
-            rarityTypes.addMultiple(i, totalRarity / IRare.get(i));
+        for (IrisSpawner i : getData().getSpawnerLoader().loadAll(featureSpawners)) {
+            if (i.isValid(biome)) {
+                spawners.addIfMissing(i);
+            }
         }
 
-        return rarityTypes;
+        spawners.addAllIfMissing(getData().getSpawnerLoader().loadAll(region.getEntitySpawners()));
+        spawners.addAllIfMissing(getData().getSpawnerLoader().loadAll(biome.getEntitySpawners()));
+
+        return new SpawnTable(spawners);
     }
 
     public boolean canSpawn(IrisSpawner i) {
@@ -308,19 +310,13 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
 
     private IrisEngineSpawnerCooldown getCooldown(IrisSpawner i) {
         IrisEngineData ed = getEngine().getEngineData();
-        IrisEngineSpawnerCooldown cd = null;
-
-        for (IrisEngineSpawnerCooldown j : ed.getSpawnerCooldowns()) {
-            if (j.getSpawner().equals(i.getLoadKey())) {
-                cd = j;
-            }
-        }
+        IrisEngineSpawnerCooldown cd = ed.getSpawnerCooldown(i.getLoadKey());
 
         if (cd == null) {
             cd = new IrisEngineSpawnerCooldown();
             cd.setSpawner(i.getLoadKey());
             cd.setLastSpawn(M.ms() - i.getMaximumRate().getInterval());
-            ed.getSpawnerCooldowns().add(cd);
+            ed.addSpawnerCooldown(cd);
         }
 
         return cd;
@@ -328,12 +324,15 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
 
     @Override
     public void onTick() {
-
+        if (pcl.flip()) {
+            prefetcher.sample();
+        }
     }
 
     @Override
     public void onSave() {
         getEngine().getMantle().save();
+        getEngine().getEngineData().saveChunks();
     }
 
     @Override
@@ -345,6 +344,7 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
         }
 
         fixEnergy();
+        getEngine().getChunkUpdater().resume(e);
     }
 
     @Override
@@ -417,6 +417,7 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
     public void close() {
         super.close();
         looper.interrupt();
+        prefetcher.close();
     }
 
     @Override
@@ -432,4 +433,79 @@ public class IrisWorldManager extends EngineAssignedWorldManager {
 
         return (double) entityCount / (getEngine().getWorld().realWorld().getLoadedChunks().length + 1) * 1.28;
     }
+
+    /**
+     * The precomputed spawns of a set of spawners. Spawners are filtered by time, weather & cooldown
+     * at pick time, and the alias table for each combination of allowed spawners is built once.
+     */
+    private static class SpawnTable {
+        private final IrisSpawner[] spawners;
+        private final KMap<Long, AliasTable<IrisEntitySpawn>> tables;
+
+        public SpawnTable(KList<IrisSpawner> spawners) {
+            this.spawners = spawners.toArray(new IrisSpawner[0]);
+            this.tables = new KMap<>();
+
+            for (IrisSpawner i : spawners) {
+                for (IrisEntitySpawn j : i.getSpawns()) {
+                    j.setReferenceSpawner(i);
+                }
+            }
+        }
+
+        public IrisEntitySpawn pick(IrisWorldManager manager, RNG rng) {
+            if (spawners.length == 0) {
+                return null;
+            }
+
+            if (spawners.length > 64) {
+                return createTable(manager, -1L).pick(rng);
+            }
+
+            long allowed = 0;
+
+            for (int i = 0; i < spawners.length; i++) {
+                if (manager.canSpawn(spawners[i])) {
+                    allowed |= 1L << i;
+                }
+            }
+
+            if (allowed == 0) {
+                return null;
+            }
+
+            AliasTable<IrisEntitySpawn> table = tables.get(allowed);
+
+            if (table == null) {
+                table = createTable(null, allowed);
+                tables.put(allowed, table);
+            }
+
+            return table.pick(rng);
+        }
+
+        private AliasTable<IrisEntitySpawn> createTable(IrisWorldManager manager, long allowed) {
+            KList<IrisEntitySpawn> spawns = new KList<>();
+            KList<Double> weights = new KList<>();
+
+            for (int i = 0; i < spawners.length; i++) {
+                if (manager != null ? !manager.canSpawn(spawners[i]) : (allowed & (1L << i)) == 0) {
+                    continue;
+                }
+
+                for (IrisEntitySpawn j : spawners[i].getSpawns()) {
+                    spawns.add(j);
+                    weights.add(1D / IRare.get(j));
+                }
+            }
+
+            double[] w = new double[weights.size()];
+
+            for (int i = 0; i < w.length; i++) {
+                w[i] = weights.get(i);
+            }
+
+            return new AliasTable<>(spawns, w);
+        }
+    }
 }
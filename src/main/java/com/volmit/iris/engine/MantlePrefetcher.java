@@ -0,0 +1,202 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.engine;
+
+import com.volmit.iris.Iris;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.engine.framework.Engine;
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.mantle.Mantle;
+import com.volmit.iris.util.math.M;
+import com.volmit.iris.util.scheduling.Looper;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms tectonic plates and generates mantle matter ahead of fast moving players, so
+ * elytra flight does not hit synchronous plate loads and mantle generation on the chunk
+ * generation threads. Player velocity is sampled on the main thread, the predicted path
+ * is walked from nearest to furthest and the work is done on a low priority thread,
+ * limited to a number of chunks per second, plate loads in flight and loaded plates.
+ */
+public class MantlePrefetcher {
+    private static final double MIN_SPEED = 10;
+    private static final double MAX_HEAP = 0.8;
+    private static final long REPEAT_MS = 30000;
+    private final Engine engine;
+    private final KMap<UUID, double[]> motion;
+    private final KMap<Long, Long> queued;
+    private final ConcurrentLinkedDeque<Long> queue;
+    private final AtomicInteger plateLoads;
+    private final Looper looper;
+
+    public MantlePrefetcher(Engine engine) {
+        this.engine = engine;
+        motion = new KMap<>();
+        queued = new KMap<>();
+        queue = new ConcurrentLinkedDeque<>();
+        plateLoads = new AtomicInteger(0);
+        looper = new Looper() {
+            @Override
+            protected long loop() {
+                if (engine.isClosed()) {
+                    interrupt();
+                    return -1;
+                }
+
+                return prefetchNext();
+            }
+        };
+        looper.setPriority(Thread.MIN_PRIORITY);
+        looper.setName("Iris Mantle Prefetch");
+        looper.start();
+    }
+
+    /**
+     * Sample the players of the world and queue the chunks ahead of them. Must be called
+     * on the main thread, about twice a second.
+     */
+    public void sample() {
+        IrisSettings.IrisSettingsPerformance s = IrisSettings.get().getPerformance();
+
+        if (!s.isMantlePrefetch() || !engine.getDimension().isUseMantle()) {
+            queue.clear();
+            return;
+        }
+
+        long now = M.ms();
+        int viewDistance = Bukkit.getViewDistance();
+        int step = Math.max(1, engine.getMantle().getRealRadius() * 2 + 1);
+        KList<Long> path = new KList<>();
+        KList<UUID> online = new KList<>();
+
+        for (Player i : engine.getWorld().getPlayers()) {
+            Location l = i.getLocation();
+            double[] m = motion.computeIfAbsent(i.getUniqueId(), (k) -> new double[]{l.getX(), l.getZ(), now, 0, 0});
+            double dt = (now - m[2]) / 1000D;
+            online.add(i.getUniqueId());
+
+            if (dt <= 0) {
+                continue;
+            }
+
+            // Smooth the velocity a little so a single turn doesn't throw the prediction away
+            m[3] = (m[3] + (l.getX() - m[0]) / dt) / 2D;
+            m[4] = (m[4] + (l.getZ() - m[1]) / dt) / 2D;
+            m[0] = l.getX();
+            m[1] = l.getZ();
+            m[2] = now;
+            double speed = Math.sqrt(m[3] * m[3] + m[4] * m[4]);
+
+            if (speed < MIN_SPEED || dt > 5) {
+                continue;
+            }
+
+            trace(path, m, speed, viewDistance, step, s.getMantlePrefetchSeconds(), now);
+        }
+
+        motion.keySet().removeIf((k) -> !online.contains(k));
+        queued.values().removeIf((v) -> now - v > REPEAT_MS);
+        queue.addAll(path);
+        int max = Math.max(1, s.getMantlePrefetchChunksPerSecond() * s.getMantlePrefetchSeconds());
+
+        // Anything older than that is behind the players by now
+        while (queue.size() > max) {
+            queue.pollFirst();
+        }
+    }
+
+    /**
+     * Walk the predicted path and collect the chunks the server will generate at the edge of
+     * the view distance, nearest first.
+     */
+    private void trace(KList<Long> path, double[] m, double speed, int viewDistance, int step, int seconds, long now) {
+        double dx = m[3] / speed;
+        double dz = m[4] / speed;
+        double lead = viewDistance * 16;
+        double distance = speed * seconds;
+
+        for (double d = 0; d <= distance; d += step * 16) {
+            double cx = m[0] + dx * (d + lead);
+            double cz = m[1] + dz * (d + lead);
+
+            for (int w = -viewDistance; w <= viewDistance; w += step) {
+                long key = Cache.key(((int) Math.floor(cx - dz * w * 16)) >> 4, ((int) Math.floor(cz + dx * w * 16)) >> 4);
+
+                if (queued.putIfAbsent(key, now) == null) {
+                    path.add(key);
+                }
+            }
+        }
+    }
+
+    private long prefetchNext() {
+        IrisSettings.IrisSettingsPerformance s = IrisSettings.get().getPerformance();
+        Long key = queue.pollFirst();
+
+        if (key == null) {
+            return 250;
+        }
+
+        Mantle mantle = engine.getMantle().getMantle();
+        Runtime r = Runtime.getRuntime();
+
+        if (mantle.getLoadedRegionCount() >= s.getMantlePrefetchMaxPlates()
+                || (r.totalMemory() - r.freeMemory()) > r.maxMemory() * MAX_HEAP) {
+            queue.clear();
+            return 1000;
+        }
+
+        int x = Cache.keyX(key);
+        int z = Cache.keyZ(key);
+
+        if (!mantle.isLoaded(x >> 5, z >> 5)) {
+            if (plateLoads.get() >= s.getMantlePrefetchPlateLoads()) {
+                queue.offerFirst(key);
+                return 50;
+            }
+
+            plateLoads.incrementAndGet();
+            mantle.prefetch(x >> 5, z >> 5).whenComplete((p, e) -> plateLoads.decrementAndGet());
+            queue.offerLast(key);
+            return 10;
+        }
+
+        try {
+            engine.getMantle().generateMatter(x, z);
+        } catch (Throwable e) {
+            Iris.reportError(e);
+            e.printStackTrace();
+        }
+
+        return 1000 / Math.max(1, s.getMantlePrefetchChunksPerSecond());
+    }
+
+    public void close() {
+        queue.clear();
+        looper.interrupt();
+    }
+}
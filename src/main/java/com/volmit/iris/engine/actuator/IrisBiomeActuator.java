@@ -21,6 +21,7 @@ package com.volmit.iris.engine.actuator;
 import com.volmit.iris.Iris;
 import com.volmit.iris.core.nms.INMS;
 import com.volmit.iris.engine.data.chunk.TerrainChunk;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedActuator;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -63,8 +64,83 @@ public class IrisBiomeActuator extends EngineAssignedActuator<Biome> {
 
     @BlockCoordinates
     @Override
-    public void onActuate(int x, int z, Hunk<Biome> h, boolean multicore) {
+    public void onActuate(int x, int z, Hunk<Biome> h, boolean multicore, ChunkContext context) {
         PrecisionStopwatch p = PrecisionStopwatch.start();
+
+        if (getDimension().isBiomeCells() && h instanceof BiomeGridHunkView) {
+            actuateCells(x, z, h);
+        } else {
+            actuateColumns(x, z, h);
+        }
+
+        getEngine().getMetrics().getBiome().put(p.getMilliseconds());
+    }
+
+    /**
+     * Samples & writes one biome per 4x4x4 cell. The biome grid stores biomes at this resolution
+     * anyway, so writing every block only overwrites each cell 64 times.
+     */
+    @BlockCoordinates
+    private void actuateCells(int x, int z, Hunk<Biome> h) {
+        Hunk<Biome> cells = h.viewCells();
+        boolean caves = getDimension().isCaveBiomeCells();
+        int cz, cy, maxCell, surfaceCell, bx, bz;
+        IrisBiome ib;
+        Object surface, cave;
+
+        for (int cx = 0; cx < cells.getWidth(); cx++) {
+            for (cz = 0; cz < cells.getDepth(); cz++) {
+                bx = (cx << 2) + 2;
+                bz = (cz << 2) + 2;
+                ib = getComplex().getTrueBiomeStream().get(modX(bx + x), modZ(bz + z));
+                maxCell = Math.min(cells.getHeight(), ((int) (getComplex().getFluidHeight() + ib.getMaxWithObjectHeight(getData())) + 3) >> 2);
+                surface = resolve(h, ib, x, z);
+                cave = null;
+                surfaceCell = 0;
+
+                if (caves) {
+                    surfaceCell = (getComplex().getHeightStream().get(modX(bx + x), modZ(bz + z)).intValue() >> 2) - 1;
+                    cave = resolve(h, getComplex().getCaveBiomeStream().get(modX(bx + x), modZ(bz + z)), x, z);
+                }
+
+                for (cy = 0; cy < maxCell; cy++) {
+                    writeCell(h, cells, cx, cy, cz, caves && cy < surfaceCell ? cave : surface);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves the biome to write for a biome, either a custom biome base or a bukkit biome
+     */
+    @BlockCoordinates
+    private Object resolve(Hunk<Biome> h, IrisBiome ib, int x, int z) {
+        if (ib.isCustom()) {
+            try {
+                IrisBiomeCustom custom = ib.getCustomBiome(rng, x, 0, z);
+                Object biomeBase = INMS.get().getCustomBiomeBaseFor(getDimension().getLoadKey() + ":" + custom.getId());
+
+                if (biomeBase != null && injectBiome(h, x, 0, z, biomeBase)) {
+                    return biomeBase;
+                }
+            } catch (Throwable e) {
+                Iris.reportError(e);
+            }
+        }
+
+        return ib.getSkyBiome(rng, x, 0, z);
+    }
+
+    private void writeCell(Hunk<Biome> h, Hunk<Biome> cells, int cx, int cy, int cz, Object v) {
+        if (v instanceof Biome b) {
+            cells.set(cx, cy, cz, b);
+        } else {
+            injectBiome(h, cx << 2, cy << 2, cz << 2, v);
+        }
+    }
+
+    @BlockCoordinates
+    private void actuateColumns(int x, int z, Hunk<Biome> h) {
         int zf, maxHeight;
         IrisBiome ib;
 
@@ -99,7 +175,5 @@ public class IrisBiomeActuator extends EngineAssignedActuator<Biome> {
                 }
             }
         }
-
-        getEngine().getMetrics().getBiome().put(p.getMilliseconds());
     }
 }
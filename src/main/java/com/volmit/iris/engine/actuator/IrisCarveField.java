@@ -0,0 +1,212 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.engine.actuator;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.engine.framework.Engine;
+import com.volmit.iris.engine.object.carve.IrisCarveLayer;
+import com.volmit.iris.engine.object.dimensional.IrisDimension;
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.interpolation.IrisInterpolation;
+import com.volmit.iris.util.math.RNG;
+
+import java.util.Arrays;
+
+/**
+ * The carve layers of a dimension as one density field. Instead of sampling every layer for
+ * every block, the field samples a coarse lattice (every 4 blocks horizontally and every 8
+ * vertically) once per chunk and interpolates between the lattice points. Lattice points outside
+ * of a layer's height range never touch that layer's noise, and heights outside of all layers
+ * are rejected before the lattice is even looked at.
+ */
+public class IrisCarveField {
+    private static final int SPACING_XZ = 4;
+    private static final int SPACING_Y = 8;
+    private static final int SIZE_XZ = (16 / SPACING_XZ) + 1;
+    private final Engine engine;
+    private final RNG rng;
+    private final KList<IrisCarveLayer> layers;
+    private final int minY;
+    private final int maxY;
+    private final int latticeY;
+    private final int sizeY;
+    private final ConcurrentLinkedHashMap<Long, float[]> chunks;
+
+    public IrisCarveField(Engine engine, RNG rng) {
+        this.engine = engine;
+        this.rng = rng;
+        this.layers = engine.getDimension().getCarveLayers().copy();
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        for (IrisCarveLayer i : layers) {
+            min = Math.min(min, i.getMinHeight());
+            max = Math.max(max, i.getMaxHeight());
+        }
+
+        minY = min;
+        maxY = max;
+        latticeY = layers.isEmpty() ? 0 : Math.floorDiv(min, SPACING_Y) * SPACING_Y;
+        sizeY = layers.isEmpty() ? 0 : ((max - latticeY) / SPACING_Y) + 2;
+        chunks = new ConcurrentLinkedHashMap.Builder<Long, float[]>()
+                .initialCapacity(256)
+                .maximumWeightedCapacity(256)
+                .concurrencyLevel(32)
+                .build();
+    }
+
+    /**
+     * Check if no carve layer reaches into a height range, so nothing in it can ever be carved
+     *
+     * @param fromY the lowest y (inclusive)
+     * @param toY   the highest y (inclusive)
+     * @return true if the range is untouched by every layer
+     */
+    public boolean isClear(int fromY, int toY) {
+        return layers.isEmpty() || toY < minY || fromY > maxY;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Same rules as {@link IrisDimension#isCarved}, sampled from the field
+     */
+    public boolean isCarved(int x, int y, int z, int terrainHeight) {
+        IrisDimension dimension = engine.getDimension();
+
+        if (dimension.isCarving() && terrainHeight > dimension.getFluidHeight() || y < terrainHeight) {
+            return isCarved(x, y, z);
+        }
+
+        return false;
+    }
+
+    public boolean isCarved(int x, int y, int z) {
+        if (y < minY || y > maxY || layers.isEmpty()) {
+            return false;
+        }
+
+        return getDensity(x, y, z) > 0;
+    }
+
+    /**
+     * The interpolated density of the strongest carve layer, carved where it is above 0
+     */
+    public double getDensity(int x, int y, int z) {
+        float[] lattice = getLattice(x >> 4, z >> 4);
+        int lx = x & 15;
+        int lz = z & 15;
+        int ly = y - latticeY;
+        int ix = lx / SPACING_XZ;
+        int iz = lz / SPACING_XZ;
+        int iy = ly / SPACING_Y;
+        return IrisInterpolation.trilerp(
+                lattice[index(ix, iy, iz)],
+                lattice[index(ix + 1, iy, iz)],
+                lattice[index(ix, iy + 1, iz)],
+                lattice[index(ix + 1, iy + 1, iz)],
+                lattice[index(ix, iy, iz + 1)],
+                lattice[index(ix + 1, iy, iz + 1)],
+                lattice[index(ix, iy + 1, iz + 1)],
+                lattice[index(ix + 1, iy + 1, iz + 1)],
+                (double) (lx % SPACING_XZ) / SPACING_XZ,
+                (double) (ly % SPACING_Y) / SPACING_Y,
+                (double) (lz % SPACING_XZ) / SPACING_XZ);
+    }
+
+    private int index(int x, int y, int z) {
+        return (((x * SIZE_XZ) + z) * sizeY) + y;
+    }
+
+    private float[] getLattice(int chunkX, int chunkZ) {
+        Long key = Cache.key(chunkX, chunkZ);
+        float[] lattice = chunks.get(key);
+
+        if (lattice == null) {
+            lattice = computeLattice(chunkX, chunkZ);
+            float[] existing = chunks.putIfAbsent(key, lattice);
+            lattice = existing != null ? existing : lattice;
+        }
+
+        return lattice;
+    }
+
+    /**
+     * Sample every layer over the lattice of a chunk. The points inside a layer's height range
+     * are handed to its noise as one batch, points outside of it only see the layer's threshold.
+     */
+    private float[] computeLattice(int chunkX, int chunkZ) {
+        int size = SIZE_XZ * SIZE_XZ * sizeY;
+        double[] density = new double[size];
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        double[] zs = new double[size];
+        int[] at = new int[size];
+        Arrays.fill(density, -Double.MAX_VALUE);
+
+        for (IrisCarveLayer l : layers) {
+            int n = 0;
+
+            for (int i = 0; i < SIZE_XZ; i++) {
+                for (int k = 0; k < SIZE_XZ; k++) {
+                    for (int j = 0; j < sizeY; j++) {
+                        int y = latticeY + (j * SPACING_Y);
+                        int index = index(i, j, k);
+
+                        if (y > l.getMaxHeight() || y < l.getMinHeight()) {
+                            density[index] = Math.max(density[index], -l.getThreshold());
+                            continue;
+                        }
+
+                        xs[n] = (chunkX << 4) + (i * SPACING_XZ);
+                        ys[n] = y;
+                        zs[n] = (chunkZ << 4) + (k * SPACING_XZ);
+                        at[n++] = index;
+                    }
+                }
+            }
+
+            if (n == 0) {
+                continue;
+            }
+
+            double[] out = new double[n];
+            l.getDensity(rng, engine.getData(), Arrays.copyOf(xs, n), Arrays.copyOf(ys, n), Arrays.copyOf(zs, n), out);
+
+            for (int m = 0; m < n; m++) {
+                density[at[m]] = Math.max(density[at[m]], out[m]);
+            }
+        }
+
+        float[] lattice = new float[size];
+
+        for (int i = 0; i < size; i++) {
+            lattice[i] = (float) density[i];
+        }
+
+        return lattice;
+    }
+}
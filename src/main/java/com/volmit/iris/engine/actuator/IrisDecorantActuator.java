@@ -18,7 +18,9 @@
 
 package com.volmit.iris.engine.actuator;
 
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
 import com.volmit.iris.engine.decorator.*;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedActuator;
 import com.volmit.iris.engine.framework.EngineDecorator;
@@ -29,14 +31,11 @@ import com.volmit.iris.util.hunk.Hunk;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.scheduling.PrecisionStopwatch;
 import lombok.Getter;
-import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
 
 import java.util.function.BiPredicate;
-import java.util.function.Predicate;
 
 public class IrisDecorantActuator extends EngineAssignedActuator<BlockData> {
-    private static final Predicate<BlockData> PREDICATE_SOLID = (b) -> b != null && !b.getMaterial().isAir() && !b.getMaterial().equals(Material.WATER) && !b.getMaterial().equals(Material.LAVA);
     private final BiPredicate<BlockData, Integer> PREDICATE_CAVELIQUID;
     private final RNG rng;
     @Getter
@@ -75,12 +74,11 @@ public class IrisDecorantActuator extends EngineAssignedActuator<BlockData> {
             }
             return false;
         };
-
     }
 
     @BlockCoordinates
     @Override
-    public void onActuate(int x, int z, Hunk<BlockData> output, boolean multicore) {
+    public void onActuate(int x, int z, Hunk<BlockData> output, boolean multicore, ChunkContext context) {
         if (!getEngine().getDimension().isDecorate()) {
             return;
         }
@@ -93,15 +91,11 @@ public class IrisDecorantActuator extends EngineAssignedActuator<BlockData> {
 
         for (int i = 0; i < output.getWidth(); i++) {
             for (j = 0; j < output.getDepth(); j++) {
-                boolean solid, liquid;
-                int emptyFor = 0;
-                int liquidFor = 0;
-                int lastSolid = 0;
                 realX = (int) Math.round(modX(x + i));
                 realZ = (int) Math.round(modZ(z + j));
-                height = (int) Math.round(getComplex().getHeightStream().get(realX, realZ));
-                biome = getComplex().getTrueBiomeStream().get(realX, realZ);
-                cave = shouldRay ? getComplex().getCaveBiomeStream().get(realX, realZ) : null;
+                height = (int) Math.round(context.getRoundedHeight(i, j));
+                biome = context.getRoundedBiome(i, j);
+                cave = shouldRay ? context.getRoundedCaveBiome(i, j) : null;
 
                 if (biome.getDecorators().isEmpty() && (cave == null || cave.getDecorators().isEmpty())) {
                     continue;
@@ -125,33 +119,71 @@ public class IrisDecorantActuator extends EngineAssignedActuator<BlockData> {
 
 
                 if (cave != null && cave.getDecorators().isNotEmpty()) {
-                    for (int k = height; k > 0; k--) {
-                        solid = PREDICATE_SOLID.test(output.get(i, k, j));
-                        liquid = PREDICATE_CAVELIQUID.test(output.get(i, k + 1, j), k + 1);
-
-                        if (solid) {
-                            if (emptyFor > 0) {
-                                if (liquid) {
-                                    getSeaFloorDecorator().decorate(i, j, realX, realZ, output, cave, k + 1, liquidFor + lastSolid - emptyFor + 1);
-                                    getSeaSurfaceDecorator().decorate(i, j, realX, realZ, output, cave, k + liquidFor + 1, emptyFor - liquidFor + lastSolid);
-                                } else {
-                                    getSurfaceDecorator().decorate(i, j, realX, realZ, output, cave, k, lastSolid);
-                                    getCeilingDecorator().decorate(i, j, realX, realZ, output, cave, lastSolid - 1, emptyFor);
-                                }
-                                emptyFor = 0;
-                                liquidFor = 0;
-                            }
-                            lastSolid = k;
-                        } else {
-                            emptyFor++;
-                            if (liquid) liquidFor++;
+                    decorateCaves(i, j, realX, realZ, output, cave, height, context.getSpans());
+                }
+            }
+        }
+
+        getEngine().getMetrics().getDecoration().put(p.getMilliseconds());
+    }
+
+    /**
+     * Walks the column's solid/air/fluid runs top down from the surface, decorating the floor
+     * and ceiling of every gap. Works a whole run at a time instead of reading each block. Only
+     * blocks the spans mark as fluid (plus the block above each run) are read, to tell cave
+     * liquid (a cave layer's fluid within its fluid height) apart from sea water or ravine lava.
+     */
+    private void decorateCaves(int i, int j, int realX, int realZ, Hunk<BlockData> output, IrisBiome cave, int height, ColumnSpans spans) {
+        int[] runs = spans.getRuns(i, j);
+        int emptyFor = 0;
+        int liquidFor = 0;
+        int lastSolid = 0;
+
+        for (int r = runs.length - 1; r >= 0; r--) {
+            int lo = Math.max(ColumnSpans.start(runs[r]), 1);
+            int hi = Math.min(spans.end(runs, r), height);
+
+            if (lo > hi) {
+                continue;
+            }
+
+            int type = ColumnSpans.type(runs[r]);
+            boolean liquid = isCaveLiquid(output, spans, i, hi + 1, j);
+
+            if (type != ColumnSpans.SOLID) {
+                emptyFor += hi - lo + 1;
+                liquidFor += liquid ? 1 : 0;
+
+                if (type == ColumnSpans.FLUID) {
+                    for (int k = lo + 1; k <= hi; k++) {
+                        if (PREDICATE_CAVELIQUID.test(output.get(i, k, j), k)) {
+                            liquidFor++;
                         }
                     }
                 }
+
+                continue;
+            }
+
+            if (emptyFor > 0) {
+                if (liquid) {
+                    getSeaFloorDecorator().decorate(i, j, realX, realZ, output, cave, hi + 1, liquidFor + lastSolid - emptyFor + 1);
+                    getSeaSurfaceDecorator().decorate(i, j, realX, realZ, output, cave, hi + liquidFor + 1, emptyFor - liquidFor + lastSolid);
+                } else {
+                    getSurfaceDecorator().decorate(i, j, realX, realZ, output, cave, hi, lastSolid);
+                    getCeilingDecorator().decorate(i, j, realX, realZ, output, cave, lastSolid - 1, emptyFor);
+                }
+
+                emptyFor = 0;
+                liquidFor = 0;
             }
+
+            lastSolid = lo;
         }
+    }
 
-        getEngine().getMetrics().getDecoration().put(p.getMilliseconds());
+    private boolean isCaveLiquid(Hunk<BlockData> output, ColumnSpans spans, int i, int y, int j) {
+        return spans.getType(i, y, j) == ColumnSpans.FLUID && y < output.getHeight() && PREDICATE_CAVELIQUID.test(output.get(i, y, j), y);
     }
 
     private boolean shouldRayDecorate() {
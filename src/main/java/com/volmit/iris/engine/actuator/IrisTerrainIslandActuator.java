@@ -18,6 +18,7 @@
 
 package com.volmit.iris.engine.actuator;
 
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedActuator;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -53,7 +54,7 @@ public class IrisTerrainIslandActuator extends EngineAssignedActuator<BlockData>
 
     @BlockCoordinates
     @Override
-    public void onActuate(int x, int z, Hunk<BlockData> h, boolean multicore) {
+    public void onActuate(int x, int z, Hunk<BlockData> h, boolean multicore, ChunkContext context) {
         PrecisionStopwatch p = PrecisionStopwatch.start();
         int i, zf, depth, surface, realX, realZ;
         IrisBiome biome;
@@ -67,8 +68,8 @@ public class IrisTerrainIslandActuator extends EngineAssignedActuator<BlockData>
                 realZ = (int) modZ(zf + z);
 
                 if (getComplex().getIslandStream().get(realX, realZ)) {
-                    biome = getComplex().getTrueBiomeStream().get(realX, realZ);
-                    hh = getComplex().getTrueHeightStream().get(realX, realZ) - getComplex().getFluidHeight();
+                    biome = context.getBiome(xf, zf);
+                    hh = context.getTrueHeight(xf, zf) - context.getFluidHeight();
                     depth = (int) (getComplex().getIslandDepthStream().get(realX, realZ).intValue() + hh);
                     blocks = biome.generateLayers(realX, realZ, rng, depth, depth, getData(), getComplex());
                     hi = getComplex().getIslandTopStream().get(realX, realZ);
@@ -83,10 +84,12 @@ public class IrisTerrainIslandActuator extends EngineAssignedActuator<BlockData>
                         int hf = (i - hi);
                         if (blocks.hasIndex(hf)) {
                             h.set(xf, i, zf, blocks.get(hf));
+                            context.getSpans().set(xf, i, zf, blocks.get(hf));
                             continue;
                         }
 
                         h.set(xf, i, zf, getComplex().getRockStream().get(realX, realZ));
+                        context.getSpans().set(xf, i, zf, getComplex().getRockStream().get(realX, realZ));
                     }
                 }
             }
@@ -18,6 +18,8 @@
 
 package com.volmit.iris.engine.actuator;
 
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedActuator;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -31,6 +33,8 @@ import lombok.Getter;
 import org.bukkit.Material;
 import org.bukkit.block.data.BlockData;
 
+import java.util.Arrays;
+
 public class IrisTerrainNormalActuator extends EngineAssignedActuator<BlockData> {
     private static final BlockData AIR = Material.AIR.createBlockData();
     private static final BlockData BEDROCK = Material.BEDROCK.createBlockData();
@@ -39,6 +43,9 @@ public class IrisTerrainNormalActuator extends EngineAssignedActuator<BlockData>
     private final RNG rng;
     private final boolean carving;
     private final boolean hasUnder;
+    private final boolean hasCaverns;
+    @Getter
+    private final IrisCarveField carveField;
     @Getter
     private int lastBedrock = -1;
 
@@ -47,24 +54,54 @@ public class IrisTerrainNormalActuator extends EngineAssignedActuator<BlockData>
         rng = new RNG(engine.getWorld().seed());
         carving = getDimension().isCarving() && getDimension().getCarveLayers().isNotEmpty();
         hasUnder = getDimension().getUndercarriage() != null && !getDimension().getUndercarriage().getGenerator().isFlat();
+        hasCaverns = getDimension().getCaverns() != null && getDimension().getCaverns().getZones().isNotEmpty();
+        carveField = new IrisCarveField(engine, rng);
     }
 
     @BlockCoordinates
     @Override
-    public void onActuate(int x, int z, Hunk<BlockData> h, boolean multicore) {
+    public void onActuate(int x, int z, Hunk<BlockData> h, boolean multicore, ChunkContext context) {
         PrecisionStopwatch p = PrecisionStopwatch.start();
+        TerrainColumn[] columns = new TerrainColumn[256];
+        byte[] types = new byte[256 * h.getHeight()];
 
         if (multicore) {
             BurstExecutor e = getEngine().burst().burst(h.getWidth());
             for (int xf = 0; xf < h.getWidth(); xf++) {
                 int finalXf = xf;
-                e.queue(() -> terrainSliver(x, z, finalXf, h));
+                e.queue(() -> prepareSliver(x, z, finalXf, h, context, columns));
+            }
+
+            e.complete();
+            int top = -1;
+
+            for (TerrainColumn i : columns) {
+                if (i != null) {
+                    top = Math.max(top, Math.min(i.hf, h.getHeight() - 1));
+                }
+            }
+
+            int sections = (top >> 4) + 1;
+            e = getEngine().burst().burst(sections);
+
+            for (int s = 0; s < sections; s++) {
+                int fromY = s << 4;
+                int toY = Math.min(fromY + 15, h.getHeight() - 1);
+                e.queue(() -> terrainSection(h, columns, types, fromY, toY));
             }
 
             e.complete();
         } else {
             for (int xf = 0; xf < h.getWidth(); xf++) {
-                terrainSliver(x, z, xf, h);
+                prepareSliver(x, z, xf, h, context, columns);
+            }
+
+            terrainSection(h, columns, types, 0, h.getHeight() - 1);
+        }
+
+        for (int xf = 0; xf < h.getWidth(); xf++) {
+            for (int zf = 0; zf < h.getDepth(); zf++) {
+                context.getSpans().setColumn(xf, zf, types, index(xf, zf) * h.getHeight());
             }
         }
 
@@ -72,84 +109,182 @@ public class IrisTerrainNormalActuator extends EngineAssignedActuator<BlockData>
     }
 
     /**
-     * This is calling 1/16th of a chunk x/z slice. It is a plane from sky to bedrock 1 thick in the x direction.
+     * Resolves everything a column needs before any block is placed (heights, biome & layers) for a
+     * 1 thick x slice of the chunk. Columns that end up empty are left null.
      *
-     * @param x  the chunk x in blocks
-     * @param z  the chunk z in blocks
-     * @param xf the current x slice
-     * @param h  the blockdata
+     * @param x       the chunk x in blocks
+     * @param z       the chunk z in blocks
+     * @param xf      the current x slice
+     * @param h       the blockdata
+     * @param context the chunk context
+     * @param columns the columns of the chunk, indexed by {@link #index(int, int)}
      */
     @BlockCoordinates
-    public void terrainSliver(int x, int z, int xf, Hunk<BlockData> h) {
-        int i, depth, realX, realZ, hf, he, b, fdepth;
-        IrisBiome biome;
-        KList<BlockData> blocks, fblocks;
-
+    private void prepareSliver(int x, int z, int xf, Hunk<BlockData> h, ChunkContext context, TerrainColumn[] columns) {
         for (int zf = 0; zf < h.getDepth(); zf++) {
-            realX = (int) modX(xf + x);
-            realZ = (int) modZ(zf + z);
-            b = hasUnder ? (int) Math.round(getDimension().getUndercarriage().get(rng, getData(), realX, realZ)) : 0;
-            he = (int) Math.round(Math.min(h.getHeight(), getComplex().getHeightStream().get(realX, realZ)));
-            hf = Math.round(Math.max(Math.min(h.getHeight(), getDimension().getFluidHeight()), he));
-            biome = getComplex().getTrueBiomeStream().get(realX, realZ);
-            blocks = null;
-            fblocks = null;
-
-            if (hf < b) {
+            TerrainColumn c = new TerrainColumn();
+            c.x = xf;
+            c.z = zf;
+            c.realX = (int) modX(xf + x);
+            c.realZ = (int) modZ(zf + z);
+            c.b = hasUnder ? (int) Math.round(getDimension().getUndercarriage().get(rng, getData(), c.realX, c.realZ)) : 0;
+            c.he = (int) Math.round(Math.min(h.getHeight(), context.getHeight(xf, zf)));
+            c.hf = Math.round(Math.max(Math.min(h.getHeight(), getDimension().getFluidHeight()), c.he));
+
+            if (c.hf < c.b) {
+                continue;
+            }
+
+            IrisBiome biome = context.getBiome(xf, zf);
+
+            if (c.he >= c.b) {
+                c.blocks = biome.generateLayers(c.realX, c.realZ, rng, c.he, c.he, getData(), getComplex());
+                c.rock = getComplex().getRockStream().get(c.realX, c.realZ);
+            }
+
+            if (c.hf > c.he) {
+                c.fblocks = biome.generateSeaLayers(c.realX, c.realZ, rng, c.hf - c.he, getData());
+                c.fluid = getComplex().getFluidStream().get(c.realX, c.realZ);
+            }
+
+            columns[index(xf, zf)] = c;
+        }
+    }
+
+    /**
+     * Places the blocks of every column between two heights. Sections never share a block, so any
+     * number of them can run at the same time.
+     *
+     * @param h       the blockdata
+     * @param columns the prepared columns
+     * @param types   the span types of all columns, height entries per column
+     * @param fromY   the lowest y (inclusive)
+     * @param toY     the highest y (inclusive)
+     */
+    private void terrainSection(Hunk<BlockData> h, TerrainColumn[] columns, byte[] types, int fromY, int toY) {
+        for (TerrainColumn c : columns) {
+            if (c == null) {
                 continue;
             }
 
-            for (i = hf; i >= b; i--) {
+            int offset = index(c.x, c.z) * h.getHeight();
+            int floor = getDimension().isBedrock() ? c.b + 1 : c.b;
+            int deepTop = c.blocks == null || hasCaverns ? Integer.MIN_VALUE : c.he - c.blocks.size();
+
+            for (int i = Math.min(c.hf, toY); i >= c.b && i >= fromY; i--) {
                 if (i >= h.getHeight()) {
                     continue;
                 }
 
-                if (i == b) {
+                if (i == c.b) {
                     if (getDimension().isBedrock()) {
-                        h.set(xf, i, zf, BEDROCK);
+                        set(h, types, offset, c.x, i, c.z, BEDROCK);
                         lastBedrock = i;
                         continue;
                     }
                 }
 
-                if (carving && getDimension().isCarved(getData(), realX, i, realZ, rng, he)) {
+                if (i <= deepTop) {
+                    // Below the biome layers everything down to the bedrock is plain rock
+                    int to = Math.max(floor, fromY);
+                    fillRock(h, types, offset, c.x, c.z, to, i, c.rock, c.realX, c.realZ, c.he);
+                    i = to;
                     continue;
                 }
 
-                if (getDimension().getCaverns() != null && getDimension().getCaverns().isCavern(rng, realX, i, realZ, he, getData())) {
+                if (carving && carveField.isCarved(c.realX, i, c.realZ, c.he)) {
                     continue;
                 }
 
-                if (i > he && i <= hf) {
-                    fdepth = hf - i;
+                if (getDimension().getCaverns() != null && getDimension().getCaverns().isCavern(rng, c.realX, i, c.realZ, c.he, getData())) {
+                    continue;
+                }
 
-                    if (fblocks == null) {
-                        fblocks = biome.generateSeaLayers(realX, realZ, rng, hf - he, getData());
-                    }
+                if (i > c.he && i <= c.hf) {
+                    int fdepth = c.hf - i;
 
-                    if (fblocks.hasIndex(fdepth)) {
-                        h.set(xf, i, zf, fblocks.get(fdepth));
+                    if (c.fblocks.hasIndex(fdepth)) {
+                        set(h, types, offset, c.x, i, c.z, c.fblocks.get(fdepth));
                         continue;
                     }
 
-                    h.set(xf, i, zf, getComplex().getFluidStream().get(realX, +realZ));
+                    set(h, types, offset, c.x, i, c.z, c.fluid);
                     continue;
                 }
 
-                if (i <= he) {
-                    depth = he - i;
-                    if (blocks == null) {
-                        blocks = biome.generateLayers(realX, realZ, rng, he, he, getData(), getComplex());
-                    }
+                if (i <= c.he) {
+                    int depth = c.he - i;
 
-                    if (blocks.hasIndex(depth)) {
-                        h.set(xf, i, zf, blocks.get(depth));
+                    if (c.blocks.hasIndex(depth)) {
+                        set(h, types, offset, c.x, i, c.z, c.blocks.get(depth));
                         continue;
                     }
 
-                    h.set(xf, i, zf, getComplex().getRockStream().get(realX, realZ));
+                    set(h, types, offset, c.x, i, c.z, c.rock);
                 }
             }
         }
     }
+
+    /**
+     * Fills a column of deep rock from y {@code from} up to {@code to} (both inclusive). Only the part
+     * that the carve layers can reach is checked block by block, the rest is written as whole runs.
+     */
+    private void fillRock(Hunk<BlockData> h, byte[] types, int offset, int x, int z, int from, int to, BlockData rock, int realX, int realZ, int he) {
+        if (from > to) {
+            return;
+        }
+
+        if (!carving || carveField.isClear(from, to)) {
+            fill(h, types, offset, x, z, from, to, rock);
+            return;
+        }
+
+        int lo = Math.max(from, carveField.getMinY());
+        int hi = Math.min(to, carveField.getMaxY());
+        fill(h, types, offset, x, z, hi + 1, to, rock);
+
+        for (int i = hi; i >= lo; i--) {
+            if (!carveField.isCarved(realX, i, realZ, he)) {
+                set(h, types, offset, x, i, z, rock);
+            }
+        }
+
+        fill(h, types, offset, x, z, from, lo - 1, rock);
+    }
+
+    private void fill(Hunk<BlockData> h, byte[] types, int offset, int x, int z, int from, int to, BlockData b) {
+        if (from > to) {
+            return;
+        }
+
+        h.set(x, from, z, x, to, z, b);
+        Arrays.fill(types, offset + from, offset + to + 1, (byte) ColumnSpans.classify(b));
+    }
+
+    private void set(Hunk<BlockData> h, byte[] types, int offset, int x, int y, int z, BlockData b) {
+        h.set(x, y, z, b);
+        types[offset + y] = (byte) ColumnSpans.classify(b);
+    }
+
+    private static int index(int x, int z) {
+        return (z << 4) | x;
+    }
+
+    /**
+     * A column resolved ahead of placement
+     */
+    private static class TerrainColumn {
+        private int x;
+        private int z;
+        private int realX;
+        private int realZ;
+        private int b;
+        private int he;
+        private int hf;
+        private KList<BlockData> blocks;
+        private KList<BlockData> fblocks;
+        private BlockData rock;
+        private BlockData fluid;
+    }
 }
@@ -0,0 +1,212 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.engine.data.chunk;
+
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * A compact index of the solid, air and fluid runs in every column of a chunk. Each column is an
+ * int array of runs from the bottom up, a run packs its first y and its type, and lasts until the
+ * next run starts (or the top of the chunk). The generator passes write their changes in here as
+ * they carve, so later passes can find floors, ceilings and openings without rescanning blocks.
+ */
+public class ColumnSpans {
+    public static final int AIR = 0;
+    public static final int SOLID = 1;
+    public static final int FLUID = 2;
+    private static final int[] EMPTY = {AIR};
+    private final int height;
+    private final int[][] columns;
+
+    public ColumnSpans(int height) {
+        this.height = height;
+        this.columns = new int[256][];
+    }
+
+    public static int classify(BlockData b) {
+        if (b == null) {
+            return AIR;
+        }
+
+        Material m = b.getMaterial();
+
+        if (m.isAir()) {
+            return AIR;
+        }
+
+        return m == Material.WATER || m == Material.LAVA ? FLUID : SOLID;
+    }
+
+    public static int start(int run) {
+        return run >> 2;
+    }
+
+    public static int type(int run) {
+        return run & 3;
+    }
+
+    private static int pack(int start, int type) {
+        return (start << 2) | type;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Get the runs of a column, from the bottom up. Use {@link #start(int)}, {@link #type(int)} and
+     * {@link #end(int[], int)} to read them, do not modify the array.
+     */
+    public int[] getRuns(int x, int z) {
+        int[] runs = columns[index(x, z)];
+        return runs == null ? EMPTY : runs;
+    }
+
+    /**
+     * The last y (inclusive) of the run at index i
+     */
+    public int end(int[] runs, int i) {
+        return i + 1 < runs.length ? start(runs[i + 1]) - 1 : height - 1;
+    }
+
+    public int getType(int x, int y, int z) {
+        if (y < 0 || y >= height) {
+            return AIR;
+        }
+
+        return typeAt(getRuns(x, z), y);
+    }
+
+    /**
+     * Find the highest y at or below the given y which is not air
+     *
+     * @return the y or -1 if the column is empty below
+     */
+    public int getHighestNonAir(int x, int y, int z) {
+        int[] runs = getRuns(x, z);
+
+        for (int i = runs.length - 1; i >= 0; i--) {
+            if (start(runs[i]) > y || type(runs[i]) == AIR) {
+                continue;
+            }
+
+            return Math.min(y, end(runs, i));
+        }
+
+        return -1;
+    }
+
+    /**
+     * Replace a whole column with the given types, indexed by y from the offset on
+     */
+    public void setColumn(int x, int z, byte[] types, int offset) {
+        int count = 0;
+        int[] runs = new int[8];
+
+        for (int y = 0; y < height; y++) {
+            int type = types[offset + y];
+
+            if (count == 0 || type(runs[count - 1]) != type) {
+                if (count == runs.length) {
+                    int[] grow = new int[runs.length * 2];
+                    System.arraycopy(runs, 0, grow, 0, count);
+                    runs = grow;
+                }
+
+                runs[count++] = pack(y, type);
+            }
+        }
+
+        int[] exact = new int[count];
+        System.arraycopy(runs, 0, exact, 0, count);
+        columns[index(x, z)] = exact;
+    }
+
+    public void set(int x, int y, int z, BlockData b) {
+        set(x, z, y, y, classify(b));
+    }
+
+    /**
+     * Mark the blocks from (inclusive) to (inclusive) of a column as the given type
+     */
+    public void set(int x, int z, int from, int to, int type) {
+        from = Math.max(from, 0);
+        to = Math.min(to, height - 1);
+
+        if (from > to) {
+            return;
+        }
+
+        int c = index(x, z);
+        int[] runs = columns[c] == null ? EMPTY : columns[c];
+
+        if (runs.length == 1 && type(runs[0]) == type) {
+            return;
+        }
+
+        int[] out = new int[runs.length + 2];
+        int count = 0;
+
+        for (int r : runs) {
+            if (start(r) < from) {
+                count = add(out, count, r);
+            }
+        }
+
+        count = add(out, count, pack(from, type));
+
+        if (to + 1 < height) {
+            count = add(out, count, pack(to + 1, typeAt(runs, to + 1)));
+        }
+
+        for (int r : runs) {
+            if (start(r) > to + 1) {
+                count = add(out, count, r);
+            }
+        }
+
+        int[] exact = new int[count];
+        System.arraycopy(out, 0, exact, 0, count);
+        columns[c] = exact;
+    }
+
+    private static int add(int[] out, int count, int run) {
+        if (count > 0 && type(out[count - 1]) == type(run)) {
+            return count;
+        }
+
+        out[count] = run;
+        return count + 1;
+    }
+
+    private static int typeAt(int[] runs, int y) {
+        for (int i = runs.length - 1; i >= 0; i--) {
+            if (start(runs[i]) <= y) {
+                return type(runs[i]);
+            }
+        }
+
+        return AIR;
+    }
+
+    private static int index(int x, int z) {
+        return ((z & 15) << 4) | (x & 15);
+    }
+}
@@ -25,6 +25,7 @@ import com.volmit.iris.engine.object.decoration.IrisDecorationPart;
 import com.volmit.iris.engine.object.decoration.IrisDecorator;
 import com.volmit.iris.util.documentation.BlockCoordinates;
 import com.volmit.iris.util.hunk.Hunk;
+import com.volmit.iris.util.math.HashRNG;
 import org.bukkit.block.data.BlockData;
 
 public class IrisCeilingDecorator extends IrisEngineDecorator {
@@ -43,7 +44,7 @@ public class IrisCeilingDecorator extends IrisEngineDecorator {
                     data.set(x, height, z, decorator.getBlockData100(biome, getRng(), realX, height, realZ, getData()));
                 }
             } else {
-                int stack = decorator.getHeight(getRng().nextParallelRNG(Cache.key(realX, realZ)), realX, realZ, getData());
+                int stack = decorator.getHeight(HashRNG.parallel(getRng().getSeed(), Cache.key(realX, realZ)), realX, realZ, getData());
                 if (decorator.isScaleStack()) {
                     stack = (int) Math.ceil((double) max * ((double) stack / 100));
                 } else stack = Math.min(max, stack);
@@ -26,7 +26,7 @@ import com.volmit.iris.engine.framework.EngineDecorator;
 import com.volmit.iris.engine.object.biome.IrisBiome;
 import com.volmit.iris.engine.object.decoration.IrisDecorationPart;
 import com.volmit.iris.engine.object.decoration.IrisDecorator;
-import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.math.HashRNG;
 import com.volmit.iris.util.math.RNG;
 import lombok.Getter;
 
@@ -44,25 +44,36 @@ public abstract class IrisEngineDecorator extends EngineAssignedComponent implem
         this.rng = new RNG(getSeed() + 29356788 - (part.ordinal() * 10439677L));
     }
 
+    /**
+     * Picks the decorator for a column from the biome's precomputed table for this part. Every
+     * candidate gets its chance check and one of the decorators which passed is picked uniformly,
+     * seeded by the column, exactly as before the table existed.
+     */
     protected IrisDecorator getDecorator(IrisBiome biome, double realX, double realZ) {
-        KList<IrisDecorator> v = new KList<>();
-        RNG rng = new RNG(Cache.key((int) realX, (int) realZ));
+        IrisDecorator[] v = biome.getDecorators(part);
 
-        for (IrisDecorator i : biome.getDecorators()) {
+        if (v.length == 0) {
+            return null;
+        }
+
+        IrisDecorator[] passed = new IrisDecorator[v.length];
+        int count = 0;
+
+        for (IrisDecorator i : v) {
             try {
-                if (i.getPartOf().equals(part) && i.getBlockData(biome, this.rng, realX, realZ, getData()) != null) {
-                    v.add(i);
+                if (i.getBlockData(biome, this.rng, realX, realZ, getData()) != null) {
+                    passed[count++] = i;
                 }
             } catch (Throwable e) {
                 Iris.reportError(e);
-                Iris.error("PART OF: " + biome.getLoadFile().getAbsolutePath() + " HAS AN INVALID DECORATOR near 'partOf'!!!");
+                Iris.error("PART OF: " + (biome.getLoadFile() == null ? biome.getLoadKey() : biome.getLoadFile().getAbsolutePath()) + " HAS AN INVALID DECORATOR near 'partOf'!!!");
             }
         }
 
-        if (v.isNotEmpty()) {
-            return v.get(rng.nextInt(v.size()));
+        if (count == 0) {
+            return null;
         }
 
-        return null;
+        return passed[HashRNG.compatInt(Cache.key((int) realX, (int) realZ), count)];
     }
 }
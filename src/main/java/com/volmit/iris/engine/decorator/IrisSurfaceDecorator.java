@@ -27,6 +27,7 @@ import com.volmit.iris.engine.object.decoration.IrisDecorationPart;
 import com.volmit.iris.engine.object.decoration.IrisDecorator;
 import com.volmit.iris.util.documentation.BlockCoordinates;
 import com.volmit.iris.util.hunk.Hunk;
+import com.volmit.iris.util.math.HashRNG;
 import org.bukkit.block.data.Bisected;
 import org.bukkit.block.data.BlockData;
 
@@ -76,7 +77,7 @@ public class IrisSurfaceDecorator extends IrisEngineDecorator {
                     max = getDimension().getFluidHeight();
                 }
 
-                int stack = decorator.getHeight(getRng().nextParallelRNG(Cache.key(realX, realZ)), realX, realZ, getData());
+                int stack = decorator.getHeight(HashRNG.parallel(getRng().getSeed(), Cache.key(realX, realZ)), realX, realZ, getData());
                 if (decorator.isScaleStack()) {
                     int maxStack = max - height;
                     stack = (int) Math.ceil((double) maxStack * ((double) stack / 100));
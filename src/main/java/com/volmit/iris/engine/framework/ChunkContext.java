@@ -0,0 +1,191 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.engine.framework;
+
+import com.volmit.iris.engine.IrisComplex;
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
+import com.volmit.iris.engine.object.biome.IrisBiome;
+import com.volmit.iris.engine.object.regional.IrisRegion;
+import com.volmit.iris.util.stream.ProceduralStream;
+import lombok.Getter;
+
+/**
+ * State shared by every actuator and modifier while one chunk is generated. The x and z are the
+ * block coordinates of the chunk.
+ * <p>
+ * Column data (height, true height, biome, cave biome and region) is read from the complex once per
+ * chunk. Each plane is sampled for all 16x16 columns the first time any stage asks for it, so the
+ * later stages skip the stream caches entirely. Columns are indexed by their chunk relative x and z.
+ * <p>
+ * The stages never agreed on one set of coordinates, so a plane exists per coordinate space and each
+ * stage keeps reading the one it always did. The terrain actuators sample at the truncated zoomed
+ * coordinates ((int) engine.modifyX), the decorant actuator at the rounded zoomed coordinates and
+ * the modifiers at the raw block coordinates. The region is only read by the modifiers and is
+ * therefore sampled at raw coordinates. The biome actuator samples at the unrounded zoomed
+ * coordinates and reads the streams itself.
+ */
+public class ChunkContext {
+    private static final int TERRAIN = 0;
+    private static final int ROUNDED = 1;
+    private static final int RAW = 2;
+    @Getter
+    private final int x;
+    @Getter
+    private final int z;
+    @Getter
+    private final ColumnSpans spans;
+    private final Engine engine;
+    private final Plane<Double> height;
+    private final Plane<Integer> trueHeight;
+    private final Plane<IrisBiome> biome;
+    private final Plane<IrisBiome> caveBiome;
+    private final Plane<IrisRegion> region;
+    private final Plane<Double> roundedHeight;
+    private final Plane<IrisBiome> roundedBiome;
+    private final Plane<IrisBiome> roundedCaveBiome;
+    private final Plane<Double> rawHeight;
+    private final Plane<IrisBiome> rawBiome;
+    private final Plane<IrisBiome> rawCaveBiome;
+
+    public ChunkContext(Engine engine, int x, int z, int height) {
+        IrisComplex complex = engine.getComplex();
+        this.engine = engine;
+        this.x = x;
+        this.z = z;
+        this.spans = new ColumnSpans(height);
+        this.height = new Plane<>(complex.getHeightStream(), TERRAIN);
+        this.trueHeight = new Plane<>(complex.getTrueHeightStream(), TERRAIN);
+        this.biome = new Plane<>(complex.getTrueBiomeStream(), TERRAIN);
+        this.caveBiome = new Plane<>(complex.getCaveBiomeStream(), TERRAIN);
+        this.region = new Plane<>(complex.getRegionStream(), RAW);
+        this.roundedHeight = new Plane<>(complex.getHeightStream(), ROUNDED);
+        this.roundedBiome = new Plane<>(complex.getTrueBiomeStream(), ROUNDED);
+        this.roundedCaveBiome = new Plane<>(complex.getCaveBiomeStream(), ROUNDED);
+        this.rawHeight = new Plane<>(complex.getHeightStream(), RAW);
+        this.rawBiome = new Plane<>(complex.getTrueBiomeStream(), RAW);
+        this.rawCaveBiome = new Plane<>(complex.getCaveBiomeStream(), RAW);
+    }
+
+    public double getHeight(int x, int z) {
+        return height.get(this, x, z);
+    }
+
+    public int getTrueHeight(int x, int z) {
+        return trueHeight.get(this, x, z);
+    }
+
+    public IrisBiome getBiome(int x, int z) {
+        return biome.get(this, x, z);
+    }
+
+    public IrisBiome getCaveBiome(int x, int z) {
+        return caveBiome.get(this, x, z);
+    }
+
+    public IrisRegion getRegion(int x, int z) {
+        return region.get(this, x, z);
+    }
+
+    public double getRoundedHeight(int x, int z) {
+        return roundedHeight.get(this, x, z);
+    }
+
+    public IrisBiome getRoundedBiome(int x, int z) {
+        return roundedBiome.get(this, x, z);
+    }
+
+    public IrisBiome getRoundedCaveBiome(int x, int z) {
+        return roundedCaveBiome.get(this, x, z);
+    }
+
+    public double getRawHeight(int x, int z) {
+        return rawHeight.get(this, x, z);
+    }
+
+    public IrisBiome getRawBiome(int x, int z) {
+        return rawBiome.get(this, x, z);
+    }
+
+    public IrisBiome getRawCaveBiome(int x, int z) {
+        return rawCaveBiome.get(this, x, z);
+    }
+
+    /**
+     * The fluid height is a dimension wide constant in this engine, so it is not materialized per column
+     */
+    public double getFluidHeight() {
+        return engine.getComplex().getFluidHeight();
+    }
+
+    private int realX(int x, int space) {
+        return switch (space) {
+            case RAW -> this.x + x;
+            case ROUNDED -> (int) Math.round(engine.modifyX(this.x + x));
+            default -> (int) engine.modifyX(this.x + x);
+        };
+    }
+
+    private int realZ(int z, int space) {
+        return switch (space) {
+            case RAW -> this.z + z;
+            case ROUNDED -> (int) Math.round(engine.modifyZ(this.z + z));
+            default -> (int) engine.modifyZ(this.z + z);
+        };
+    }
+
+    private static class Plane<T> {
+        private final ProceduralStream<T> stream;
+        private final int space;
+        private volatile Object[] values;
+
+        private Plane(ProceduralStream<T> stream, int space) {
+            this.stream = stream;
+            this.space = space;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T get(ChunkContext context, int x, int z) {
+            Object[] v = values;
+
+            if (v == null) {
+                v = materialize(context);
+            }
+
+            return (T) v[((z & 15) << 4) | (x & 15)];
+        }
+
+        private synchronized Object[] materialize(ChunkContext context) {
+            if (values != null) {
+                return values;
+            }
+
+            Object[] v = new Object[256];
+
+            for (int i = 0; i < 16; i++) {
+                int rx = context.realX(i, space);
+
+                for (int j = 0; j < 16; j++) {
+                    v[(j << 4) | i] = stream.get(rx, context.realZ(j, space));
+                }
+            }
+
+            values = v;
+            return v;
+        }
+    }
+}
@@ -22,8 +22,8 @@ import com.volmit.iris.Iris;
 import com.volmit.iris.core.gui.components.RenderType;
 import com.volmit.iris.core.gui.components.Renderer;
 import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.IrisChunkUpdater;
 import com.volmit.iris.engine.IrisComplex;
-import com.volmit.iris.engine.data.cache.Cache;
 import com.volmit.iris.engine.mantle.EngineMantle;
 import com.volmit.iris.engine.object.basic.IrisColor;
 import com.volmit.iris.engine.object.basic.IrisPosition;
@@ -47,7 +47,6 @@ import com.volmit.iris.util.documentation.BlockCoordinates;
 import com.volmit.iris.util.documentation.ChunkCoordinates;
 import com.volmit.iris.util.function.Function2;
 import com.volmit.iris.util.hunk.Hunk;
-import com.volmit.iris.util.mantle.MantleFlag;
 import com.volmit.iris.util.math.BlockPosition;
 import com.volmit.iris.util.math.M;
 import com.volmit.iris.util.math.RNG;
@@ -55,7 +54,6 @@ import com.volmit.iris.util.parallel.BurstExecutor;
 import com.volmit.iris.util.parallel.MultiBurst;
 import com.volmit.iris.util.scheduling.ChronoLatch;
 import com.volmit.iris.util.scheduling.J;
-import com.volmit.iris.util.scheduling.PrecisionStopwatch;
 import com.volmit.iris.util.stream.ProceduralStream;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
@@ -82,6 +80,11 @@ public interface Engine extends DataProvider, Fallible, LootProvider, BlockUpdat
 
     void printMetrics(CommandSender sender);
 
+    /**
+     * Clear the latency histograms and the stream cache counters, so the next metrics only cover what follows
+     */
+    void resetMetrics();
+
     EngineMantle getMantle();
 
     void recycle();
@@ -232,26 +235,19 @@ public interface Engine extends DataProvider, Fallible, LootProvider, BlockUpdat
     @ChunkCoordinates
     @Override
     default void updateChunk(Chunk c) {
-        PrecisionStopwatch p = PrecisionStopwatch.start();
-        getMantle().getMantle().iterateChunk(c.getX(), c.getZ(), Boolean.class, (x, y, z, v) -> {
-            if (v != null && v) {
-                int vx = x & 15;
-                int vz = z & 15;
-                update(x, y, z, c, new RNG(Cache.key(c.getX(), c.getZ())));
-
-                if (vx > 0 && vx < 15 && vz > 0 && vz < 15) {
-                    updateLighting(x, y, z, c);
-                }
-            }
-        }, MantleFlag.UPDATE);
-        getMetrics().getUpdates().put(p.getMilliseconds());
+        getChunkUpdater().queue(c);
     }
 
     @BlockCoordinates
     default void updateLighting(int x, int y, int z, Chunk c) {
         Block block = c.getBlock(x, y, z);
-        BlockData data = block.getBlockData();
+        updateLighting(block, block.getBlockData());
+    }
 
+    /**
+     * Relight a block that was already fetched, does nothing unless the block data is lit
+     */
+    default void updateLighting(Block block, BlockData data) {
         if (B.isLit(data)) {
             try {
                 block.setType(Material.AIR, false);
@@ -265,11 +261,27 @@ public interface Engine extends DataProvider, Fallible, LootProvider, BlockUpdat
     @BlockCoordinates
     @Override
     default void update(int x, int y, int z, Chunk c, RNG rf) {
+        update(x, y, z, c, rf.getSeed(), false);
+    }
+
+    /**
+     * Update a block (loot & optionally lighting) while only fetching it once. The loot rng is only created
+     * for storage blocks and is seeded by seed + position, matching the old parallel rng chain.
+     *
+     * @param x        the chunk relative x
+     * @param y        the y
+     * @param z        the chunk relative z
+     * @param c        the chunk
+     * @param seed     the chunk's update seed
+     * @param lighting true to also relight lit blocks
+     */
+    @BlockCoordinates
+    default void update(int x, int y, int z, Chunk c, long seed, boolean lighting) {
         Block block = c.getBlock(x, y, z);
         BlockData data = block.getBlockData();
 
         if (B.isStorage(data)) {
-            RNG rx = rf.nextParallelRNG(BlockPosition.toLong(x, y, z));
+            RNG rx = new RNG(seed + BlockPosition.toLong(x, y, z));
             InventorySlotType slot = null;
 
             if (B.isStorageChest(data)) {
@@ -287,6 +299,10 @@ public interface Engine extends DataProvider, Fallible, LootProvider, BlockUpdat
                 }
             }
         }
+
+        if (lighting) {
+            updateLighting(block, data);
+        }
     }
 
     @Override
@@ -398,6 +414,8 @@ public interface Engine extends DataProvider, Fallible, LootProvider, BlockUpdat
 
     EngineEffects getEffects();
 
+    IrisChunkUpdater getChunkUpdater();
+
     default MultiBurst burst() {
         return getTarget().getBurster();
     }
@@ -23,5 +23,5 @@ import com.volmit.iris.util.hunk.Hunk;
 
 public interface EngineActuator<O> extends EngineComponent {
     @BlockCoordinates
-    void actuate(int x, int z, Hunk<O> output, boolean multicore);
+    void actuate(int x, int z, Hunk<O> output, boolean multicore, ChunkContext context);
 }
@@ -27,11 +27,11 @@ public abstract class EngineAssignedModifier<T> extends EngineAssignedComponent
     }
 
     @BlockCoordinates
-    public abstract void onModify(int x, int z, Hunk<T> output, boolean multicore);
+    public abstract void onModify(int x, int z, Hunk<T> output, boolean multicore, ChunkContext context);
 
     @BlockCoordinates
     @Override
-    public void modify(int x, int z, Hunk<T> output, boolean multicore) {
-        onModify(x, z, output, multicore);
+    public void modify(int x, int z, Hunk<T> output, boolean multicore, ChunkContext context) {
+        onModify(x, z, output, multicore, context);
     }
 }
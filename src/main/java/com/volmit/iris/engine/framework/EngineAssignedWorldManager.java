@@ -49,6 +49,13 @@ public abstract class EngineAssignedWorldManager extends EngineAssignedComponent
 
     public EngineAssignedWorldManager(Engine engine) {
         super(engine, "World");
+
+        // Standalone headless runners have no plugin instance and nothing to tick
+        if (Iris.instance == null) {
+            taskId = -1;
+            return;
+        }
+
         Iris.instance.registerListener(this);
         taskId = Bukkit.getScheduler().scheduleSyncRepeatingTask(Iris.instance, this::onTick, 0, 0);
     }
@@ -125,6 +132,11 @@ public abstract class EngineAssignedWorldManager extends EngineAssignedComponent
     @Override
     public void close() {
         super.close();
+
+        if (taskId == -1) {
+            return;
+        }
+
         Iris.instance.unregisterListener(this);
         Bukkit.getScheduler().cancelTask(taskId);
     }
@@ -18,51 +18,84 @@
 
 package com.volmit.iris.engine.framework;
 
-import com.volmit.iris.util.atomics.AtomicRollingSequence;
+import com.volmit.iris.util.atomics.AtomicRollingHistogram;
 import com.volmit.iris.util.collection.KMap;
 import lombok.Data;
 
 @Data
 public class EngineMetrics {
-    private final AtomicRollingSequence total;
-    private final AtomicRollingSequence updates;
-    private final AtomicRollingSequence terrain;
-    private final AtomicRollingSequence biome;
-    private final AtomicRollingSequence parallax;
-    private final AtomicRollingSequence parallaxInsert;
-    private final AtomicRollingSequence post;
-    private final AtomicRollingSequence decoration;
-    private final AtomicRollingSequence cave;
-    private final AtomicRollingSequence ravine;
-    private final AtomicRollingSequence deposit;
+    private final int mem;
+    private final AtomicRollingHistogram total;
+    private final AtomicRollingHistogram updates;
+    private final AtomicRollingHistogram terrain;
+    private final AtomicRollingHistogram biome;
+    private final AtomicRollingHistogram parallax;
+    private final AtomicRollingHistogram parallaxInsert;
+    private final AtomicRollingHistogram post;
+    private final AtomicRollingHistogram decoration;
+    private final AtomicRollingHistogram cave;
+    private final AtomicRollingHistogram ravine;
+    private final AtomicRollingHistogram deposit;
+    private final KMap<String, AtomicRollingHistogram> stages;
+    private final KMap<String, AtomicRollingHistogram> components;
 
     public EngineMetrics(int mem) {
-        this.total = new AtomicRollingSequence(mem);
-        this.terrain = new AtomicRollingSequence(mem);
-        this.biome = new AtomicRollingSequence(mem);
-        this.parallax = new AtomicRollingSequence(mem);
-        this.parallaxInsert = new AtomicRollingSequence(mem);
-        this.post = new AtomicRollingSequence(mem);
-        this.decoration = new AtomicRollingSequence(mem);
-        this.updates = new AtomicRollingSequence(mem);
-        this.cave = new AtomicRollingSequence(mem);
-        this.ravine = new AtomicRollingSequence(mem);
-        this.deposit = new AtomicRollingSequence(mem);
+        this.mem = mem;
+        this.total = new AtomicRollingHistogram(mem);
+        this.terrain = new AtomicRollingHistogram(mem);
+        this.biome = new AtomicRollingHistogram(mem);
+        this.parallax = new AtomicRollingHistogram(mem);
+        this.parallaxInsert = new AtomicRollingHistogram(mem);
+        this.post = new AtomicRollingHistogram(mem);
+        this.decoration = new AtomicRollingHistogram(mem);
+        this.updates = new AtomicRollingHistogram(mem);
+        this.cave = new AtomicRollingHistogram(mem);
+        this.ravine = new AtomicRollingHistogram(mem);
+        this.deposit = new AtomicRollingHistogram(mem);
+        this.components = new KMap<>();
+        this.stages = new KMap<>();
+        stages.put("total", total);
+        stages.put("terrain", terrain);
+        stages.put("biome", biome);
+        stages.put("parallax", parallax);
+        stages.put("parallax.insert", parallaxInsert);
+        stages.put("post", post);
+        stages.put("decoration", decoration);
+        stages.put("updates", updates);
+        stages.put("cave", cave);
+        stages.put("ravine", ravine);
+        stages.put("deposit", deposit);
+    }
+
+    /**
+     * Get (or create) the timings of a mantle component
+     *
+     * @param name the component name
+     * @return the timings
+     */
+    public AtomicRollingHistogram getComponent(String name) {
+        return components.computeIfAbsent(name, (k) -> new AtomicRollingHistogram(mem));
+    }
+
+    /**
+     * Clear the latency histograms of every stage and component
+     */
+    public void reset() {
+        for (AtomicRollingHistogram i : stages.values()) {
+            i.getHistogram().reset();
+        }
+
+        for (AtomicRollingHistogram i : components.values()) {
+            i.getHistogram().reset();
+        }
     }
 
     public KMap<String, Double> pull() {
         KMap<String, Double> v = new KMap<>();
-        v.put("total", total.getAverage());
-        v.put("terrain", terrain.getAverage());
-        v.put("biome", biome.getAverage());
-        v.put("parallax", parallax.getAverage());
-        v.put("parallax.insert", parallaxInsert.getAverage());
-        v.put("post", post.getAverage());
-        v.put("decoration", decoration.getAverage());
-        v.put("updates", updates.getAverage());
-        v.put("cave", cave.getAverage());
-        v.put("ravine", ravine.getAverage());
-        v.put("deposit", deposit.getAverage());
+
+        for (String i : stages.keySet()) {
+            v.put(i, stages.get(i).getAverage());
+        }
 
         return v;
     }
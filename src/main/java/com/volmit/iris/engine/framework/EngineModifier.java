@@ -23,5 +23,5 @@ import com.volmit.iris.util.hunk.Hunk;
 
 public interface EngineModifier<T> extends EngineComponent {
     @BlockCoordinates
-    void modify(int x, int z, Hunk<T> t, boolean multicore);
+    void modify(int x, int z, Hunk<T> t, boolean multicore, ChunkContext context);
 }
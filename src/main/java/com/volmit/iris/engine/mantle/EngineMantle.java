@@ -182,6 +182,11 @@ public interface EngineMantle extends IObjectPlacer {
     }
 
 
+    /**
+     * Generate the mantle layers around a chunk. Layers are claimed before they are generated
+     * and only raised once they and their post tasks are done. Layers claimed by another thread
+     * (a neighbouring chunk or the prefetcher) are waited for, so the matter is complete when this returns.
+     */
     @ChunkCoordinates
     default void generateMatter(int x, int z) {
         if (!getEngine().getDimension().isUseMantle()) {
@@ -190,6 +195,8 @@ public interface EngineMantle extends IObjectPlacer {
 
         PrecisionStopwatch p = PrecisionStopwatch.start();
         List<Runnable> post = Collections.synchronizedList(new KList<>());
+        List<Runnable> claimed = Collections.synchronizedList(new KList<>());
+        List<Runnable> pending = Collections.synchronizedList(new KList<>());
         Consumer<Runnable> c = post::add;
         int s = getRealRadius();
         BurstExecutor burst = burst().burst();
@@ -199,17 +206,34 @@ public interface EngineMantle extends IObjectPlacer {
             for (int j = -s; j <= s; j++) {
                 int zz = j + z;
                 burst.queue(() -> {
-                    getComponents().forEach((f) -> generateMantleComponent(xx, zz, f, c));
+                    getComponents().forEach((f) -> {
+                        if (getMantle().claimFlag(xx, zz, f.getFlag())) {
+                            claimed.add(() -> getMantle().completeFlag(xx, zz, f.getFlag()));
+                            generateMantleComponent(xx, zz, f, c);
+                        } else {
+                            pending.add(() -> getMantle().awaitFlag(xx, zz, f.getFlag()));
+                        }
+                    });
                 });
             }
         }
 
-        burst.complete();
-        burst().burst(post);
+        try {
+            burst.complete();
+            burst().burst(post);
+        } finally {
+            // Raise everything this call claimed before waiting on others, so two threads never wait on each other
+            claimed.forEach(Runnable::run);
+        }
+
+        pending.forEach(Runnable::run);
+        getEngine().getMetrics().getParallax().put(p.getMilliseconds());
     }
 
     default void generateMantleComponent(int x, int z, MantleComponent c, Consumer<Runnable> post) {
-        getMantle().raiseFlag(x, z, c.getFlag(), () -> c.generateLayer(x, z, post));
+        PrecisionStopwatch p = PrecisionStopwatch.start();
+        c.generateLayer(x, z, post);
+        getEngine().getMetrics().getComponent(c.getFlag().name().toLowerCase()).put(p.getMilliseconds());
     }
 
     @ChunkCoordinates
@@ -218,7 +242,9 @@ public interface EngineMantle extends IObjectPlacer {
             return;
         }
 
+        PrecisionStopwatch p = PrecisionStopwatch.start();
         getMantle().iterateChunk(x, z, t, blocks::set);
+        getEngine().getMetrics().getParallaxInsert().put(p.getMilliseconds());
     }
 
     @BlockCoordinates
@@ -0,0 +1,99 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.engine.mantle;
+
+import com.volmit.iris.core.project.loader.IrisData;
+import com.volmit.iris.engine.object.common.IObjectPlacer;
+import com.volmit.iris.engine.object.tile.TileData;
+import com.volmit.iris.util.data.B;
+import com.volmit.iris.util.mantle.MantleBatch;
+import lombok.Getter;
+import org.bukkit.block.TileState;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * Places objects into the mantle through a {@link MantleBatch}. Writes are buffered until
+ * the batch is committed, reads look at the pending writes first so melding and smart bore
+ * still see the blocks this placement already made.
+ */
+public class MantleBatchPlacer implements IObjectPlacer {
+    private final EngineMantle mantle;
+    @Getter
+    private final MantleBatch batch;
+
+    public MantleBatchPlacer(EngineMantle mantle) {
+        this.mantle = mantle;
+        this.batch = new MantleBatch(mantle.getMantle());
+    }
+
+    public void commit() {
+        batch.commit();
+    }
+
+    @Override
+    public int getHighest(int x, int z, IrisData data) {
+        return mantle.getHighest(x, z, data);
+    }
+
+    @Override
+    public int getHighest(int x, int z, IrisData data, boolean ignoreFluid) {
+        return mantle.getHighest(x, z, data, ignoreFluid);
+    }
+
+    @Override
+    public void set(int x, int y, int z, BlockData d) {
+        batch.set(x, y, z, d == null ? EngineMantle.AIR : d);
+    }
+
+    @Override
+    public BlockData get(int x, int y, int z) {
+        BlockData pending = batch.get(x, y, z, BlockData.class);
+        return pending != null ? pending : mantle.get(x, y, z);
+    }
+
+    @Override
+    public boolean isPreventingDecay() {
+        return mantle.isPreventingDecay();
+    }
+
+    @Override
+    public boolean isSolid(int x, int y, int z) {
+        return B.isSolid(get(x, y, z));
+    }
+
+    @Override
+    public boolean isUnderwater(int x, int z) {
+        return mantle.isUnderwater(x, z);
+    }
+
+    @Override
+    public int getFluidHeight() {
+        return mantle.getFluidHeight();
+    }
+
+    @Override
+    public boolean isDebugSmartBore() {
+        return mantle.isDebugSmartBore();
+    }
+
+    @Override
+    public void setTile(int xx, int yy, int zz, TileData<? extends TileState> tile) {
+        mantle.setTile(xx, yy, zz, tile);
+    }
+}
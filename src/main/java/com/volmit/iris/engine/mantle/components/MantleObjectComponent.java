@@ -21,6 +21,7 @@ package com.volmit.iris.engine.mantle.components;
 import com.volmit.iris.Iris;
 import com.volmit.iris.engine.data.cache.Cache;
 import com.volmit.iris.engine.mantle.EngineMantle;
+import com.volmit.iris.engine.mantle.MantleBatchPlacer;
 import com.volmit.iris.engine.mantle.IrisMantleComponent;
 import com.volmit.iris.engine.object.biome.IrisBiome;
 import com.volmit.iris.engine.object.feature.IrisFeature;
@@ -94,9 +95,11 @@ public class MantleObjectComponent extends IrisMantleComponent {
             int id = rng.i(0, Integer.MAX_VALUE);
 
             Runnable r = () -> {
-                int h = v.place(xx, -1, zz, getEngineMantle(), objectPlacement, rng,
-                        (b) -> getMantle().set(b.getX(), b.getY(), b.getZ(),
+                MantleBatchPlacer placer = new MantleBatchPlacer(getEngineMantle());
+                int h = v.place(xx, -1, zz, placer, objectPlacement, rng,
+                        (b) -> placer.getBatch().set(b.getX(), b.getY(), b.getZ(),
                                 v.getLoadKey() + "@" + id), null, getData());
+                placer.commit();
 
                 if (objectPlacement.usesFeatures()) {
                     if (objectPlacement.isVacuum()) {
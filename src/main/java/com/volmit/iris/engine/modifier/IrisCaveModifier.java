@@ -18,6 +18,11 @@
 
 package com.volmit.iris.engine.modifier;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.volmit.iris.core.IrisSettings;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedModifier;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -25,6 +30,8 @@ import com.volmit.iris.engine.object.carve.IrisCaveLayer;
 import com.volmit.iris.engine.object.common.CaveResult;
 import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.data.B;
+import com.volmit.iris.util.documentation.BlockCoordinates;
+import com.volmit.iris.util.documentation.ChunkCoordinates;
 import com.volmit.iris.util.hunk.Hunk;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.FastNoiseDouble;
@@ -41,15 +48,25 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
     private static final KList<CaveResult> EMPTY = new KList<>();
     private final FastNoiseDouble gg;
     private final RNG rng;
+    private final ConcurrentLinkedHashMap<Long, int[]> profiles;
 
     public IrisCaveModifier(Engine engine) {
         super(engine, "Cave");
         rng = new RNG(engine.getWorld().seed() + 28934555);
         gg = new FastNoiseDouble(324895L * rng.nextParallelRNG(49678).imax());
+        gg.setNoiseType(FastNoiseDouble.NoiseType.Cellular);
+        gg.setCellularReturnType(FastNoiseDouble.CellularReturnType.Distance2Sub);
+        gg.setCellularDistanceFunction(FastNoiseDouble.CellularDistanceFunction.Natural);
+        int size = Math.max(64, IrisSettings.get().getCache().getComplexCacheSize() >> 8);
+        profiles = new ConcurrentLinkedHashMap.Builder<Long, int[]>()
+                .initialCapacity(size)
+                .maximumWeightedCapacity(size)
+                .concurrencyLevel(32)
+                .build();
     }
 
     @Override
-    public void onModify(int x, int z, Hunk<BlockData> a, boolean multicore) {
+    public void onModify(int x, int z, Hunk<BlockData> a, boolean multicore, ChunkContext context) {
         if (!getDimension().isCaves()) {
             return;
         }
@@ -59,25 +76,27 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
             BurstExecutor e = getEngine().burst().burst(a.getWidth());
             for (int i = 0; i < a.getWidth(); i++) {
                 int finalI = i;
-                e.queue(() -> modifySliver(x, z, finalI, a));
+                e.queue(() -> modifySliver(x, z, finalI, a, context));
             }
 
             e.complete();
         } else {
             for (int i = 0; i < a.getWidth(); i++) {
-                modifySliver(x, z, i, a);
+                modifySliver(x, z, i, a, context);
             }
         }
 
         getEngine().getMetrics().getCave().put(p.getMilliseconds());
     }
 
-    public void modifySliver(int x, int z, int finalI, Hunk<BlockData> a) {
+    public void modifySliver(int x, int z, int finalI, Hunk<BlockData> a, ChunkContext context) {
+        ColumnSpans spans = context.getSpans();
+
         for (int j = 0; j < a.getDepth(); j++) {
-            KList<CaveResult> caves = genCaves(x + finalI, z + j, finalI, j, a);
-            int he = (int) Math.round(getComplex().getHeightStream().get(x + finalI, z + j));
+            KList<CaveResult> caves = genCaves(x + finalI, z + j, finalI, j, a, spans);
+            int he = (int) Math.round(context.getRawHeight(finalI, j));
             if (caves != null && caves.isNotEmpty()) {
-                IrisBiome cave = getComplex().getCaveBiomeStream().get(x + finalI, z + j);
+                IrisBiome cave = context.getRawCaveBiome(finalI, j);
 
                 if (cave == null) {
                     continue;
@@ -95,10 +114,12 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
 
                     for (int g = 0; g < floor.size(); g++) {
                         a.set(finalI, cl.getFloor() - g, j, floor.get(g));
+                        spans.set(finalI, cl.getFloor() - g, j, floor.get(g));
                     }
 
                     for (int g = ceiling.size() - 1; g > 0; g--) {
                         a.set(finalI, cl.getCeiling() + g, j, ceiling.get(g));
+                        spans.set(finalI, cl.getCeiling() + g, j, ceiling.get(g));
                     }
                 }
             }
@@ -109,26 +130,149 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
         return genCaves(wxx, wzz, 0, 0, null);
     }
 
+    /**
+     * Get the caves in a column. Without a hunk this only reads the column's cave profile, with a hunk
+     * the profile is carved into the hunk at x, z & the carved ranges are returned.
+     *
+     * @param wxx  the world x
+     * @param wzz  the world z
+     * @param x    the hunk x
+     * @param z    the hunk z
+     * @param data the hunk to carve or null
+     * @return the cave ranges
+     */
     public KList<CaveResult> genCaves(double wxx, double wzz, int x, int z, Hunk<BlockData> data) {
-        if (!getDimension().isCaves()) {
+        return genCaves(wxx, wzz, x, z, data, null);
+    }
+
+    /**
+     * Same as {@link #genCaves(double, double, int, int, Hunk)}, also recording every carved block
+     * in the given spans (if not null)
+     */
+    public KList<CaveResult> genCaves(double wxx, double wzz, int x, int z, Hunk<BlockData> data, ColumnSpans spans) {
+        if (!getDimension().isCaves() || getDimension().getCaveLayers().isEmpty()) {
             return EMPTY;
         }
 
-        KList<CaveResult> result = new KList<>();
-        gg.setNoiseType(FastNoiseDouble.NoiseType.Cellular);
-        gg.setCellularReturnType(FastNoiseDouble.CellularReturnType.Distance2Sub);
-        gg.setCellularDistanceFunction(FastNoiseDouble.CellularDistanceFunction.Natural);
+        int wx = (int) wxx;
+        int wz = (int) wzz;
+        int[] profile = getProfile(wx >> 4, wz >> 4);
+        int column = ((wz & 15) << 4) | (wx & 15);
+        KList<CaveResult> result = null;
 
         for (int i = 0; i < getDimension().getCaveLayers().size(); i++) {
-            IrisCaveLayer layer = getDimension().getCaveLayers().get(i);
-            generateCave(result, wxx, wzz, x, z, data, layer, i);
+            int index = ((i << 8) | column) * 3;
+            int caveHeight = profile[index];
+            int tLo = profile[index + 1];
+            int tHi = profile[index + 2];
+
+            if (tLo > tHi) {
+                continue;
+            }
+
+            CaveResult r = data == null
+                    ? (caveHeight - tHi >= 0 && caveHeight + tHi <= 255 ? new CaveResult(caveHeight - tHi, caveHeight + tHi) : null)
+                    : carveCave(x, z, data, spans, getDimension().getCaveLayers().get(i), caveHeight, tLo, tHi);
+
+            if (r != null) {
+                if (result == null) {
+                    result = new KList<>();
+                }
+
+                result.add(r);
+            }
+        }
+
+        return result == null ? EMPTY : result;
+    }
+
+    /**
+     * Get the cave profile of a chunk. The profile packs (caveHeight, minTunnel, maxTunnel) per layer
+     * per column, where the tunnel range is every tunnel height passing the cave's distance & surface checks.
+     * Computing it once per chunk lets the true height stream, the cave pass & the post pass share it.
+     *
+     * @param x the chunk x
+     * @param z the chunk z
+     * @return the profile
+     */
+    @ChunkCoordinates
+    public int[] getProfile(int x, int z) {
+        return profiles.computeIfAbsent(Cache.key(x, z), (k) -> computeProfile(x << 4, z << 4));
+    }
+
+    @BlockCoordinates
+    private int[] computeProfile(int x, int z) {
+        KList<IrisCaveLayer> layers = getDimension().getCaveLayers();
+        int[] profile = new int[layers.size() * 256 * 3];
+
+        for (int i = 0; i < layers.size(); i++) {
+            IrisCaveLayer layer = layers.get(i);
+
+            for (int j = 0; j < 16; j++) {
+                for (int k = 0; k < 16; k++) {
+                    computeColumn(profile, ((i << 8) | (k << 4) | j) * 3, x + j, z + k, layer, i);
+                }
+            }
         }
 
-        return result;
+        return profile;
     }
 
-    public void generateCave(KList<CaveResult> result, double wxx, double wzz, int x, int z, Hunk<BlockData> data, IrisCaveLayer layer, int seed) {
+    @BlockCoordinates
+    private void computeColumn(int[] profile, int index, double wxx, double wzz, IrisCaveLayer layer, int seed) {
+        profile[index + 1] = 1;
+        profile[index + 2] = 0;
+        double caveHeightNoise = layer.getVerticalSlope().get(rng, getData(), wxx, wzz);
+
+        if (caveHeightNoise > 259 || caveHeightNoise < -1) {
+            return;
+        }
+
         double scale = layer.getCaveZoom();
+        int surface = (int) Math.round(getComplex().getHeightStream().get(wxx, wzz));
+        double wx = wxx + layer.getHorizontalSlope().get(rng, getData(), wxx, wzz);
+        double wz = wzz + layer.getHorizontalSlope().get(rng, getData(), -wzz, -wxx);
+        double baseWidth = (14 * scale);
+        double distanceCheck = 0.0132 * baseWidth;
+        double distanceTake = 0.0022 * baseWidth;
+        double distance = (gg.GetCellular(((wx + (10000 * seed)) / layer.getCaveZoom()), ((wz - (10000 * seed)) / layer.getCaveZoom())) + 1D) / 2D;
+        int caveHeight = (int) Math.round(caveHeightNoise);
+        int tLo = Integer.MAX_VALUE;
+        int tHi = 0;
+
+        for (int tunnelHeight = 1; tunnelHeight <= baseWidth; tunnelHeight++) {
+            if (distance >= distanceCheck - (tunnelHeight * distanceTake)) {
+                break;
+            }
+
+            int pu = caveHeight + tunnelHeight;
+            int pd = caveHeight - tunnelHeight;
+
+            if (pd > surface + 1) {
+                continue;
+            }
+
+            if (!layer.isCanBreakSurface() && pu > surface - 3) {
+                continue;
+            }
+
+            if ((pu > 255 && pd > 255) || (pu < 0 && pd < 0)) {
+                continue;
+            }
+
+            tLo = Math.min(tLo, tunnelHeight);
+            tHi = tunnelHeight;
+        }
+
+        profile[index] = caveHeight;
+
+        if (tLo <= tHi) {
+            profile[index + 1] = tLo;
+            profile[index + 2] = tHi;
+        }
+    }
+
+    private CaveResult carveCave(int x, int z, Hunk<BlockData> data, ColumnSpans spans, IrisCaveLayer layer, int caveHeight, int tLo, int tHi) {
         Function<Integer, BlockData> fluid = (height) ->
         {
             if (!layer.getFluid().hasFluid(getData())) {
@@ -144,75 +288,37 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
             return CAVE_AIR;
         };
 
-        int surface = (int) Math.round(getComplex().getHeightStream().get(wxx, wzz));
-        double wx = wxx + layer.getHorizontalSlope().get(rng, getData(), wxx, wzz);
-        double wz = wzz + layer.getHorizontalSlope().get(rng, getData(), -wzz, -wxx);
-        double baseWidth = (14 * scale);
-        double distanceCheck = 0.0132 * baseWidth;
-        double distanceTake = 0.0022 * baseWidth;
-        double caveHeightNoise = layer.getVerticalSlope().get(rng, getData(), wxx, wzz);
-
-        if (caveHeightNoise > 259 || caveHeightNoise < -1) {
-            return;
-        }
-
         // TODO: WARNING HEIGHT
         int ceiling = -256;
         int floor = 512;
 
-        for (double tunnelHeight = 1; tunnelHeight <= baseWidth; tunnelHeight++) {
-            double distance = (gg.GetCellular(((wx + (10000 * seed)) / layer.getCaveZoom()), ((wz - (10000 * seed)) / layer.getCaveZoom())) + 1D) / 2D;
-            if (distance < distanceCheck - (tunnelHeight * distanceTake)) {
-                int caveHeight = (int) Math.round(caveHeightNoise);
-                int pu = (int) (caveHeight + tunnelHeight);
-                int pd = (int) (caveHeight - tunnelHeight);
+        for (int tunnelHeight = tLo; tunnelHeight <= tHi; tunnelHeight++) {
+            int pu = caveHeight + tunnelHeight;
+            int pd = caveHeight - tunnelHeight;
 
-                if (pd > surface + 1) {
-                    continue;
-                }
-
-                if (!layer.isCanBreakSurface() && pu > surface - 3) {
-                    continue;
-                }
-
-                if ((pu > 255 && pd > 255) || (pu < 0 && pd < 0)) {
-                    continue;
-                }
-
-                if (data == null) {
-                    ceiling = Math.max(pu, ceiling);
-                    floor = Math.min(pu, floor);
-                    ceiling = Math.max(pd, ceiling);
-                    floor = Math.min(pd, floor);
-
-                    if (tunnelHeight == 1) {
-                        ceiling = Math.max(caveHeight, ceiling);
-                        floor = Math.min(caveHeight, floor);
-                    }
-                } else {
-                    if (dig(x, pu, z, data, fluid)) {
-                        ceiling = Math.max(pu, ceiling);
-                        floor = Math.min(pu, floor);
-                    }
+            if (dig(x, pu, z, data, spans, fluid)) {
+                ceiling = Math.max(pu, ceiling);
+                floor = Math.min(pu, floor);
+            }
 
-                    if (dig(x, pd, z, data, fluid)) {
-                        ceiling = Math.max(pd, ceiling);
-                        floor = Math.min(pd, floor);
-                    }
+            if (dig(x, pd, z, data, spans, fluid)) {
+                ceiling = Math.max(pd, ceiling);
+                floor = Math.min(pd, floor);
+            }
 
-                    if (tunnelHeight == 1) {
-                        if (dig(x, caveHeight, z, data, fluid)) {
-                            ceiling = Math.max(caveHeight, ceiling);
-                            floor = Math.min(caveHeight, floor);
-                        }
-                    }
+            if (tunnelHeight == 1) {
+                if (dig(x, caveHeight, z, data, spans, fluid)) {
+                    ceiling = Math.max(caveHeight, ceiling);
+                    floor = Math.min(caveHeight, floor);
                 }
             }
         }
 
-        if (floor >= 0 && ceiling <= 255) {
-            result.add(new CaveResult(floor, ceiling));
+        if (floor >= 0 && ceiling <= 255 && floor <= ceiling) {
+            return new CaveResult(floor, ceiling);
         }
+
+        return null;
     }
 
     private Material mat(int x, int y, int z, Hunk<BlockData> data) {
@@ -226,6 +332,10 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
     }
 
     public boolean dig(int x, int y, int z, Hunk<BlockData> data, Function<Integer, BlockData> caveFluid) {
+        return dig(x, y, z, data, null, caveFluid);
+    }
+
+    public boolean dig(int x, int y, int z, Hunk<BlockData> data, ColumnSpans spans, Function<Integer, BlockData> caveFluid) {
         Material a = mat(x, y, z, data);
         Material c = mat(x, y + 1, z, data);
         Material d = mat(x, y + 2, z, data);
@@ -237,6 +347,12 @@ public class IrisCaveModifier extends EngineAssignedModifier<BlockData> {
         if (can(a) && canAir(c, b) && canAir(f, b) && canWater(d) && canWater(e)) {
             data.set(x, y, z, b);
             data.set(x, y + 1, z, b2);
+
+            if (spans != null) {
+                spans.set(x, y, z, b);
+                spans.set(x, y + 1, z, b2);
+            }
+
             return true;
         }
 
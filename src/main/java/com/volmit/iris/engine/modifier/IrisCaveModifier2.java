@@ -18,6 +18,7 @@
 
 package com.volmit.iris.engine.modifier;
 
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedModifier;
 import com.volmit.iris.engine.object.common.CaveResult;
@@ -44,7 +45,7 @@ public class IrisCaveModifier2 extends EngineAssignedModifier<BlockData> {
     }
 
     @Override
-    public void onModify(int x, int z, Hunk<BlockData> a, boolean multicore) {
+    public void onModify(int x, int z, Hunk<BlockData> a, boolean multicore, ChunkContext context) {
         if (!getDimension().isCaves()) {
             return;
         }
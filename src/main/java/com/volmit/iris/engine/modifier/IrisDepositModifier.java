@@ -18,6 +18,7 @@
 
 package com.volmit.iris.engine.modifier;
 
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedModifier;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -26,6 +27,7 @@ import com.volmit.iris.engine.object.objects.IrisObject;
 import com.volmit.iris.engine.object.regional.IrisRegion;
 import com.volmit.iris.util.data.HeightMap;
 import com.volmit.iris.util.hunk.Hunk;
+import com.volmit.iris.util.math.HashRNG;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.scheduling.PrecisionStopwatch;
 import org.bukkit.block.data.BlockData;
@@ -40,30 +42,30 @@ public class IrisDepositModifier extends EngineAssignedModifier<BlockData> {
     }
 
     @Override
-    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore) {
+    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore, ChunkContext context) {
         PrecisionStopwatch p = PrecisionStopwatch.start();
-        generateDeposits(rng, output, Math.floorDiv(x, 16), Math.floorDiv(z, 16));
+        generateDeposits(rng, output, Math.floorDiv(x, 16), Math.floorDiv(z, 16), context);
         getEngine().getMetrics().getDeposit().put(p.getMilliseconds());
     }
 
-    public void generateDeposits(RNG rx, Hunk<BlockData> terrain, int x, int z) {
-        RNG ro = rx.nextParallelRNG(x * x).nextParallelRNG(z * z);
-        IrisRegion region = getComplex().getRegionStream().get((x * 16) + 7, (z * 16) + 7);
-        IrisBiome biome = getComplex().getTrueBiomeStream().get((x * 16) + 7, (z * 16) + 7);
+    public void generateDeposits(RNG rx, Hunk<BlockData> terrain, int x, int z, ChunkContext context) {
+        RNG ro = new RNG(HashRNG.parallel(HashRNG.parallel(rx.getSeed(), x * x), z * z));
+        IrisRegion region = context.getRegion(7, 7);
+        IrisBiome biome = context.getRawBiome(7, 7);
 
         for (IrisDepositGenerator k : getDimension().getDeposits()) {
-            generate(k, terrain, ro, x, z, false);
+            generate(k, terrain, ro, x, z, false, null, context);
         }
 
         for (IrisDepositGenerator k : region.getDeposits()) {
             for (int l = 0; l < ro.i(k.getMinPerChunk(), k.getMaxPerChunk()); l++) {
-                generate(k, terrain, ro, x, z, false);
+                generate(k, terrain, ro, x, z, false, null, context);
             }
         }
 
         for (IrisDepositGenerator k : biome.getDeposits()) {
             for (int l = 0; l < ro.i(k.getMinPerChunk(), k.getMaxPerChunk()); l++) {
-                generate(k, terrain, ro, x, z, false);
+                generate(k, terrain, ro, x, z, false, null, context);
             }
         }
     }
@@ -72,7 +74,7 @@ public class IrisDepositModifier extends EngineAssignedModifier<BlockData> {
         generate(k, data, rng, cx, cz, safe, null);
     }
 
-    public void generate(IrisDepositGenerator k, Hunk<BlockData> data, RNG rng, int cx, int cz, boolean safe, HeightMap he) {
+    public void generate(IrisDepositGenerator k, Hunk<BlockData> data, RNG rng, int cx, int cz, boolean safe, HeightMap he, ChunkContext context) {
         for (int l = 0; l < rng.i(k.getMinPerChunk(), k.getMaxPerChunk()); l++) {
             IrisObject clump = k.getClump(rng, getData());
 
@@ -87,7 +89,7 @@ public class IrisDepositModifier extends EngineAssignedModifier<BlockData> {
             int x = rng.i(af, bf);
             int z = rng.i(af, bf);
             int height = (he != null ? he.getHeight((cx << 4) + x, (cz << 4) + z) : (int) (Math.round(
-                    getComplex().getHeightStream().get((cx << 4) + x, (cz << 4) + z)
+                    context.getRawHeight(x, z)
             ))) - 7;
 
             if (height <= 0) {
@@ -19,6 +19,8 @@
 package com.volmit.iris.engine.modifier;
 
 import com.volmit.iris.Iris;
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedModifier;
 import com.volmit.iris.engine.object.biome.IrisBiome;
@@ -46,14 +48,14 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
     }
 
     @Override
-    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore) {
+    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore, ChunkContext context) {
         PrecisionStopwatch p = PrecisionStopwatch.start();
         int i;
         AtomicInteger j = new AtomicInteger();
 
         for (i = 0; i < output.getWidth(); i++) {
             for (j.set(0); j.get() < output.getDepth(); j.getAndIncrement()) {
-                post(i, j.get(), output, i + x, j.get() + z);
+                post(i, j.get(), output, i + x, j.get() + z, context);
             }
         }
 
@@ -61,7 +63,8 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
     }
 
     @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
-    private void post(int currentPostX, int currentPostZ, Hunk<BlockData> currentData, int x, int z) {
+    private void post(int currentPostX, int currentPostZ, Hunk<BlockData> currentData, int x, int z, ChunkContext context) {
+        ColumnSpans spans = context.getSpans();
         int h = getEngine().getMantle().trueHeight(x, z);
         int ha = getEngine().getMantle().trueHeight(x + 1, z);
         int hb = getEngine().getMantle().trueHeight(x, z + 1);
@@ -81,13 +84,12 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
         g += hd < h - 1 ? 1 : 0;
 
         if (g == 4 && isAir(x, h - 1, z, currentPostX, currentPostZ, currentData)) {
-            setPostBlock(x, h, z, AIR, currentPostX, currentPostZ, currentData);
+            setPostBlock(x, h, z, AIR, currentPostX, currentPostZ, currentData, spans);
 
-            for (int i = h - 1; i > 0; i--) {
-                if (!isAir(x, i, z, currentPostX, currentPostZ, currentData)) {
-                    h = i;
-                    break;
-                }
+            int top = spans.getHighestNonAir(x, h - 1, z);
+
+            if (top > 0) {
+                h = top;
             }
         }
 
@@ -105,7 +107,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
 
             if ((b.getMaterial().isOccluding() && b.getMaterial().isSolid())) {
                 if (m.isSolid()) {
-                    setPostBlock(x, h, z, b, currentPostX, currentPostZ, currentData);
+                    setPostBlock(x, h, z, b, currentPostX, currentPostZ, currentData, spans);
                     h--;
                 }
             }
@@ -129,14 +131,14 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                 g = B.isSolid(bd) ? g + 1 : g;
 
                 if (g >= 3) {
-                    setPostBlock(x, h + 1, z, getPostBlock(x, h, z, currentPostX, currentPostZ, currentData), currentPostX, currentPostZ, currentData);
+                    setPostBlock(x, h + 1, z, getPostBlock(x, h, z, currentPostX, currentPostZ, currentData), currentPostX, currentPostZ, currentData, spans);
                     h++;
                 }
             }
         }
 
         // Wall Patcher
-        IrisBiome biome = getComplex().getTrueBiomeStream().get(x, z);
+        IrisBiome biome = context.getRawBiome(currentPostX, currentPostZ);
 
         if (getDimension().isPostProcessingWalls()) {
             if (!biome.getWall().getPalette().isEmpty()) {
@@ -156,7 +158,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                                 continue;
                             }
 
-                            setPostBlock(x, i, z, d, currentPostX, currentPostZ, currentData);
+                            setPostBlock(x, i, z, d, currentPostX, currentPostZ, currentData, spans);
                             brokeGround = true;
                         }
                     }
@@ -187,7 +189,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                     }
 
                     if (!cancel && isAirOrWater(x, h + 1, z, currentPostX, currentPostZ, currentData)) {
-                        setPostBlock(x, h + 1, z, d, currentPostX, currentPostZ, currentData);
+                        setPostBlock(x, h + 1, z, d, currentPostX, currentPostZ, currentData, spans);
                         h++;
                     }
                 }
@@ -211,11 +213,11 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
 
             if (w != ww.isWaterlogged()) {
                 ww.setWaterlogged(w);
-                setPostBlock(x, h, z, ww, currentPostX, currentPostZ, currentData);
+                setPostBlock(x, h, z, ww, currentPostX, currentPostZ, currentData, spans);
             }
         } else if (b.getMaterial().equals(Material.AIR) && h <= getDimension().getFluidHeight()) {
             if ((isWaterOrWaterlogged(x + 1, h, z, currentPostX, currentPostZ, currentData) || isWaterOrWaterlogged(x - 1, h, z, currentPostX, currentPostZ, currentData) || isWaterOrWaterlogged(x, h, z + 1, currentPostX, currentPostZ, currentData) || isWaterOrWaterlogged(x, h, z - 1, currentPostX, currentPostZ, currentData))) {
-                setPostBlock(x, h, z, WATER, currentPostX, currentPostZ, currentData);
+                setPostBlock(x, h, z, WATER, currentPostX, currentPostZ, currentData, spans);
             }
         }
 
@@ -226,12 +228,12 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
             Material onto = getPostBlock(x, h, z, currentPostX, currentPostZ, currentData).getMaterial();
 
             if (!B.canPlaceOnto(b.getMaterial(), onto)) {
-                setPostBlock(x, h + 1, z, AIR, currentPostX, currentPostZ, currentData);
+                setPostBlock(x, h + 1, z, AIR, currentPostX, currentPostZ, currentData, spans);
             }
         }
 
         if (getDimension().isPostProcessCaves()) {
-            IrisBiome cave = getComplex().getCaveBiomeStream().get(x, z);
+            IrisBiome cave = context.getRawCaveBiome(currentPostX, currentPostZ);
 
             if (cave != null) {
                 for (CaveResult i : ((IrisCaveModifier) getEngine().getCaveModifier()).genCaves(x, z, 0, 0, null)) {
@@ -263,7 +265,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                         Material m = bc.getMaterial();
 
                         if (m.isSolid()) {
-                            setPostBlock(x, f, z, b, currentPostX, currentPostZ, currentData);
+                            setPostBlock(x, f, z, b, currentPostX, currentPostZ, currentData, spans);
                             h--;
                         }
                     } else {
@@ -286,7 +288,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                             g = B.isSolid(bd) ? g + 1 : g;
 
                             if (g >= 4) {
-                                setPostBlock(x, f + 1, z, getPostBlock(x, f, z, currentPostX, currentPostZ, currentData), currentPostX, currentPostZ, currentData);
+                                setPostBlock(x, f + 1, z, getPostBlock(x, f, z, currentPostX, currentPostZ, currentData), currentPostX, currentPostZ, currentData, spans);
                                 h++;
                             }
                         }
@@ -314,7 +316,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                                 }
 
                                 if (!cancel && isAirOrWater(x, f + 1, z, currentPostX, currentPostZ, currentData)) {
-                                    setPostBlock(x, f + 1, z, d, currentPostX, currentPostZ, currentData);
+                                    setPostBlock(x, f + 1, z, d, currentPostX, currentPostZ, currentData, spans);
                                 }
                             }
                         }
@@ -343,7 +345,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
                                     try {
                                         Slab slab = (Slab) d.clone();
                                         slab.setType(Slab.Type.TOP);
-                                        setPostBlock(x, c, z, slab, currentPostX, currentPostZ, currentData);
+                                        setPostBlock(x, c, z, slab, currentPostX, currentPostZ, currentData, spans);
                                     } catch (Throwable e) {
                                         Iris.reportError(e);
                                         try {
@@ -351,7 +353,7 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
 
                                             synchronized (slab) {
                                                 slab.setType(Slab.Type.TOP);
-                                                setPostBlock(x, c, z, slab, currentPostX, currentPostZ, currentData);
+                                                setPostBlock(x, c, z, slab, currentPostX, currentPostZ, currentData, spans);
                                             }
                                         } catch (Throwable ee) {
                                             Iris.reportError(ee);
@@ -464,9 +466,10 @@ public class IrisPostModifier extends EngineAssignedModifier<BlockData> {
         return d instanceof Levelled;
     }
 
-    public void setPostBlock(int x, int y, int z, BlockData d, int currentPostX, int currentPostZ, Hunk<BlockData> currentData) {
+    public void setPostBlock(int x, int y, int z, BlockData d, int currentPostX, int currentPostZ, Hunk<BlockData> currentData, ColumnSpans spans) {
         if (y < currentData.getHeight()) {
             currentData.set(x & 15, y, z & 15, d);
+            spans.set(x & 15, y, z & 15, d);
         }
     }
 
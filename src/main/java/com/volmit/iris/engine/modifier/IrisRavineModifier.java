@@ -18,6 +18,8 @@
 
 package com.volmit.iris.engine.modifier;
 
+import com.volmit.iris.engine.data.chunk.ColumnSpans;
+import com.volmit.iris.engine.framework.ChunkContext;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.framework.EngineAssignedModifier;
 import com.volmit.iris.engine.object.noise.NoiseStyle;
@@ -25,7 +27,6 @@ import com.volmit.iris.util.data.B;
 import com.volmit.iris.util.hunk.Hunk;
 import com.volmit.iris.util.math.BlockPosition;
 import com.volmit.iris.util.math.MathHelper;
-import com.volmit.iris.util.math.Position2;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import com.volmit.iris.util.scheduling.PrecisionStopwatch;
@@ -38,6 +39,7 @@ public class IrisRavineModifier extends EngineAssignedModifier<BlockData> {
     private static final BlockData LAVA = B.get("LAVA");
     private final CNG cng;
     private final RNG rng;
+    private volatile IrisRavinePlanner planner;
 
     public IrisRavineModifier(Engine engine) {
         super(engine, "Ravine");
@@ -46,18 +48,19 @@ public class IrisRavineModifier extends EngineAssignedModifier<BlockData> {
     }
 
     @Override
-    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore) {
+    public void onModify(int x, int z, Hunk<BlockData> output, boolean multicore, ChunkContext context) {
         if (!getDimension().isRavines()) {
             return;
         }
 
         PrecisionStopwatch p = PrecisionStopwatch.start();
-        generateRavines(rng, Math.floorDiv(x, 16), Math.floorDiv(z, 16), output);
+        generateRavines(Math.floorDiv(x, 16), Math.floorDiv(z, 16), output, context.getSpans());
         getEngine().getMetrics().getRavine().put(p.getMilliseconds());
     }
 
-    private void set(Hunk<BlockData> pos, int x, int y, int z, BlockData b) {
+    private void set(Hunk<BlockData> pos, ColumnSpans spans, int x, int y, int z, BlockData b) {
         pos.set(x, y, z, b);
+        spans.set(x, y, z, b);
     }
 
     private BlockData get(Hunk<BlockData> pos, int x, int y, int z) {
@@ -74,149 +77,124 @@ public class IrisRavineModifier extends EngineAssignedModifier<BlockData> {
         return getComplex().getTrueBiomeStream().get(n6, i).getSurfaceBlock(n6, i, rmg, getData());
     }
 
-    private final float[] ravineCache = new float[1024];
+    private IrisRavinePlanner getPlanner() {
+        IrisRavinePlanner p = planner;
 
-    private void doRavine(long seed, int tx, int tz, Position2 pos, double sx, double sy, double sz, float f, float f2, float f3, @SuppressWarnings("SameParameterValue") int n3, @SuppressWarnings("SameParameterValue") int n4, @SuppressWarnings("SameParameterValue") double d4, RNG bbx, Hunk<BlockData> terrain) {
-        int n5;
-        RNG random = new RNG(seed);
+        if (p == null || !p.matches(getDimension().getRavineRarity(), getDimension().getRavineRibRarity())) {
+            p = new IrisRavinePlanner(rng, getDimension().getRavineRarity(), getDimension().getRavineRibRarity());
+            planner = p;
+        }
+
+        return p;
+    }
+
+    private void carveRavine(IrisRavinePlanner.RavinePath path, int tx, int tz, Hunk<BlockData> terrain, ColumnSpans spans) {
         double x = tx * 16 + 8;
         double z = tz * 16 + 8;
-        float f4 = 0.0f;
-        float f5 = 0.0f;
-        if (n4 <= 0) {
-            n5 = 8 * 16 - 16;
-            n4 = n5 - random.nextInt(n5 / 4);
-        }
-        n5 = 0;
-        if (n3 == -1) {
-            n3 = n4 / 2;
-            n5 = 1;
-        }
-        float f6 = 1.0f;
-        // TODO: WARNING HEIGHT
-        for (int i = 0; i < 256; ++i) {
-            if (i == 0 || random.nextInt(getDimension().getRavineRibRarity()) == 0) {
-                f6 = 1.0f + random.nextFloat() * random.nextFloat() * 1.0f;
+        double d12 = path.getWidth() + 2.0f + 16.0f;
+        float[] ribs = path.getRibs();
+
+        for (IrisRavinePlanner.RavineSegment s : path.getSegments()) {
+            double sx = s.getX();
+            double sy = s.getY();
+            double sz = s.getZ();
+            double d7 = s.getWidth();
+            double d8 = s.getHeight();
+            double d9 = sx - x;
+            double d10 = sz - z;
+            double d11 = s.getRemaining();
+
+            if (d9 * d9 + d10 * d10 - d11 * d11 > d12 * d12) {
+                return;
             }
-            this.ravineCache[i] = f6 * f6;
-        }
-        while (n3 < n4) {
-            double d7 = 1.5 + (double) (MathHelper.sin((float) n3 * 3.1415927f / (float) n4) * f * 1.0f);
-            double d8 = d7 * d4;
-            d7 *= (double) random.nextFloat() * 0.25 + 0.75;
-            d8 *= (double) random.nextFloat() * 0.25 + 0.75;
-            float f7 = MathHelper.cos(f3);
-            float f8 = MathHelper.sin(f3);
-            sx = sx + (double) (MathHelper.cos(f2) * f7);
-            sy += f8;
-            sz += MathHelper.sin(f2) * f7;
-            f3 *= 0.7f;
-            f3 += f5 * 0.05f;
-            f2 += f4 * 0.05f;
-            f5 *= 0.8f;
-            f4 *= 0.5f;
-            f5 += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 2.0f;
-            f4 += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 4.0f;
-            if (n5 != 0 || random.nextInt(4) != 0) {
-                double d9 = sx - x;
-                double d10 = sz - z;
-                double d11 = n4 - n3;
-                double d12 = f + 2.0f + 16.0f;
-                if (d9 * d9 + d10 * d10 - d11 * d11 > d12 * d12) {
-                    return;
+
+            if (sx >= x - 16.0 - d7 * 2.0 && sz >= z - 16.0 - d7 * 2.0 && sx <= x + 16.0 + d7 * 2.0 && sz <= z + 16.0 + d7 * 2.0) {
+                int n6;
+                int n7 = MathHelper.floor(sx - d7) - tx * 16 - 1;
+                int n8 = MathHelper.floor(sx + d7) - tx * 16 + 1;
+                int n9 = MathHelper.floor(sy - d8) - 1;
+                int n10 = MathHelper.floor(sy + d8) + 1;
+                int n11 = MathHelper.floor(sz - d7) - tz * 16 - 1;
+                int n12 = MathHelper.floor(sz + d7) - tz * 16 + 1;
+                if (n7 < 0) {
+                    n7 = 0;
                 }
-                if (sx >= x - 16.0 - d7 * 2.0 && sz >= z - 16.0 - d7 * 2.0 && sx <= x + 16.0 + d7 * 2.0 && sz <= z + 16.0 + d7 * 2.0) {
-                    int n6;
-                    int n7 = MathHelper.floor(sx - d7) - tx * 16 - 1;
-                    int n8 = MathHelper.floor(sx + d7) - tx * 16 + 1;
-                    int n9 = MathHelper.floor(sy - d8) - 1;
-                    int n10 = MathHelper.floor(sy + d8) + 1;
-                    int n11 = MathHelper.floor(sz - d7) - tz * 16 - 1;
-                    int n12 = MathHelper.floor(sz + d7) - tz * 16 + 1;
-                    if (n7 < 0) {
-                        n7 = 0;
-                    }
-                    if (n8 > 16) {
-                        n8 = 16;
-                    }
-                    if (n9 < 1) {
-                        n9 = 1;
-                    }
-                    if (n10 > 248) {
-                        n10 = 248;
-                    }
-                    if (n11 < 0) {
-                        n11 = 0;
-                    }
-                    if (n12 > 16) {
-                        n12 = 16;
+                if (n8 > 16) {
+                    n8 = 16;
+                }
+                if (n9 < 1) {
+                    n9 = 1;
+                }
+                if (n10 > 248) {
+                    n10 = 248;
+                }
+                if (n11 < 0) {
+                    n11 = 0;
+                }
+                if (n12 > 16) {
+                    n12 = 16;
+                }
+                boolean bl = false;
+                for (int i = n7; !bl && i < n8; ++i) {
+                    for (n6 = n11; !bl && n6 < n12; ++n6) {
+                        for (int j = n10 + 1; !bl && j >= n9 - 1; --j) {
+                            // TODO: WARNING HEIGHT
+                            if (j < 0 || j >= 256) {
+                                continue;
+                            }
+
+                            BlockData bb = get(terrain, i, j, n6);
+
+                            if (B.isWater(bb)) {
+                                bl = true;
+                            }
+
+                            if (j == n9 - 1 || i == n7 || i == n8 - 1 || n6 == n11 || n6 == n12 - 1) {
+                                continue;
+                            }
+                            j = n9;
+                        }
                     }
-                    boolean bl = false;
-                    for (int i = n7; !bl && i < n8; ++i) {
-                        for (n6 = n11; !bl && n6 < n12; ++n6) {
-                            for (int j = n10 + 1; !bl && j >= n9 - 1; --j) {
-                                // TODO: WARNING HEIGHT
-                                if (j < 0 || j >= 256) {
+                }
+                if (!bl) {
+                    BlockPosition bps = new BlockPosition(0, 0, 0);
+                    for (n6 = n7; n6 < n8; ++n6) {
+                        double d13 = ((double) (n6 + tx * 16) + 0.5 - sx) / d7;
+                        for (int i = n11; i < n12; ++i) {
+                            double d14 = ((double) (i + tz * 16) + 0.5 - sz) / d7;
+                            boolean bl2 = false;
+                            if (d13 * d13 + d14 * d14 >= 1.0) {
+                                continue;
+                            }
+                            for (int j = n10; j > n9; --j) {
+                                double d15 = ((double) (j - 1) + 0.5 - sy) / d8;
+                                if ((d13 * d13 + d14 * d14) * (double) ribs[j - 1] + d15 * d15 / 6.0 >= 1.0) {
                                     continue;
                                 }
 
-                                BlockData bb = get(terrain, i, j, n6);
+                                BlockData blockData = get(terrain, n6, j, i);
 
-                                if (B.isWater(bb)) {
-                                    bl = true;
+                                if (isSurface(blockData)) {
+                                    bl2 = true;
                                 }
 
-                                if (j == n9 - 1 || i == n7 || i == n8 - 1 || n6 == n11 || n6 == n12 - 1) {
+                                if (j - 1 < 10) {
+                                    set(terrain, spans, n6, j, i, LAVA);
                                     continue;
                                 }
-                                j = n9;
-                            }
-                        }
-                    }
-                    if (!bl) {
-                        BlockPosition bps = new BlockPosition(0, 0, 0);
-                        for (n6 = n7; n6 < n8; ++n6) {
-                            double d13 = ((double) (n6 + tx * 16) + 0.5 - sx) / d7;
-                            for (int i = n11; i < n12; ++i) {
-                                double d14 = ((double) (i + tz * 16) + 0.5 - sz) / d7;
-                                boolean bl2 = false;
-                                if (d13 * d13 + d14 * d14 >= 1.0) {
+
+                                set(terrain, spans, n6, j, i, CAVE_AIR);
+                                if (!bl2 || !isDirt(get(terrain, n6, j - 1, i))) {
                                     continue;
                                 }
-                                for (int j = n10; j > n9; --j) {
-                                    double d15 = ((double) (j - 1) + 0.5 - sy) / d8;
-                                    if ((d13 * d13 + d14 * d14) * (double) this.ravineCache[j - 1] + d15 * d15 / 6.0 >= 1.0) {
-                                        continue;
-                                    }
-
-                                    BlockData blockData = get(terrain, n6, j, i);
-
-                                    if (isSurface(blockData)) {
-                                        bl2 = true;
-                                    }
-
-                                    if (j - 1 < 10) {
-                                        set(terrain, n6, j, i, LAVA);
-                                        continue;
-                                    }
-
-                                    set(terrain, n6, j, i, CAVE_AIR);
-                                    if (!bl2 || !isDirt(get(terrain, n6, j - 1, i))) {
-                                        continue;
-                                    }
-
-                                    cSet(bps, n6 + tx * 16, 0, i + tz * 16);
-                                    set(terrain, n6, j - 1, i, getSurfaceBlock(n6, i, rng));
-                                }
+
+                                cSet(bps, n6 + tx * 16, 0, i + tz * 16);
+                                set(terrain, spans, n6, j - 1, i, getSurfaceBlock(n6, i, rng));
                             }
                         }
-                        if (n5 != 0) {
-                            break;
-                        }
                     }
                 }
             }
-            ++n3;
         }
     }
 
@@ -248,39 +226,21 @@ public class IrisRavineModifier extends EngineAssignedModifier<BlockData> {
         //@done
     }
 
-    public void genRavines(int n, int n2, Position2 chunkSnapshot, RNG bbb, Hunk<BlockData> terrain) {
-        RNG b = this.rng.nextParallelRNG(21949666);
-        RNG bx = this.rng.nextParallelRNG(6676121);
-        long l = b.nextLong();
-        long l2 = b.nextLong();
-        for (int i = n - 8; i <= n + 8; ++i) {
-            for (int j = n2 - 8; j <= n2 + 8; ++j) {
-                long l3 = (long) i * l;
-                long l4 = (long) j * l2;
-                bx = this.rng.nextParallelRNG((int) (l3 ^ l4 ^ 6676121));
-                doRavines(i, j, n, n2, chunkSnapshot, bx, terrain);
-            }
-        }
-    }
+    /**
+     * Carve every planned ravine starting within 8 chunks of this chunk, in the same origin order
+     * the ravines have always been carved in
+     */
+    public void generateRavines(int x, int z, Hunk<BlockData> terrain, ColumnSpans spans) {
+        IrisRavinePlanner p = getPlanner();
 
-    private void doRavines(int tx, int tz, int sx, int sz, Position2 chunkSnapshot, RNG b, Hunk<BlockData> terrain) {
-        if (b.nextInt(getDimension().getRavineRarity()) != 0) {
-            return;
-        }
+        for (int i = x - 8; i <= x + 8; ++i) {
+            for (int j = z - 8; j <= z + 8; ++j) {
+                IrisRavinePlanner.RavinePath path = p.getRavine(i, j);
 
-        double x = tx * 16 + b.nextInt(16);
-        double d2 = b.nextInt(b.nextInt(40) + 8) + 20;
-        double z = tz * 16 + b.nextInt(16);
-        int n5 = 1;
-        for (int i = 0; i < n5; ++i) {
-            float f = b.nextFloat() * 3.1415927f * 2.0f;
-            float f2 = (b.nextFloat() - 0.5f) * 2.0f / 8.0f;
-            float f3 = (b.nextFloat() * 2.0f + b.nextFloat()) * 2.0f;
-            this.doRavine(b.nextLong(), sx, sz, chunkSnapshot, x, d2, z, f3, f, f2, 0, 0, 3.0, b, terrain);
+                if (path != null && path.canReach(x, z)) {
+                    carveRavine(path, x, z, terrain, spans);
+                }
+            }
         }
     }
-
-    public void generateRavines(RNG nextParallelRNG, int x, int z, Hunk<BlockData> terrain) {
-        genRavines(x, z, new Position2(x, z), nextParallelRNG.nextParallelRNG(x).nextParallelRNG(z), terrain);
-    }
 }
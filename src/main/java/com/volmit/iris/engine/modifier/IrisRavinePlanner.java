@@ -0,0 +1,194 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.engine.modifier;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.math.MathHelper;
+import com.volmit.iris.util.math.RNG;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Plans ravines once per origin chunk instead of re-walking every ravine in range for each
+ * chunk that gets carved. A ravine is a rib table plus the capsule segments of its walk, planned
+ * in regions of 32x32 origin chunks and kept in a small lru cache. Each ravine also carries its
+ * block bounds so chunks out of reach skip it without looking at a single segment.
+ */
+public class IrisRavinePlanner {
+    private static final int REGION_SHIFT = 5;
+    private static final int REGION_SIZE = 1 << REGION_SHIFT;
+    private final RNG rng;
+    private final long seedX;
+    private final long seedZ;
+    private final int rarity;
+    private final int ribRarity;
+    private final ConcurrentLinkedHashMap<Long, RavinePath[]> regions;
+
+    public IrisRavinePlanner(RNG rng, int rarity, int ribRarity) {
+        this.rng = rng;
+        this.rarity = rarity;
+        this.ribRarity = ribRarity;
+        RNG b = rng.nextParallelRNG(21949666);
+        seedX = b.nextLong();
+        seedZ = b.nextLong();
+        regions = new ConcurrentLinkedHashMap.Builder<Long, RavinePath[]>()
+                .initialCapacity(64)
+                .maximumWeightedCapacity(64)
+                .concurrencyLevel(32)
+                .build();
+    }
+
+    public boolean matches(int rarity, int ribRarity) {
+        return this.rarity == rarity && this.ribRarity == ribRarity;
+    }
+
+    /**
+     * Get the ravine starting in the given chunk
+     *
+     * @return the ravine or null if this chunk does not start one
+     */
+    public RavinePath getRavine(int chunkX, int chunkZ) {
+        RavinePath[] region = getRegion(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT);
+        return region[((chunkZ & (REGION_SIZE - 1)) << REGION_SHIFT) | (chunkX & (REGION_SIZE - 1))];
+    }
+
+    private RavinePath[] getRegion(int regionX, int regionZ) {
+        Long key = Cache.key(regionX, regionZ);
+        RavinePath[] region = regions.get(key);
+
+        if (region == null) {
+            region = new RavinePath[REGION_SIZE * REGION_SIZE];
+
+            for (int i = 0; i < REGION_SIZE; i++) {
+                for (int j = 0; j < REGION_SIZE; j++) {
+                    region[(j << REGION_SHIFT) | i] = plan((regionX << REGION_SHIFT) + i, (regionZ << REGION_SHIFT) + j);
+                }
+            }
+
+            RavinePath[] existing = regions.putIfAbsent(key, region);
+            region = existing != null ? existing : region;
+        }
+
+        return region;
+    }
+
+    private RavinePath plan(int cx, int cz) {
+        RNG b = rng.nextParallelRNG((int) (((long) cx * seedX) ^ ((long) cz * seedZ) ^ 6676121));
+
+        if (b.nextInt(rarity) != 0) {
+            return null;
+        }
+
+        double sx = cx * 16 + b.nextInt(16);
+        double sy = b.nextInt(b.nextInt(40) + 8) + 20;
+        double sz = cz * 16 + b.nextInt(16);
+        float yaw = b.nextFloat() * 3.1415927f * 2.0f;
+        float pitch = (b.nextFloat() - 0.5f) * 2.0f / 8.0f;
+        float width = (b.nextFloat() * 2.0f + b.nextFloat()) * 2.0f;
+        return walk(b.nextLong(), sx, sy, sz, width, yaw, pitch);
+    }
+
+    private RavinePath walk(long seed, double sx, double sy, double sz, float width, float yaw, float pitch) {
+        RNG random = new RNG(seed);
+        int length = 112 - random.nextInt(28);
+        float[] ribs = new float[256];
+        float rib = 1.0f;
+
+        // TODO: WARNING HEIGHT
+        for (int i = 0; i < 256; ++i) {
+            if (i == 0 || random.nextInt(ribRarity) == 0) {
+                rib = 1.0f + random.nextFloat() * random.nextFloat() * 1.0f;
+            }
+
+            ribs[i] = rib * rib;
+        }
+
+        KList<RavineSegment> segments = new KList<>();
+        float yawDrift = 0.0f;
+        float pitchDrift = 0.0f;
+        double minX = Double.MAX_VALUE;
+        double minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxZ = -Double.MAX_VALUE;
+
+        for (int step = 0; step < length; step++) {
+            double w = 1.5 + (double) (MathHelper.sin((float) step * 3.1415927f / (float) length) * width * 1.0f);
+            double h = w * 3.0;
+            w *= (double) random.nextFloat() * 0.25 + 0.75;
+            h *= (double) random.nextFloat() * 0.25 + 0.75;
+            float cp = MathHelper.cos(pitch);
+            float sp = MathHelper.sin(pitch);
+            sx = sx + (double) (MathHelper.cos(yaw) * cp);
+            sy += sp;
+            sz += MathHelper.sin(yaw) * cp;
+            pitch *= 0.7f;
+            pitch += pitchDrift * 0.05f;
+            yaw += yawDrift * 0.05f;
+            pitchDrift *= 0.8f;
+            yawDrift *= 0.5f;
+            pitchDrift += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 2.0f;
+            yawDrift += (random.nextFloat() - random.nextFloat()) * random.nextFloat() * 4.0f;
+
+            if (random.nextInt(4) != 0) {
+                segments.add(new RavineSegment(sx, sy, sz, w, h, length - step));
+                minX = Math.min(minX, sx - w * 2.0);
+                minZ = Math.min(minZ, sz - w * 2.0);
+                maxX = Math.max(maxX, sx + w * 2.0);
+                maxZ = Math.max(maxZ, sz + w * 2.0);
+            }
+        }
+
+        return new RavinePath(width, ribs, segments.toArray(new RavineSegment[0]), minX, minZ, maxX, maxZ);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RavinePath {
+        private final float width;
+        private final float[] ribs;
+        private final RavineSegment[] segments;
+        private final double minX;
+        private final double minZ;
+        private final double maxX;
+        private final double maxZ;
+
+        /**
+         * Segments only carve chunks whose center is within 16 + 2 * width blocks, so this
+         * rejects chunks the ravine can never touch (with a block of slack for rounding)
+         */
+        public boolean canReach(int chunkX, int chunkZ) {
+            double x = chunkX * 16 + 8;
+            double z = chunkZ * 16 + 8;
+            return maxX >= x - 17.0 && minX <= x + 17.0 && maxZ >= z - 17.0 && minZ <= z + 17.0;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RavineSegment {
+        private final double x;
+        private final double y;
+        private final double z;
+        private final double width;
+        private final double height;
+        private final int remaining;
+    }
+}
@@ -28,6 +28,7 @@ import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.object.annotations.*;
 import com.volmit.iris.engine.object.block.IrisBlockDrops;
 import com.volmit.iris.engine.object.common.IRare;
+import com.volmit.iris.engine.object.decoration.IrisDecorationPart;
 import com.volmit.iris.engine.object.decoration.IrisDecorator;
 import com.volmit.iris.engine.object.deposits.IrisDepositGenerator;
 import com.volmit.iris.engine.object.feature.IrisFeaturePotential;
@@ -47,6 +48,7 @@ import com.volmit.iris.util.data.B;
 import com.volmit.iris.util.data.DataProvider;
 import com.volmit.iris.util.data.VanillaBiomeMap;
 import com.volmit.iris.util.inventorygui.RandomColor;
+import com.volmit.iris.util.math.HashRNG;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import lombok.AllArgsConstructor;
@@ -197,6 +199,7 @@ public class IrisBiome extends IrisRegistrant implements IRare {
     private final transient AtomicCache<KMap<String, Integer>> genCacheMin = new AtomicCache<>();
     private final transient AtomicCache<KList<IrisObjectPlacement>> surfaceObjectsCache = new AtomicCache<>(false);
     private final transient AtomicCache<KList<IrisObjectPlacement>> carveObjectsCache = new AtomicCache<>(false);
+    private final transient AtomicCache<IrisDecorator[][]> decoratorPartsCache = new AtomicCache<>();
     private final transient AtomicCache<Color> cacheColor = new AtomicCache<>();
     private final transient AtomicCache<Color> cacheColorObjectDensity = new AtomicCache<>();
     private final transient AtomicCache<Color> cacheColorDecoratorLoad = new AtomicCache<>();
@@ -290,6 +293,39 @@ public class IrisBiome extends IrisRegistrant implements IRare {
         });
     }
 
+    /**
+     * Get the decorators of this biome that target the given part. The table is built once per
+     * loaded biome, so a hotload rebuilds it with the new biome.
+     *
+     * @param part the decoration part
+     * @return the decorators for that part (never null)
+     */
+    public IrisDecorator[] getDecorators(IrisDecorationPart part) {
+        return decoratorPartsCache.aquire(() ->
+        {
+            IrisDecorator[][] parts = new IrisDecorator[IrisDecorationPart.values().length][];
+
+            for (IrisDecorationPart i : IrisDecorationPart.values()) {
+                KList<IrisDecorator> d = new KList<>();
+
+                for (IrisDecorator j : getDecorators()) {
+                    if (j.getPartOf() == null) {
+                        Iris.error("PART OF: " + (getLoadFile() == null ? getLoadKey() : getLoadFile().getAbsolutePath()) + " HAS AN INVALID DECORATOR near 'partOf'!!!");
+                        continue;
+                    }
+
+                    if (j.getPartOf().equals(i)) {
+                        d.add(j);
+                    }
+                }
+
+                parts[i.ordinal()] = d.toArray(new IrisDecorator[0]);
+            }
+
+            return parts;
+        })[part.ordinal()];
+    }
+
     public KList<IrisObjectPlacement> getCarvingObjects() {
         return getCarveObjectsCache().aquire(() ->
         {
@@ -357,7 +393,7 @@ public class IrisBiome extends IrisRegistrant implements IRare {
                 }
 
                 try {
-                    data.add(getLayers().get(i).get(random.nextParallelRNG(i + j), (wx + j) / layers.get(i).getZoom(), j, (wz - j) / layers.get(i).getZoom(), rdata));
+                    data.add(getLayers().get(i).get(HashRNG.parallel(random.getSeed(), i + j), (wx + j) / layers.get(i).getZoom(), j, (wz - j) / layers.get(i).getZoom(), rdata));
                 } catch (Throwable e) {
                     Iris.reportError(e);
                     e.printStackTrace();
@@ -398,7 +434,7 @@ public class IrisBiome extends IrisRegistrant implements IRare {
 
             for (int j = 0; j < d; j++) {
                 try {
-                    data.add(getLayers().get(i).get(random.nextParallelRNG(i + j), (wx + j) / layers.get(i).getZoom(), j, (wz - j) / layers.get(i).getZoom(), rdata));
+                    data.add(getLayers().get(i).get(HashRNG.parallel(random.getSeed(), i + j), (wx + j) / layers.get(i).getZoom(), j, (wz - j) / layers.get(i).getZoom(), rdata));
                 } catch (Throwable e) {
                     Iris.reportError(e);
                     e.printStackTrace();
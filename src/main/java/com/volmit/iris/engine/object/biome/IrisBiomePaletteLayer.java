@@ -26,6 +26,8 @@ import com.volmit.iris.engine.object.noise.IrisGeneratorStyle;
 import com.volmit.iris.engine.object.noise.IrisSlopeClip;
 import com.volmit.iris.engine.object.noise.NoiseStyle;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.data.WeightedPalette;
+import com.volmit.iris.util.math.HashRNG;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import lombok.AllArgsConstructor;
@@ -70,30 +72,42 @@ public class IrisBiomePaletteLayer {
     @Desc("The palette of blocks to be used in this layer")
     private KList<IrisBlockData> palette = new KList<IrisBlockData>().qadd(new IrisBlockData("GRASS_BLOCK"));
 
-    private final transient AtomicCache<KList<BlockData>> blockData = new AtomicCache<>();
+    private final transient AtomicCache<WeightedPalette<BlockData>> blockData = new AtomicCache<>();
     private final transient AtomicCache<CNG> layerGenerator = new AtomicCache<>();
     private final transient AtomicCache<CNG> heightGenerator = new AtomicCache<>();
 
     public CNG getHeightGenerator(RNG rng, IrisData data) {
-        return heightGenerator.aquire(() -> CNG.signature(rng.nextParallelRNG(minHeight * maxHeight + getBlockData(data).size())));
+        return heightGenerator.aquire(() -> CNG.signature(rng.nextParallelRNG(minHeight * maxHeight + getBlockData(data).getTotalWeight())));
     }
 
     public BlockData get(RNG rng, double x, double y, double z, IrisData data) {
+        return get(rng.getSeed(), x, y, z, data);
+    }
+
+    /**
+     * Same as {@link #get(RNG, double, double, double, IrisData)} with the seed of the rng, so callers
+     * do not have to build an rng that is only used the first time the generator is created
+     */
+    public BlockData get(long seed, double x, double y, double z, IrisData data) {
         if (getBlockData(data).isEmpty()) {
             return null;
         }
 
-        if (getBlockData(data).size() == 1) {
+        if (getBlockData(data).getTotalWeight() == 1) {
             return getBlockData(data).get(0);
         }
 
-        return getLayerGenerator(rng, data).fit(getBlockData(data), x / zoom, y / zoom, z / zoom);
+        return getLayerGenerator(seed, data).fit(getBlockData(data), x / zoom, y / zoom, z / zoom);
     }
 
     public CNG getLayerGenerator(RNG rng, IrisData data) {
+        return getLayerGenerator(rng.getSeed(), data);
+    }
+
+    public CNG getLayerGenerator(long seed, IrisData data) {
         return layerGenerator.aquire(() ->
         {
-            RNG rngx = rng.nextParallelRNG(minHeight + maxHeight + getBlockData(data).size());
+            RNG rngx = new RNG(HashRNG.parallel(seed, minHeight + maxHeight + getBlockData(data).getTotalWeight()));
             return style.create(rngx, data);
         });
     }
@@ -104,21 +118,8 @@ public class IrisBiomePaletteLayer {
         return palette;
     }
 
-    public KList<BlockData> getBlockData(IrisData data) {
-        return blockData.aquire(() ->
-        {
-            KList<BlockData> blockData = new KList<>();
-            for (IrisBlockData ix : palette) {
-                BlockData bx = ix.getBlockData(data);
-                if (bx != null) {
-                    for (int i = 0; i < ix.getWeight(); i++) {
-                        blockData.add(bx);
-                    }
-                }
-            }
-
-            return blockData;
-        });
+    public WeightedPalette<BlockData> getBlockData(IrisData data) {
+        return blockData.aquire(() -> IrisBlockData.weighted(palette, data));
     }
 
     public IrisBiomePaletteLayer zero() {
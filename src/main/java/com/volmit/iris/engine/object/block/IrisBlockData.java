@@ -26,6 +26,7 @@ import com.volmit.iris.engine.object.annotations.*;
 import com.volmit.iris.util.collection.KList;
 import com.volmit.iris.util.collection.KMap;
 import com.volmit.iris.util.data.B;
+import com.volmit.iris.util.data.WeightedPalette;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -157,6 +158,29 @@ public class IrisBlockData extends IrisRegistrant {
         return "minecraft:" + dat;
     }
 
+    /**
+     * Resolve a list of block data into a weighted palette. Blocks that cannot be resolved are skipped
+     *
+     * @param palette the block data list
+     * @param data    the data manager
+     * @return the weighted palette
+     */
+    public static WeightedPalette<BlockData> weighted(KList<IrisBlockData> palette, IrisData data) {
+        KList<BlockData> blocks = new KList<>();
+        int[] weights = new int[palette.size()];
+
+        for (IrisBlockData i : palette) {
+            BlockData bx = i.getBlockData(data);
+
+            if (bx != null) {
+                weights[blocks.size()] = i.getWeight();
+                blocks.add(bx);
+            }
+        }
+
+        return new WeightedPalette<>(blocks, weights);
+    }
+
     public static IrisBlockData from(String j) {
         IrisBlockData b = new IrisBlockData();
         String v = j.toLowerCase().trim();
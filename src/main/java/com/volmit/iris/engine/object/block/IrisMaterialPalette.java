@@ -27,6 +27,7 @@ import com.volmit.iris.engine.object.annotations.Required;
 import com.volmit.iris.engine.object.noise.IrisGeneratorStyle;
 import com.volmit.iris.engine.object.noise.NoiseStyle;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.data.WeightedPalette;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import lombok.AllArgsConstructor;
@@ -53,7 +54,7 @@ public class IrisMaterialPalette {
     @Desc("The palette of blocks to be used in this layer")
     private KList<IrisBlockData> palette = new KList<IrisBlockData>().qadd(new IrisBlockData("STONE"));
 
-    private final transient AtomicCache<KList<BlockData>> blockData = new AtomicCache<>();
+    private final transient AtomicCache<WeightedPalette<BlockData>> blockData = new AtomicCache<>();
     private final transient AtomicCache<CNG> layerGenerator = new AtomicCache<>();
     private final transient AtomicCache<CNG> heightGenerator = new AtomicCache<>();
 
@@ -62,7 +63,7 @@ public class IrisMaterialPalette {
             return null;
         }
 
-        if (getBlockData(rdata).size() == 1) {
+        if (getBlockData(rdata).getTotalWeight() == 1) {
             return getBlockData(rdata).get(0);
         }
 
@@ -72,7 +73,7 @@ public class IrisMaterialPalette {
     public CNG getLayerGenerator(RNG rng, IrisData rdata) {
         return layerGenerator.aquire(() ->
         {
-            RNG rngx = rng.nextParallelRNG(-23498896 + getBlockData(rdata).size());
+            RNG rngx = rng.nextParallelRNG(-23498896 + getBlockData(rdata).getTotalWeight());
             return style.create(rngx, rdata);
         });
     }
@@ -94,21 +95,8 @@ public class IrisMaterialPalette {
         return this;
     }
 
-    public KList<BlockData> getBlockData(IrisData rdata) {
-        return blockData.aquire(() ->
-        {
-            KList<BlockData> blockData = new KList<>();
-            for (IrisBlockData ix : palette) {
-                BlockData bx = ix.getBlockData(rdata);
-                if (bx != null) {
-                    for (int i = 0; i < ix.getWeight(); i++) {
-                        blockData.add(bx);
-                    }
-                }
-            }
-
-            return blockData;
-        });
+    public WeightedPalette<BlockData> getBlockData(IrisData rdata) {
+        return blockData.aquire(() -> IrisBlockData.weighted(palette, rdata));
     }
 
     public IrisMaterialPalette zero() {
@@ -69,16 +69,65 @@ public class IrisCarveLayer {
     private final transient AtomicCache<ProceduralStream<Boolean>> streamCache = new AtomicCache<>();
     private final transient AtomicCache<ProceduralStream<Double>> rawStreamCache = new AtomicCache<>();
     private final transient AtomicCache<CNG> cng = new AtomicCache<>();
+    private final transient AtomicCache<double[]> opacityTable = new AtomicCache<>();
 
     public boolean isCarved(RNG rng, IrisData data, double x, double y, double z) {
         if (y > getMaxHeight() || y < getMinHeight()) {
             return false;
         }
 
-        double opacity = Math.pow(IrisInterpolation.sinCenter(M.lerpInverse(getMinHeight(), getMaxHeight(), y)), 4);
+        double opacity = y == (int) y ? getOpacity((int) y) : Math.pow(IrisInterpolation.sinCenter(M.lerpInverse(getMinHeight(), getMaxHeight(), y)), 4);
         return getCng(rng, data).fitDouble(0D, 1D, x, y, z) * opacity > getThreshold();
     }
 
+    /**
+     * The vertical opacity curve of this layer, precomputed once for every block height
+     *
+     * @param y the block height
+     * @return the opacity or 0 outside of the layer
+     */
+    public double getOpacity(int y) {
+        if (y > getMaxHeight() || y < getMinHeight()) {
+            return 0;
+        }
+
+        return opacityTable.aquire(() -> {
+            double[] table = new double[getMaxHeight() - getMinHeight() + 1];
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = Math.pow(IrisInterpolation.sinCenter(M.lerpInverse(getMinHeight(), getMaxHeight(), getMinHeight() + i)), 4);
+            }
+
+            return table;
+        })[y - getMinHeight()];
+    }
+
+    /**
+     * The carve density at a point, carved where it is above 0. Heights outside of the layer
+     * skip the noise entirely.
+     */
+    public double getDensity(RNG rng, IrisData data, double x, int y, double z) {
+        if (y > getMaxHeight() || y < getMinHeight()) {
+            return -getThreshold();
+        }
+
+        return getCng(rng, data).fitDouble(0D, 1D, x, y, z) * getOpacity(y) - getThreshold();
+    }
+
+    /**
+     * Batched {@link #getDensity(RNG, IrisData, double, int, double)}. Every point must lie
+     * within the height range of this layer.
+     *
+     * @param out the results, its length is the batch size
+     */
+    public void getDensity(RNG rng, IrisData data, double[] xs, double[] ys, double[] zs, double[] out) {
+        getCng(rng, data).fitDouble(0D, 1D, xs, ys, zs, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = out[i] * getOpacity((int) ys[i]) - getThreshold();
+        }
+    }
+
     public ProceduralStream<Boolean> stream(RNG rng, IrisData data) {
         return streamCache.aquire(() -> ProceduralStream.of((x, y, z) -> isCarved(rng, data, x, y, z), Interpolated.BOOLEAN));
     }
@@ -27,6 +27,8 @@ import com.volmit.iris.engine.object.block.IrisBlockData;
 import com.volmit.iris.engine.object.noise.IrisGeneratorStyle;
 import com.volmit.iris.engine.object.noise.NoiseStyle;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.data.WeightedPalette;
+import com.volmit.iris.util.math.HashRNG;
 import com.volmit.iris.util.math.RNG;
 import com.volmit.iris.util.noise.CNG;
 import lombok.AllArgsConstructor;
@@ -99,30 +101,42 @@ public class IrisDecorator {
     private final transient AtomicCache<CNG> layerGenerator = new AtomicCache<>();
     private final transient AtomicCache<CNG> varianceGenerator = new AtomicCache<>();
     private final transient AtomicCache<CNG> heightGenerator = new AtomicCache<>();
-    private final transient AtomicCache<KList<BlockData>> blockData = new AtomicCache<>();
-    private final transient AtomicCache<KList<BlockData>> blockDataTops = new AtomicCache<>();
+    private final transient AtomicCache<WeightedPalette<BlockData>> blockData = new AtomicCache<>();
+    private final transient AtomicCache<WeightedPalette<BlockData>> blockDataTops = new AtomicCache<>();
 
     public int getHeight(RNG rng, double x, double z, IrisData data) {
+        return getHeight(rng.getSeed(), x, z, data);
+    }
+
+    /**
+     * Same as {@link #getHeight(RNG, double, double, IrisData)} with the seed of the rng, so callers
+     * do not have to build an rng that is only used the first time the generator is created
+     */
+    public int getHeight(long seed, double x, double z, IrisData data) {
         if (stackMin == stackMax) {
             return stackMin;
         }
 
-        return getHeightGenerator(rng, data).fit(stackMin, stackMax, x / heightVariance.getZoom(), z / heightVariance.getZoom()) + 1;
+        return getHeightGenerator(seed, data).fit(stackMin, stackMax, x / heightVariance.getZoom(), z / heightVariance.getZoom()) + 1;
     }
 
     public CNG getHeightGenerator(RNG rng, IrisData data) {
+        return getHeightGenerator(rng.getSeed(), data);
+    }
+
+    public CNG getHeightGenerator(long seed, IrisData data) {
         return heightGenerator.aquire(() ->
-                heightVariance.create(rng.nextParallelRNG(getBlockData(data).size() + stackMax + stackMin), data));
+                heightVariance.create(new RNG(HashRNG.parallel(seed, getBlockData(data).getTotalWeight() + stackMax + stackMin)), data));
     }
 
     public CNG getGenerator(RNG rng, IrisData data) {
-        return layerGenerator.aquire(() -> style.create(rng.nextParallelRNG(getBlockData(data).size()), data));
+        return layerGenerator.aquire(() -> style.create(rng.nextParallelRNG(getBlockData(data).getTotalWeight()), data));
     }
 
     public CNG getVarianceGenerator(RNG rng, IrisData data) {
         return varianceGenerator.aquire(() ->
                 variance.create(
-                                rng.nextParallelRNG(getBlockData(data).size()), data)
+                                rng.nextParallelRNG(getBlockData(data).getTotalWeight()), data)
                         .scale(1D / variance.getZoom()));
     }
 
@@ -141,7 +155,7 @@ public class IrisDecorator {
         double zz = z / style.getZoom();
 
         if (getGenerator(rng, data).fitDouble(0D, 1D, xx, zz) <= chance) {
-            if (getBlockData(data).size() == 1) {
+            if (getBlockData(data).getTotalWeight() == 1) {
                 return getBlockData(data).get(0);
             }
 
@@ -167,7 +181,7 @@ public class IrisDecorator {
             zz = z / style.getZoom();
         }
 
-        if (getBlockData(data).size() == 1) {
+        if (getBlockData(data).getTotalWeight() == 1) {
             return getBlockData(data).get(0);
         }
 
@@ -183,7 +197,7 @@ public class IrisDecorator {
         double zz = z / style.getZoom();
 
         if (getGenerator(rng, data).fitDouble(0D, 1D, xx, zz) <= chance) { //Exclude y from here
-            if (getBlockData(data).size() == 1) {
+            if (getBlockData(data).getTotalWeight() == 1) {
                 return getBlockDataTops(data).get(0);
             }
 
@@ -193,38 +207,12 @@ public class IrisDecorator {
         return null;
     }
 
-    public KList<BlockData> getBlockData(IrisData data) {
-        return blockData.aquire(() ->
-        {
-            KList<BlockData> blockData = new KList<>();
-            for (IrisBlockData i : palette) {
-                BlockData bx = i.getBlockData(data);
-                if (bx != null) {
-                    for (int n = 0; n < i.getWeight(); n++) {
-                        blockData.add(bx);
-                    }
-                }
-            }
-
-            return blockData;
-        });
+    public WeightedPalette<BlockData> getBlockData(IrisData data) {
+        return blockData.aquire(() -> IrisBlockData.weighted(palette, data));
     }
 
-    public KList<BlockData> getBlockDataTops(IrisData data) {
-        return blockDataTops.aquire(() ->
-        {
-            KList<BlockData> blockDataTops = new KList<>();
-            for (IrisBlockData i : topPalette) {
-                BlockData bx = i.getBlockData(data);
-                if (bx != null) {
-                    for (int n = 0; n < i.getWeight(); n++) {
-                        blockDataTops.add(bx);
-                    }
-                }
-            }
-
-            return blockDataTops;
-        });
+    public WeightedPalette<BlockData> getBlockDataTops(IrisData data) {
+        return blockDataTops.aquire(() -> IrisBlockData.weighted(topPalette, data));
     }
 
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
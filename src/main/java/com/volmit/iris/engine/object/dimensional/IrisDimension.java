@@ -180,6 +180,12 @@ public class IrisDimension extends IrisRegistrant {
     @Desc("Generate caves or not.")
     private boolean caves = true;
 
+    @Desc("Write biomes once per 4x4x4 biome cell (the resolution minecraft stores them in) instead of once per block. Only applies when generating into a real chunk's biome grid.")
+    private boolean biomeCells = true;
+
+    @Desc("When writing biome cells, cells fully below the terrain surface use the cave biome instead of the surface biome.")
+    private boolean caveBiomeCells = false;
+
     @Desc("Instead of filling objects with air, fills them with cobweb so you can see them")
     private boolean debugSmartBore = false;
 
@@ -23,11 +23,50 @@ import com.volmit.iris.engine.object.spawners.IrisSpawner;
 import com.volmit.iris.util.collection.KList;
 import lombok.Data;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 @Data
 public class IrisEngineChunkData {
     private long chunk;
     private KList<IrisEngineSpawnerCooldown> cooldowns = new KList<>();
 
+    /**
+     * Get the cooldown for the given spawner key or null if this chunk has none.
+     * Chunks only ever hold a handful of cooldowns so a scan is cheaper than a map here.
+     *
+     * @param spawner the spawner load key
+     * @return the cooldown or null
+     */
+    public IrisEngineSpawnerCooldown getCooldown(String spawner) {
+        for (IrisEngineSpawnerCooldown i : cooldowns) {
+            if (i.getSpawner().equals(spawner)) {
+                return i;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the cooldown for the given spawner key, creating it if it does not exist yet
+     *
+     * @param spawner the spawner load key
+     * @return the cooldown
+     */
+    public IrisEngineSpawnerCooldown getOrCreateCooldown(String spawner) {
+        IrisEngineSpawnerCooldown sc = getCooldown(spawner);
+
+        if (sc == null) {
+            sc = new IrisEngineSpawnerCooldown();
+            sc.setSpawner(spawner);
+            cooldowns.add(sc);
+        }
+
+        return sc;
+    }
+
     public void cleanup(Engine engine) {
         for (IrisEngineSpawnerCooldown i : getCooldowns().copy()) {
             IrisSpawner sp = engine.getData().getSpawnerLoader().load(i.getSpawner());
@@ -41,4 +80,42 @@ public class IrisEngineChunkData {
     public boolean isEmpty() {
         return cooldowns.isEmpty();
     }
+
+    /**
+     * Write this chunk data to a data stream
+     *
+     * @param dos the data output
+     * @throws IOException shit happens
+     */
+    public void write(DataOutputStream dos) throws IOException {
+        dos.writeLong(chunk);
+        dos.writeInt(cooldowns.size());
+
+        for (IrisEngineSpawnerCooldown i : cooldowns) {
+            dos.writeUTF(i.getSpawner());
+            dos.writeLong(i.getLastSpawn());
+        }
+    }
+
+    /**
+     * Read chunk data from a data stream
+     *
+     * @param din the data input
+     * @return the chunk data
+     * @throws IOException shit happens
+     */
+    public static IrisEngineChunkData read(DataInputStream din) throws IOException {
+        IrisEngineChunkData c = new IrisEngineChunkData();
+        c.setChunk(din.readLong());
+        int s = din.readInt();
+
+        for (int i = 0; i < s; i++) {
+            IrisEngineSpawnerCooldown sc = new IrisEngineSpawnerCooldown();
+            sc.setSpawner(din.readUTF());
+            sc.setLastSpawn(din.readLong());
+            c.getCooldowns().add(sc);
+        }
+
+        return c;
+    }
 }
@@ -18,53 +18,248 @@
 
 package com.volmit.iris.engine.object.engine;
 
+import com.volmit.iris.Iris;
 import com.volmit.iris.engine.data.cache.Cache;
 import com.volmit.iris.engine.framework.Engine;
 import com.volmit.iris.engine.object.spawners.IrisSpawner;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.documentation.ChunkCoordinates;
+import com.volmit.iris.util.documentation.RegionCoordinates;
+import com.volmit.iris.util.format.C;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import lombok.Data;
 
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Engine data is split in two. The small global part (statistics & spawner cooldowns) is stored as json,
+ * while chunk data is indexed by chunk key and stored in region (32x32 chunk) shards which are loaded lazily
+ * and only written back when they change.
+ */
 @Data
 public class IrisEngineData {
     private IrisEngineStatistics statistics = new IrisEngineStatistics();
     private KList<IrisEngineSpawnerCooldown> spawnerCooldowns = new KList<>();
+
+    /**
+     * Only used to migrate engine data saved before chunk data was sharded into regions
+     */
     private KList<IrisEngineChunkData> chunks = new KList<>();
+    private transient File chunkFolder;
+    private transient Long2ObjectMap<IrisEngineChunkData> chunkIndex = new Long2ObjectOpenHashMap<>();
+    private transient KMap<String, IrisEngineSpawnerCooldown> spawnerCooldownIndex;
+    private transient LongSet loadedRegions = new LongOpenHashSet();
+    private transient LongSet dirtyRegions = new LongOpenHashSet();
 
-    public void removeChunk(int x, int z) {
-        long k = Cache.key(x, z);
-        chunks.removeWhere((i) -> i.getChunk() == k);
-    }
+    /**
+     * Set the folder region shards are read from & written to. Any legacy chunk data
+     * loaded from json is moved into the region shards, which are written right away.
+     * Chunks already present in a shard are newer than the legacy list and are kept.
+     *
+     * @param chunkFolder the folder
+     * @return true if legacy chunk data was migrated and the json should be saved again without it
+     */
+    public synchronized boolean setChunkFolder(File chunkFolder) {
+        this.chunkFolder = chunkFolder;
 
-    public IrisEngineChunkData getChunk(int x, int z) {
-        long k = Cache.key(x, z);
+        if (chunks == null || chunks.isEmpty()) {
+            return false;
+        }
 
         for (IrisEngineChunkData i : chunks) {
-            if (i.getChunk() == k) {
-                return i;
+            int rx = Cache.keyX(i.getChunk()) >> 5;
+            int rz = Cache.keyZ(i.getChunk()) >> 5;
+            loadRegion(rx, rz);
+
+            if (chunkIndex.putIfAbsent(i.getChunk(), i) == null) {
+                dirtyRegions.add(Cache.key(rx, rz));
+            }
+        }
+
+        Iris.info("Migrated " + chunks.size() + " engine chunk entries into region shards");
+        chunks.clear();
+        saveChunks();
+        return true;
+    }
+
+    public IrisEngineSpawnerCooldown getSpawnerCooldown(String spawner) {
+        return getSpawnerCooldownIndex().get(spawner);
+    }
+
+    public synchronized void addSpawnerCooldown(IrisEngineSpawnerCooldown cooldown) {
+        getSpawnerCooldownIndex().put(cooldown.getSpawner(), cooldown);
+        spawnerCooldowns.add(cooldown);
+    }
+
+    private synchronized KMap<String, IrisEngineSpawnerCooldown> getSpawnerCooldownIndex() {
+        if (spawnerCooldownIndex == null) {
+            spawnerCooldownIndex = new KMap<>();
+
+            for (IrisEngineSpawnerCooldown i : spawnerCooldowns) {
+                spawnerCooldownIndex.put(i.getSpawner(), i);
             }
         }
 
-        IrisEngineChunkData c = new IrisEngineChunkData();
-        c.setChunk(k);
-        chunks.add(c);
+        return spawnerCooldownIndex;
+    }
+
+    @ChunkCoordinates
+    public synchronized void removeChunk(int x, int z) {
+        loadRegion(x >> 5, z >> 5);
+
+        if (chunkIndex.remove(Cache.key(x, z)) != null) {
+            dirtyRegions.add(Cache.key(x >> 5, z >> 5));
+        }
+    }
+
+    /**
+     * Get the chunk data at the given chunk, or create it. The shard containing
+     * the chunk is loaded if needed and marked as changed.
+     *
+     * @param x the chunk x
+     * @param z the chunk z
+     * @return the chunk data
+     */
+    @ChunkCoordinates
+    public synchronized IrisEngineChunkData getChunk(int x, int z) {
+        loadRegion(x >> 5, z >> 5);
+        long k = Cache.key(x, z);
+        IrisEngineChunkData c = chunkIndex.get(k);
+
+        if (c == null) {
+            c = new IrisEngineChunkData();
+            c.setChunk(k);
+            chunkIndex.put(k, c);
+        }
+
+        dirtyRegions.add(Cache.key(x >> 5, z >> 5));
         return c;
     }
 
-    public void cleanup(Engine engine) {
+    public synchronized void cleanup(Engine engine) {
         for (IrisEngineSpawnerCooldown i : getSpawnerCooldowns().copy()) {
             IrisSpawner sp = engine.getData().getSpawnerLoader().load(i.getSpawner());
 
             if (sp == null || i.canSpawn(sp.getMaximumRate())) {
                 getSpawnerCooldowns().remove(i);
+                getSpawnerCooldownIndex().remove(i.getSpawner());
             }
         }
 
-        for (IrisEngineChunkData i : chunks.copy()) {
+        KList<IrisEngineChunkData> empty = new KList<>();
+
+        for (IrisEngineChunkData i : chunkIndex.values()) {
             i.cleanup(engine);
 
             if (i.isEmpty()) {
-                getChunks().remove(i);
+                empty.add(i);
+            }
+        }
+
+        for (IrisEngineChunkData i : empty) {
+            chunkIndex.remove(i.getChunk());
+            dirtyRegions.add(Cache.key(Cache.keyX(i.getChunk()) >> 5, Cache.keyZ(i.getChunk()) >> 5));
+        }
+    }
+
+    /**
+     * Write all changed region shards to the chunk folder.
+     * Shards which no longer contain any chunk data are deleted.
+     */
+    public synchronized void saveChunks() {
+        if (chunkFolder == null || dirtyRegions.isEmpty()) {
+            return;
+        }
+
+        Long2ObjectMap<KList<IrisEngineChunkData>> shards = new Long2ObjectOpenHashMap<>();
+
+        for (long i : dirtyRegions) {
+            shards.put(i, new KList<>());
+        }
+
+        for (IrisEngineChunkData i : chunkIndex.values()) {
+            KList<IrisEngineChunkData> shard = shards.get(Cache.key(Cache.keyX(i.getChunk()) >> 5, Cache.keyZ(i.getChunk()) >> 5));
+
+            if (shard != null) {
+                shard.add(i);
+            }
+        }
+
+        for (Long2ObjectMap.Entry<KList<IrisEngineChunkData>> i : shards.long2ObjectEntrySet()) {
+            File f = fileForRegion(Cache.keyX(i.getLongKey()), Cache.keyZ(i.getLongKey()));
+
+            try {
+                if (i.getValue().isEmpty()) {
+                    if (f.exists()) {
+                        f.delete();
+                    }
+
+                    continue;
+                }
+
+                f.getParentFile().mkdirs();
+                File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+
+                try (DataOutputStream dos = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(tmp)))) {
+                    dos.writeInt(i.getValue().size());
+
+                    for (IrisEngineChunkData j : i.getValue()) {
+                        j.write(dos);
+                    }
+                }
+
+                if (f.exists()) {
+                    f.delete();
+                }
+
+                if (!tmp.renameTo(f)) {
+                    Iris.warn("Failed to move engine data shard into " + f.getAbsolutePath());
+                }
+            } catch (IOException e) {
+                Iris.error("Failed to save engine data shard " + f.getAbsolutePath());
+                Iris.reportError(e);
+                e.printStackTrace();
+            }
+        }
+
+        Iris.debug("Saved " + C.DARK_GREEN + shards.size() + C.GRAY + " engine data shards");
+        dirtyRegions.clear();
+    }
+
+    @RegionCoordinates
+    private void loadRegion(int x, int z) {
+        if (!loadedRegions.add(Cache.key(x, z)) || chunkFolder == null) {
+            return;
+        }
+
+        File f = fileForRegion(x, z);
+
+        if (!f.exists()) {
+            return;
+        }
+
+        try (DataInputStream din = new DataInputStream(new GZIPInputStream(new FileInputStream(f)))) {
+            int s = din.readInt();
+
+            for (int i = 0; i < s; i++) {
+                IrisEngineChunkData c = IrisEngineChunkData.read(din);
+                chunkIndex.putIfAbsent(c.getChunk(), c);
             }
+        } catch (Throwable e) {
+            Iris.error("Failed to read engine data shard " + f.getAbsolutePath() + ", ignoring it.");
+            Iris.reportError(e);
+            e.printStackTrace();
         }
     }
+
+    @RegionCoordinates
+    private File fileForRegion(int x, int z) {
+        return new File(chunkFolder, "r." + x + "." + z + ".ied");
+    }
 }
@@ -21,6 +21,7 @@ package com.volmit.iris.engine.platform;
 import com.volmit.iris.Iris;
 import com.volmit.iris.core.IrisSettings;
 import com.volmit.iris.core.nms.INMS;
+import com.volmit.iris.core.pregenerator.AdaptiveConcurrency;
 import com.volmit.iris.core.pregenerator.PregenListener;
 import com.volmit.iris.core.pregenerator.PregenTask;
 import com.volmit.iris.engine.data.chunk.MCATerrainChunk;
@@ -35,7 +36,6 @@ import com.volmit.iris.util.math.Position2;
 import com.volmit.iris.util.nbt.mca.MCAUtil;
 import com.volmit.iris.util.nbt.mca.NBTWorld;
 import com.volmit.iris.util.nbt.tag.CompoundTag;
-import com.volmit.iris.util.parallel.BurstExecutor;
 import com.volmit.iris.util.parallel.MultiBurst;
 import lombok.Data;
 import org.bukkit.Material;
@@ -44,6 +44,9 @@ import org.bukkit.generator.ChunkGenerator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 
 @Data
 public class HeadlessGenerator implements PlatformChunkGenerator {
@@ -52,11 +55,17 @@ public class HeadlessGenerator implements PlatformChunkGenerator {
     private final HeadlessWorld world;
     private final NBTWorld writer;
     private final MultiBurst burst;
+    private final AdaptiveConcurrency concurrency;
+    private final ConcurrentLinkedQueue<Runnable> pending;
     private final EngineProvider provider;
 
     public HeadlessGenerator(HeadlessWorld world) {
         this.world = world;
-        burst = new MultiBurst("Iris Headless Generator", 9, IrisSettings.getThreadCount(IrisSettings.get().getConcurrency().getPregenThreadCount()));
+        int threads = IrisSettings.getThreadCount(IrisSettings.get().getConcurrency().getPregenThreadCount());
+        // The pool is as large as the highest limit, the limit alone decides how many chunks run
+        burst = new MultiBurst("Iris Headless Generator", 9, threads * 2);
+        concurrency = new AdaptiveConcurrency(threads, threads * 2, false);
+        pending = new ConcurrentLinkedQueue<>();
         writer = new NBTWorld(world.getWorld().worldFolder());
         provider = new EngineProvider();
         provider.provideEngine(world.getWorld(), world.getDimension().getLoadKey(), world.getDimension().getLoader().getDataFolder(), isStudio(), (e) -> {
@@ -101,18 +110,80 @@ public class HeadlessGenerator implements PlatformChunkGenerator {
 
     @RegionCoordinates
     public void generateRegion(int x, int z, PregenListener listener) {
-        BurstExecutor e = burst.burst(1024);
-        PregenTask.iterateRegion(x, z, (ii, jj) -> e.queue(() -> {
-            if (listener != null) {
-                listener.onChunkGenerating(ii, jj);
-            }
-            generateChunk(ii, jj);
-            if (listener != null) {
-                listener.onChunkGenerated(ii, jj);
+        try {
+            queueRegion(x, z, listener).get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+            Iris.reportError(e);
+        }
+    }
+
+    /**
+     * Queue all chunks of a region without waiting for them. Once every chunk is generated,
+     * the region is written to disk and unloaded on the MCA writer thread.
+     *
+     * @return a future which completes once the region file has been written
+     */
+    @RegionCoordinates
+    public CompletableFuture<Void> generateRegionAsync(int x, int z, PregenListener listener) {
+        return queueRegion(x, z, listener).thenCompose((v) -> writer.queueSaveUnload(x, z));
+    }
+
+    /**
+     * Queue the chunks of a region without blocking the caller. Chunks are only handed to the
+     * generator threads while the adaptive limit has a free slot, so no pool thread ever waits for one.
+     */
+    @RegionCoordinates
+    private CompletableFuture<Void> queueRegion(int x, int z, PregenListener listener) {
+        KList<CompletableFuture<?>> chunks = new KList<>(1024);
+        PregenTask.iterateRegion(x, z, (ii, jj) -> {
+            CompletableFuture<Void> f = new CompletableFuture<>();
+            chunks.add(f);
+            pending.add(() -> {
+                try {
+                    if (listener != null) {
+                        listener.onChunkGenerating(ii, jj);
+                    }
+                    generateChunk(ii, jj);
+                    if (listener != null) {
+                        listener.onChunkGenerated(ii, jj);
+                    }
+                    f.complete(null);
+                } catch (Throwable e) {
+                    f.completeExceptionally(e);
+                }
+            });
+        });
+
+        dispatch();
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Start pending chunks for every free slot. Called whenever chunks are queued or one completes.
+     */
+    private void dispatch() {
+        while (concurrency.tryAcquire()) {
+            Runnable r = pending.poll();
+
+            if (r == null) {
+                concurrency.cancel();
+                return;
             }
-        }));
 
-        e.complete();
+            burst.complete(() -> {
+                try {
+                    r.run();
+                } finally {
+                    concurrency.release();
+                    dispatch();
+                }
+            });
+        }
+    }
+
+    public int getConcurrency() {
+        return concurrency.getLimit();
     }
 
     @RegionCoordinates
@@ -131,6 +202,8 @@ public class HeadlessGenerator implements PlatformChunkGenerator {
     }
 
     public void close() {
+        pending.clear();
+        concurrency.awaitIdle();
         burst.shutdownAndAwait();
         provider.close();
         writer.close();
@@ -0,0 +1,159 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.atomics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free, fixed memory latency histogram in the style of HdrHistogram. Values are
+ * recorded in milliseconds at microsecond resolution into log-linear buckets (32 linear
+ * sub buckets per power of two), so any percentile is accurate to within 2% from one
+ * microsecond up to several hours, and recording is a single atomic increment.
+ */
+public class AtomicHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR = SUB_COUNT * 2;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - SUB_BITS - 1) * SUB_COUNT;
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final DoubleAdder sum;
+    private final AtomicLong max;
+
+    public AtomicHistogram() {
+        buckets = new AtomicLongArray(BUCKETS);
+        count = new LongAdder();
+        sum = new DoubleAdder();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Record a value
+     *
+     * @param ms the value in milliseconds
+     */
+    public void put(double ms) {
+        long us = Math.max(0, (long) (ms * 1000D));
+        buckets.incrementAndGet(index(us));
+        count.increment();
+        sum.add(ms);
+        max.accumulateAndGet(us, Math::max);
+    }
+
+    /**
+     * Get the value at the given percentile
+     *
+     * @param percentile the percentile from 0 to 1
+     * @return the value in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentile(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, percentile)) * total));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if (seen >= rank) {
+                return Math.min(value(i), max.get()) / 1000D;
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Get several percentiles at once
+     *
+     * @param percentiles the percentiles from 0 to 1
+     * @return the values in milliseconds, in the same order
+     */
+    public double[] getPercentiles(double... percentiles) {
+        double[] v = new double[percentiles.length];
+
+        for (int i = 0; i < v.length; i++) {
+            v[i] = getPercentile(percentiles[i]);
+        }
+
+        return v;
+    }
+
+    public double getMax() {
+        return max.get() / 1000D;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int index(long us) {
+        if (us < LINEAR) {
+            return (int) us;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(us);
+
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+
+        int shift = exponent - SUB_BITS;
+        return LINEAR + (exponent - SUB_BITS - 1) * SUB_COUNT + (int) ((us >> shift) - SUB_COUNT);
+    }
+
+    private static long value(int index) {
+        if (index < LINEAR) {
+            return index;
+        }
+
+        int exponent = (index - LINEAR) / SUB_COUNT + SUB_BITS + 1;
+        long sub = (index - LINEAR) % SUB_COUNT + SUB_COUNT;
+        int shift = exponent - SUB_BITS;
+        return ((sub << shift) + ((sub + 1) << shift) - 1) / 2;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.atomics;
+
+/**
+ * A rolling sequence that also records every value into a histogram, so the
+ * recent average and the all time tail latencies come from the same put.
+ */
+public class AtomicRollingHistogram extends AtomicRollingSequence {
+    private final AtomicHistogram histogram;
+
+    public AtomicRollingHistogram(int size) {
+        super(size);
+        histogram = new AtomicHistogram();
+    }
+
+    @Override
+    public void put(double i) {
+        super.put(i);
+        histogram.put(i);
+    }
+
+    public AtomicHistogram getHistogram() {
+        return histogram;
+    }
+}
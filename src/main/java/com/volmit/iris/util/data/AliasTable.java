@@ -0,0 +1,133 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.util.data;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A weighted selection table using Vose's alias method. Building is O(n),
+ * picking is O(1) and neither picking nor holding the table expands entries by weight.
+ *
+ * @param <T> the type of values in the table
+ */
+public class AliasTable<T> {
+    private final Object[] values;
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Create an alias table
+     *
+     * @param values  the values
+     * @param weights the weight of each value (same order & length as values). Must be positive
+     */
+    public AliasTable(List<T> values, double[] weights) {
+        int n = values.size();
+        this.values = values.toArray();
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        if (n == 0) {
+            return;
+        }
+
+        double total = 0;
+
+        for (double i : weights) {
+            total += i;
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int s = 0;
+        int l = 0;
+
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+
+            if (scaled[i] < 1) {
+                small[s++] = i;
+            } else {
+                large[l++] = i;
+            }
+        }
+
+        while (s > 0 && l > 0) {
+            int less = small[--s];
+            int more = large[--l];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+
+            if (scaled[more] < 1) {
+                small[s++] = more;
+            } else {
+                large[l++] = more;
+            }
+        }
+
+        while (l > 0) {
+            probability[large[--l]] = 1;
+        }
+
+        while (s > 0) {
+            probability[small[--s]] = 1;
+        }
+    }
+
+    /**
+     * Pick a weighted value
+     *
+     * @param rng the random source
+     * @return the value or null if the table is empty
+     */
+    public T pick(Random rng) {
+        if (values.length == 0) {
+            return null;
+        }
+
+        return pick(rng.nextInt(values.length), rng.nextDouble());
+    }
+
+    /**
+     * Pick a weighted value from two uniform inputs (useful for hashed, allocation free selection)
+     *
+     * @param column any int, reduced into the table
+     * @param chance a value from 0 (inclusive) to 1 (exclusive)
+     * @return the value or null if the table is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T pick(int column, double chance) {
+        if (values.length == 0) {
+            return null;
+        }
+
+        int i = Math.floorMod(column, values.length);
+        return (T) (chance < probability[i] ? values[i] : values[alias[i]]);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.util.data;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A weighted palette that keeps each entry once alongside a cumulative weight table. Indexing by
+ * weight resolves through a binary search, so it behaves exactly like a list where every entry
+ * is repeated weight times, without ever building that list.
+ *
+ * @param <T> the type of values in the palette
+ */
+public class WeightedPalette<T> implements Iterable<T> {
+    private final Object[] values;
+    private final int[] ends;
+    private final int total;
+
+    /**
+     * Create a weighted palette. Entries with a weight of zero or less are dropped
+     *
+     * @param values  the values
+     * @param weights the weight of each value (same order & length as values)
+     */
+    public WeightedPalette(List<T> values, int[] weights) {
+        int n = 0;
+
+        for (int i : weights) {
+            if (i > 0) {
+                n++;
+            }
+        }
+
+        this.values = new Object[n];
+        this.ends = new int[n];
+        int t = 0;
+        int k = 0;
+
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                t += weights[i];
+                this.values[k] = values.get(i);
+                this.ends[k++] = t;
+            }
+        }
+
+        this.total = t;
+    }
+
+    /**
+     * Get the value at a weighted index, as if the palette was expanded by weight
+     *
+     * @param index the weighted index from 0 to {@link #getTotalWeight()} (exclusive)
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= total) {
+            throw new IndexOutOfBoundsException("Weighted index " + index + " out of bounds for total weight " + total);
+        }
+
+        int lo = 0;
+        int hi = ends.length - 1;
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (ends[mid] <= index) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return (T) values[lo];
+    }
+
+    /**
+     * Get a distinct entry of this palette
+     *
+     * @param i the entry index from 0 to {@link #size()} (exclusive)
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    public T getEntry(int i) {
+        return (T) values[i];
+    }
+
+    /**
+     * @return the number of distinct entries
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @return the sum of all weights, which is the size the expanded list would have
+     */
+    public int getTotalWeight() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < values.length;
+            }
+
+            @Override
+            public T next() {
+                if (i >= values.length) {
+                    throw new NoSuchElementException();
+                }
+
+                return getEntry(i++);
+            }
+        };
+    }
+}
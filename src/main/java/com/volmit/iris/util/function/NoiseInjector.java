@@ -18,7 +18,29 @@
 
 package com.volmit.iris.util.function;
 
+/**
+ * Combines a child noise value into its parent. The weight is added to the divisor of the
+ * combined noise once per child, so injectors that sum values (like ADD) keep the result in range.
+ */
 @FunctionalInterface
 public interface NoiseInjector {
-    double[] combine(double src, double value);
+    double combine(double src, double value);
+
+    default double getWeight() {
+        return 0;
+    }
+
+    static NoiseInjector of(double weight, NoiseInjector combiner) {
+        return new NoiseInjector() {
+            @Override
+            public double combine(double src, double value) {
+                return combiner.combine(src, value);
+            }
+
+            @Override
+            public double getWeight() {
+                return weight;
+            }
+        };
+    }
 }
@@ -122,6 +122,15 @@ public interface Hunk<T> {
         return new WriteTrackHunk<T>(this, b);
     }
 
+    /**
+     * View this hunk in 4x4x4 cells, where each cell is read & written through its lowest block
+     *
+     * @return the cell view
+     */
+    default Hunk<T> viewCells() {
+        return new CellHunkView<>(this);
+    }
+
     static <T> Hunk<T> newArrayHunk(int w, int h, int d) {
         return new ArrayHunk<>(w, h, d);
     }
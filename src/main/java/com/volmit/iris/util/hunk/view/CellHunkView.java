@@ -0,0 +1,66 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.util.hunk.view;
+
+import com.volmit.iris.util.hunk.Hunk;
+
+/**
+ * A view of a hunk in 4x4x4 cells (the native resolution minecraft stores biomes in).
+ * Cell coordinates map to the lowest block of each cell in the source hunk, so writes
+ * only touch one block per cell.
+ *
+ * @param <T> the type
+ */
+@SuppressWarnings("ClassCanBeRecord")
+public class CellHunkView<T> implements Hunk<T> {
+    private final Hunk<T> src;
+
+    public CellHunkView(Hunk<T> src) {
+        this.src = src;
+    }
+
+    @Override
+    public void setRaw(int x, int y, int z, T t) {
+        src.setRaw(x << 2, y << 2, z << 2, t);
+    }
+
+    @Override
+    public T getRaw(int x, int y, int z) {
+        return src.getRaw(x << 2, y << 2, z << 2);
+    }
+
+    @Override
+    public int getWidth() {
+        return src.getWidth() >> 2;
+    }
+
+    @Override
+    public int getHeight() {
+        return src.getHeight() >> 2;
+    }
+
+    @Override
+    public int getDepth() {
+        return src.getDepth() >> 2;
+    }
+
+    @Override
+    public Hunk<T> getSource() {
+        return src;
+    }
+}
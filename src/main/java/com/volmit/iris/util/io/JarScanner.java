@@ -50,6 +50,12 @@ public class JarScanner {
      */
     public void scan() throws IOException {
         classes.clear();
+
+        if (jar.isDirectory()) {
+            scanDirectory(jar, "");
+            return;
+        }
+
         FileInputStream fin = new FileInputStream(jar);
         ZipInputStream zip = new ZipInputStream(fin);
 
@@ -59,23 +65,48 @@ public class JarScanner {
                     continue;
                 }
 
-                String c = entry.getName().replaceAll("/", ".").replace(".class", "");
-
-                if (c.startsWith(superPackage)) {
-                    try {
-                        Class<?> clazz = Class.forName(c);
-                        classes.add(clazz);
-                    } catch (ClassNotFoundException e) {
-                        Iris.reportError(e);
-                        e.printStackTrace();
-                    }
-                }
+                add(entry.getName().replaceAll("/", ".").replace(".class", ""));
             }
         }
 
         zip.close();
     }
 
+    /**
+     * Scan an exploded classes directory, like the one the IDE, the headless runner or
+     * the benchmarks load Iris from
+     *
+     * @param folder the folder to scan
+     * @param prefix the package of the folder
+     */
+    private void scanDirectory(File folder, String prefix) {
+        File[] files = folder.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        for (File i : files) {
+            if (i.isDirectory()) {
+                scanDirectory(i, prefix + i.getName() + ".");
+            } else if (i.getName().endsWith(".class") && !i.getName().contains("$")) {
+                add(prefix + i.getName().replace(".class", ""));
+            }
+        }
+    }
+
+    private void add(String c) {
+        if (c.startsWith(superPackage)) {
+            try {
+                Class<?> clazz = Class.forName(c);
+                classes.add(clazz);
+            } catch (ClassNotFoundException e) {
+                Iris.reportError(e);
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Get the scanned clases
      *
@@ -20,6 +20,7 @@ package com.volmit.iris.util.mantle;
 
 import com.volmit.iris.Iris;
 import com.volmit.iris.engine.data.cache.Cache;
+import com.volmit.iris.util.atomics.AtomicRollingHistogram;
 import com.volmit.iris.util.collection.KMap;
 import com.volmit.iris.util.collection.KSet;
 import com.volmit.iris.util.documentation.BlockCoordinates;
@@ -33,6 +34,7 @@ import com.volmit.iris.util.matter.Matter;
 import com.volmit.iris.util.parallel.BurstExecutor;
 import com.volmit.iris.util.parallel.HyperLock;
 import com.volmit.iris.util.parallel.MultiBurst;
+import com.volmit.iris.util.scheduling.PrecisionStopwatch;
 
 import java.io.File;
 import java.io.IOException;
@@ -57,6 +59,8 @@ public class Mantle {
     private final AtomicBoolean closed;
     private final MultiBurst ioBurst;
     private final AtomicBoolean io;
+    private final AtomicRollingHistogram loadTimes;
+    private final AtomicRollingHistogram saveTimes;
 
     /**
      * Create a new mantle
@@ -75,18 +79,53 @@ public class Mantle {
         unload = new KSet<>();
         loadedRegions = new KMap<>();
         lastUse = new KMap<>();
+        loadTimes = new AtomicRollingHistogram(32);
+        saveTimes = new AtomicRollingHistogram(32);
         ioBurst = new MultiBurst("Iris Mantle[" + dataFolder.hashCode() + "]", Thread.MIN_PRIORITY, Runtime.getRuntime().availableProcessors() / 2);
         Iris.debug("Opened The Mantle " + C.DARK_AQUA + dataFolder.getAbsolutePath());
     }
 
+    /**
+     * Run the runnable and raise the flag if the flag was not raised yet. If another thread
+     * is running it for this flag right now, wait for that thread to finish instead.
+     */
     @ChunkCoordinates
     public void raiseFlag(int x, int z, MantleFlag flag, Runnable r) {
-        if (!hasFlag(x, z, flag)) {
-            flag(x, z, flag, true);
-            r.run();
+        if (claimFlag(x, z, flag)) {
+            try {
+                r.run();
+            } finally {
+                completeFlag(x, z, flag);
+            }
+        } else {
+            awaitFlag(x, z, flag);
         }
     }
 
+    /**
+     * Claim a flag. The caller owns the work behind it and must call
+     * {@link #completeFlag(int, int, MantleFlag)} once it is done, even if it failed.
+     *
+     * @return true if the flag was claimed, false if it was already claimed or raised
+     */
+    @ChunkCoordinates
+    public boolean claimFlag(int x, int z, MantleFlag flag) {
+        return get(x >> 5, z >> 5).getOrCreate(x & 31, z & 31).claimFlag(flag);
+    }
+
+    @ChunkCoordinates
+    public void completeFlag(int x, int z, MantleFlag flag) {
+        get(x >> 5, z >> 5).getOrCreate(x & 31, z & 31).completeFlag(flag);
+    }
+
+    /**
+     * Wait until the flag is no longer claimed by another thread
+     */
+    @ChunkCoordinates
+    public void awaitFlag(int x, int z, MantleFlag flag) {
+        get(x >> 5, z >> 5).getOrCreate(x & 31, z & 31).awaitFlag(flag);
+    }
+
     @ChunkCoordinates
     public void lowerFlag(int x, int z, MantleFlag flag, Runnable r) {
         if (hasFlag(x, z, flag)) {
@@ -116,6 +155,24 @@ public class Mantle {
         return get(x >> 5, z >> 5).getOrCreate(x & 31, z & 31).isFlagged(flag);
     }
 
+    /**
+     * Get (or create) the mantle chunk at the given chunk position. This resolves the
+     * tectonic plate once so callers writing many blocks into the same chunk (see {@link MantleBatch})
+     * do not pay the region lookup per block.
+     *
+     * @param x the chunk x
+     * @param z the chunk z
+     * @return the mantle chunk
+     */
+    @ChunkCoordinates
+    public MantleChunk getChunk(int x, int z) {
+        if (closed.get()) {
+            throw new RuntimeException("The Mantle is closed");
+        }
+
+        return get(x >> 5, z >> 5).getOrCreate(x & 31, z & 31);
+    }
+
     /**
      * Set data T at the given block position. This method will attempt to find a
      * Tectonic Plate either by loading it or creating a new one. This method uses
@@ -187,7 +244,7 @@ public class Mantle {
         for (Long i : loadedRegions.keySet()) {
             b.queue(() -> {
                 try {
-                    loadedRegions.get(i).write(fileForRegion(dataFolder, i));
+                    write(loadedRegions.get(i), fileForRegion(dataFolder, i));
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -228,7 +285,7 @@ public class Mantle {
                 lastUse.remove(i);
 
                 try {
-                    m.write(fileForRegion(dataFolder, i));
+                    write(m, fileForRegion(dataFolder, i));
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -314,7 +371,9 @@ public class Mantle {
 
             if (file.exists()) {
                 try {
+                    PrecisionStopwatch p = PrecisionStopwatch.start();
                     region = TectonicPlate.read(worldHeight, file);
+                    loadTimes.put(p.getMilliseconds());
                     loadedRegions.put(k, region);
                     Iris.debug("Loaded Tectonic Plate " + C.DARK_GREEN + x + " " + z + C.DARK_AQUA + " " + file.getName());
                 } catch (Throwable e) {
@@ -336,6 +395,55 @@ public class Mantle {
         }));
     }
 
+    /**
+     * Start loading a tectonic plate without waiting for it
+     *
+     * @param x the region x
+     * @param z the region z
+     * @return the future of the plate
+     */
+    @RegionCoordinates
+    public CompletableFuture<TectonicPlate> prefetch(int x, int z) {
+        if (closed.get()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return getSafe(x, z);
+    }
+
+    @RegionCoordinates
+    public boolean isLoaded(int x, int z) {
+        return loadedRegions.containsKey(key(x, z));
+    }
+
+    public int getLoadedRegionCount() {
+        return loadedRegions.size();
+    }
+
+    private void write(TectonicPlate plate, File file) throws IOException {
+        PrecisionStopwatch p = PrecisionStopwatch.start();
+        plate.write(file);
+        saveTimes.put(p.getMilliseconds());
+    }
+
+    /**
+     * Get the time it took to read tectonic plates from disk
+     *
+     * @return the load timings in milliseconds
+     */
+    public AtomicRollingHistogram getLoadTimes() {
+        return loadTimes;
+    }
+
+    /**
+     * Get the time it took to write tectonic plates to disk
+     *
+     * @return the save timings in milliseconds
+     */
+    public AtomicRollingHistogram getSaveTimes() {
+        return saveTimes;
+    }
+
     public static File fileForRegion(File folder, int x, int z) {
         return fileForRegion(folder, key(x, z));
     }
@@ -0,0 +1,184 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.mantle;
+
+import com.volmit.iris.util.collection.KMap;
+import com.volmit.iris.util.documentation.BlockCoordinates;
+import com.volmit.iris.util.matter.Matter;
+import com.volmit.iris.util.matter.MatterSlice;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Buffers block writes for a single placement and commits them to the mantle one
+ * mantle chunk at a time. Each touched chunk is resolved once, instead of walking
+ * mantle -> plate -> chunk -> section for every block. The slices are written the same
+ * way {@link Mantle#set(int, int, int, Object)} writes them, so a commit is exactly as
+ * safe as the individual sets would have been. Writes are replayed in the order they
+ * were made, so later writes still win.
+ * <p>
+ * A batch is not thread safe, use one per placement.
+ */
+public class MantleBatch {
+    private final Mantle mantle;
+    private final KMap<Long, Writes> chunks;
+    private Writes last;
+
+    public MantleBatch(Mantle mantle) {
+        this.mantle = mantle;
+        this.chunks = new KMap<>();
+    }
+
+    /**
+     * Queue data T at the given block position. Nothing is written until {@link #commit()}
+     *
+     * @param x   the block's x coordinate
+     * @param y   the block's y coordinate
+     * @param z   the block's z coordinate
+     * @param t   the data to set at the block
+     * @param <T> the type of data (generic method)
+     */
+    @BlockCoordinates
+    public <T> void set(int x, int y, int z, T t) {
+        int cx = x >> 4;
+        int cz = z >> 4;
+        Writes w = last;
+
+        if (w == null || w.x != cx || w.z != cz) {
+            w = chunks.computeIfAbsent(key(cx, cz), (k) -> new Writes(cx, cz));
+            last = w;
+        }
+
+        w.add((x & 15) | ((z & 15) << 4) | (y << 8), t);
+    }
+
+    /**
+     * Get the latest queued data of the given type at a block position without committing
+     *
+     * @param x the block's x coordinate
+     * @param y the block's y coordinate
+     * @param z the block's z coordinate
+     * @param t the class representing the type of data you want
+     * @return the queued data or null if nothing of that type is queued there
+     */
+    @BlockCoordinates
+    @SuppressWarnings("unchecked")
+    public <T> T get(int x, int y, int z, Class<T> t) {
+        Writes w = chunks.get(key(x >> 4, z >> 4));
+
+        if (w == null) {
+            return null;
+        }
+
+        int p = (x & 15) | ((z & 15) << 4) | (y << 8);
+
+        for (int i = w.latest.get(p); i >= 0; i--) {
+            if (w.positions[i] == p && t.isInstance(w.values[i])) {
+                return (T) w.values[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if there are no queued writes
+     */
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * Write all queued data into the mantle, one pass per touched mantle chunk,
+     * then clear the batch so it can be reused.
+     */
+    @SuppressWarnings("unchecked")
+    public void commit() {
+        if (chunks.isEmpty()) {
+            return;
+        }
+
+        for (Writes w : chunks.values()) {
+            MantleChunk chunk = mantle.getChunk(w.x, w.z);
+            int section = Integer.MIN_VALUE;
+            Matter matter = null;
+            Class<?> type = null;
+            MatterSlice<Object> slice = null;
+
+            for (int i = 0; i < w.size; i++) {
+                int p = w.positions[i];
+                int y = p >> 8;
+                Object t = w.values[i];
+
+                if (y >> 4 != section) {
+                    section = y >> 4;
+                    matter = chunk.getOrCreate(section);
+                    type = null;
+                }
+
+                Class<?> c = matter.getClass(t);
+
+                if (c != type) {
+                    type = c;
+                    slice = matter.slice(c);
+                }
+
+                slice.set(p & 15, y & 15, (p >> 4) & 15, t);
+            }
+        }
+
+        chunks.clear();
+        last = null;
+    }
+
+    private static long key(int x, int z) {
+        return (((long) x) << 32) | (z & 0xffffffffL);
+    }
+
+    private static class Writes {
+        private final int x;
+        private final int z;
+        private final Int2IntOpenHashMap latest;
+        private int[] positions;
+        private Object[] values;
+        private int size;
+
+        private Writes(int x, int z) {
+            this.x = x;
+            this.z = z;
+            this.latest = new Int2IntOpenHashMap();
+            this.latest.defaultReturnValue(-1);
+            this.positions = new int[64];
+            this.values = new Object[64];
+            this.size = 0;
+        }
+
+        private void add(int position, Object value) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size << 1);
+                values = Arrays.copyOf(values, size << 1);
+            }
+
+            latest.put(position, size);
+            positions[size] = position;
+            values[size++] = value;
+        }
+    }
+}
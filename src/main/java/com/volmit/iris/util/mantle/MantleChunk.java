@@ -80,6 +80,52 @@ public class MantleChunk {
         flags.set(flag.ordinal(), f ? 1 : 0);
     }
 
+    /**
+     * Atomically claim a flag which is about to be raised. A claimed flag is not raised yet,
+     * other threads calling {@link #awaitFlag(MantleFlag)} block until it is completed.
+     * Claimed flags are saved as lowered.
+     *
+     * @param flag the flag
+     * @return true if this call claimed it, false if it was already claimed or raised
+     */
+    public boolean claimFlag(MantleFlag flag) {
+        return flags.compareAndSet(flag.ordinal(), 0, 2);
+    }
+
+    /**
+     * Raise a claimed flag and wake up anything waiting on it
+     *
+     * @param flag the flag
+     */
+    public void completeFlag(MantleFlag flag) {
+        synchronized (flags) {
+            flags.set(flag.ordinal(), 1);
+            flags.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until the flag is no longer claimed by another thread
+     *
+     * @param flag the flag
+     */
+    public void awaitFlag(MantleFlag flag) {
+        if (flags.get(flag.ordinal()) != 2) {
+            return;
+        }
+
+        synchronized (flags) {
+            while (flags.get(flag.ordinal()) == 2) {
+                try {
+                    flags.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
     public boolean isFlagged(MantleFlag flag) {
         return flags.get(flag.ordinal()) == 1;
     }
@@ -0,0 +1,73 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.util.math;
+
+/**
+ * Stateless, allocation free random values for generator hot paths. {@link #compatInt(long, int)}
+ * reproduces exactly what a fresh {@code new RNG(seed)} would return for its first nextInt, and
+ * {@link #parallel(long, long)} reproduces the seed of {@link RNG#nextParallelRNG(long)}, so neither
+ * has to build an {@link RNG}.
+ */
+public final class HashRNG {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private HashRNG() {
+
+    }
+
+    /**
+     * The seed {@code new RNG(seed).nextParallelRNG(signature)} would use
+     */
+    public static long parallel(long seed, long signature) {
+        return seed + signature;
+    }
+
+    /**
+     * Same as {@code new RNG(seed).nextInt(bound)}
+     */
+    public static int compatInt(long seed, int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("bound must be positive");
+        }
+
+        long s = scramble(seed);
+        s = step(s);
+        int r = (int) (s >>> 17);
+        int m = bound - 1;
+
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (s >>> 17)) {
+            s = step(s);
+        }
+
+        return r;
+    }
+
+    private static long scramble(long seed) {
+        return (seed ^ MULTIPLIER) & MASK;
+    }
+
+    private static long step(long s) {
+        return (s * MULTIPLIER + ADDEND) & MASK;
+    }
+}
@@ -236,7 +236,7 @@ public class Chunk {
                 return -1;
             }
             int biomeX = (blockX & 0xF) >> 2;
-            int biomeY = (blockY & 0xF) >> 2;
+            int biomeY = Math.max(0, Math.min(63, blockY >> 2));
             int biomeZ = (blockZ & 0xF) >> 2;
 
             return biomes[getBiomeIndex(biomeX, biomeY, biomeZ)];
@@ -291,12 +291,14 @@ public class Chunk {
             int biomeX = (blockX & 0xF) >> 2;
             int biomeZ = (blockZ & 0xF) >> 2;
 
-            biomes[getBiomeIndex(biomeX, blockY, biomeZ)] = biomeID;
+            int biomeY = Math.max(0, Math.min(63, blockY >> 2));
+
+            biomes[getBiomeIndex(biomeX, biomeY, biomeZ)] = biomeID;
         }
     }
 
     int getBiomeIndex(int biomeX, int biomeY, int biomeZ) {
-        return biomeY * 64 + biomeZ * 4 + biomeX;
+        return biomeY * 16 + biomeZ * 4 + biomeX;
     }
 
     public CompoundTag getBlockStateAt(int blockX, int blockY, int blockZ) {
@@ -35,6 +35,7 @@ import org.bukkit.block.data.BlockData;
 import java.io.File;
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -89,8 +90,8 @@ public class NBTWorld {
         regionLock.unlock();
     }
 
-    public void queueSaveUnload(int x, int z) {
-        saveQueue.submit(() -> doSaveUnload(x, z));
+    public CompletableFuture<Void> queueSaveUnload(int x, int z) {
+        return CompletableFuture.runAsync(() -> doSaveUnload(x, z), saveQueue);
     }
 
     public void doSaveUnload(int x, int z) {
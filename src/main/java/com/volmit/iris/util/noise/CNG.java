@@ -21,6 +21,7 @@ package com.volmit.iris.util.noise;
 import com.volmit.iris.Iris;
 import com.volmit.iris.engine.object.common.IRare;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.data.WeightedPalette;
 import com.volmit.iris.util.function.NoiseInjector;
 import com.volmit.iris.util.interpolation.IrisInterpolation;
 import com.volmit.iris.util.math.RNG;
@@ -29,22 +30,23 @@ import com.volmit.iris.util.stream.arithmetic.FittedStream;
 import com.volmit.iris.util.stream.sources.CNGStream;
 import lombok.Data;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Data
 public class CNG {
     public static long hits = 0;
     public static long creates = 0;
-    public static final NoiseInjector ADD = (s, v) -> new double[]{s + v, 1};
-    public static final NoiseInjector SRC_SUBTRACT = (s, v) -> new double[]{s - v < 0 ? 0 : s - v, -1};
-    public static final NoiseInjector DST_SUBTRACT = (s, v) -> new double[]{v - s < 0 ? 0 : s - v, -1};
-    public static final NoiseInjector MULTIPLY = (s, v) -> new double[]{s * v, 0};
-    public static final NoiseInjector MAX = (s, v) -> new double[]{Math.max(s, v), 0};
-    public static final NoiseInjector MIN = (s, v) -> new double[]{Math.min(s, v), 0};
-    public static final NoiseInjector SRC_MOD = (s, v) -> new double[]{s % v, 0};
-    public static final NoiseInjector SRC_POW = (s, v) -> new double[]{Math.pow(s, v), 0};
-    public static final NoiseInjector DST_MOD = (s, v) -> new double[]{v % s, 0};
-    public static final NoiseInjector DST_POW = (s, v) -> new double[]{Math.pow(v, s), 0};
+    public static final NoiseInjector ADD = NoiseInjector.of(1, (s, v) -> s + v);
+    public static final NoiseInjector SRC_SUBTRACT = NoiseInjector.of(-1, (s, v) -> s - v < 0 ? 0 : s - v);
+    public static final NoiseInjector DST_SUBTRACT = NoiseInjector.of(-1, (s, v) -> v - s < 0 ? 0 : s - v);
+    public static final NoiseInjector MULTIPLY = (s, v) -> s * v;
+    public static final NoiseInjector MAX = Math::max;
+    public static final NoiseInjector MIN = Math::min;
+    public static final NoiseInjector SRC_MOD = (s, v) -> s % v;
+    public static final NoiseInjector SRC_POW = Math::pow;
+    public static final NoiseInjector DST_MOD = (s, v) -> v % s;
+    public static final NoiseInjector DST_POW = (s, v) -> Math.pow(v, s);
     private double scale;
     private double bakedScale;
     private double fscale;
@@ -304,6 +306,24 @@ public class CNG {
         return v[fit(0, v.length - 1, dim)];
     }
 
+    public <T> T fit(WeightedPalette<T> v, double... dim) {
+        if (v.isEmpty()) {
+            return null;
+        }
+
+        if (v.getTotalWeight() == 1) {
+            return v.get(0);
+        }
+
+        try {
+            return v.get(fit(0, v.getTotalWeight() - 1, dim));
+        } catch (Throwable e) {
+            Iris.reportError(e);
+        }
+
+        return v.get(0);
+    }
+
     public <T> T fit(List<T> v, double... dim) {
         if (v.size() == 0) {
             return null;
@@ -352,28 +372,200 @@ public class CNG {
         return IrisInterpolation.lerp(min, max, noise);
     }
 
-    private double getNoise(double... dim) {
+    public <T> T fit(T[] v, double x, double z) {
+        if (v.length == 0) {
+            return null;
+        }
+
+        if (v.length == 1) {
+            return v[0];
+        }
+
+        return v[fit(0, v.length - 1, x, z)];
+    }
+
+    public <T> T fit(WeightedPalette<T> v, double x, double z) {
+        if (v.isEmpty()) {
+            return null;
+        }
+
+        if (v.getTotalWeight() == 1) {
+            return v.get(0);
+        }
+
+        try {
+            return v.get(fit(0, v.getTotalWeight() - 1, x, z));
+        } catch (Throwable e) {
+            Iris.reportError(e);
+        }
+
+        return v.get(0);
+    }
+
+    public <T> T fit(List<T> v, double x, double z) {
+        if (v.size() == 0) {
+            return null;
+        }
+
+        if (v.size() == 1) {
+            return v.get(0);
+        }
+
+        try {
+            return v.get(fit(0, v.size() - 1, x, z));
+        } catch (Throwable e) {
+            Iris.reportError(e);
+        }
+
+        return v.get(0);
+    }
+
+    public int fit(int min, int max, double x, double z) {
+        if (min == max) {
+            return min;
+        }
+
+        return (int) Math.round(IrisInterpolation.lerp(min, max, noise2(x, z)));
+    }
+
+    public int fit(double min, double max, double x, double z) {
+        if (min == max) {
+            return (int) Math.round(min);
+        }
+
+        return (int) Math.round(IrisInterpolation.lerp(min, max, noise2(x, z)));
+    }
+
+    public double fitDouble(double min, double max, double x, double z) {
+        if (min == max) {
+            return min;
+        }
+
+        return IrisInterpolation.lerp(min, max, noise2(x, z));
+    }
+
+    private double getNoise1(double x) {
+        double scale = noscale ? 1 : this.bakedScale * this.scale;
+
+        if (fracture == null || noscale) {
+            return generator.noise(x * scale, 0, 0) * opacity;
+        }
+
+        if (fracture.isTrueFracturing()) {
+            return generator.noise((x + ((fracture.noise1(x) - 0.5) * fscale)) * scale, 0, 0) * opacity;
+        }
+
+        return generator.noise((x + fracture.noise1(x) * fscale) * scale, 0, 0) * opacity;
+    }
+
+    private double getNoise2(double x, double z) {
         double scale = noscale ? 1 : this.bakedScale * this.scale;
 
         if (fracture == null || noscale) {
-            return generator.noise(
-                    (dim.length > 0 ? dim[0] : 0D) * scale,
-                    (dim.length > 1 ? dim[1] : 0D) * scale,
-                    (dim.length > 2 ? dim[2] : 0D) * scale) * opacity;
+            return generator.noise(x * scale, z * scale, 0) * opacity;
         }
 
         if (fracture.isTrueFracturing()) {
-            double x = dim.length > 0 ? dim[0] + ((fracture.noise(dim) - 0.5) * fscale) : 0D;
-            double y = dim.length > 1 ? dim[1] + ((fracture.noise(dim[1], dim[0]) - 0.5) * fscale) : 0D;
-            double z = dim.length > 2 ? dim[2] + ((fracture.noise(dim[2], dim[0], dim[1]) - 0.5) * fscale) : 0D;
+            double fx = x + ((fracture.noise2(x, z) - 0.5) * fscale);
+            double fz = z + ((fracture.noise2(z, x) - 0.5) * fscale);
+            return generator.noise(fx * scale, fz * scale, 0) * opacity;
+        }
+
+        double f = fracture.noise2(x, z) * fscale;
+        return generator.noise((x + f) * scale, (z - f) * scale, 0) * opacity;
+    }
+
+    private double getNoise3(double x, double y, double z) {
+        double scale = noscale ? 1 : this.bakedScale * this.scale;
+
+        if (fracture == null || noscale) {
             return generator.noise(x * scale, y * scale, z * scale) * opacity;
         }
 
-        double f = fracture.noise(dim) * fscale;
-        double x = dim.length > 0 ? dim[0] + f : 0D;
-        double y = dim.length > 1 ? dim[1] - f : 0D;
-        double z = dim.length > 2 ? dim[2] - f : 0D;
-        return generator.noise(x * scale, y * scale, z * scale) * opacity;
+        if (fracture.isTrueFracturing()) {
+            double fx = x + ((fracture.noise3(x, y, z) - 0.5) * fscale);
+            double fy = y + ((fracture.noise2(y, x) - 0.5) * fscale);
+            double fz = z + ((fracture.noise3(z, x, y) - 0.5) * fscale);
+            return generator.noise(fx * scale, fy * scale, fz * scale) * opacity;
+        }
+
+        double f = fracture.noise3(x, y, z) * fscale;
+        return generator.noise((x + f) * scale, (y - f) * scale, (z - f) * scale) * opacity;
+    }
+
+    private void getNoise2(double[] xs, double[] zs, double[] out) {
+        double scale = noscale ? 1 : this.bakedScale * this.scale;
+        double[] fx = new double[out.length];
+        double[] fz = new double[out.length];
+
+        if (fracture == null || noscale) {
+            for (int i = 0; i < out.length; i++) {
+                fx[i] = xs[i] * scale;
+                fz[i] = zs[i] * scale;
+            }
+        } else if (fracture.isTrueFracturing()) {
+            fracture.noise2(xs, zs, fx);
+            fracture.noise2(zs, xs, fz);
+
+            for (int i = 0; i < out.length; i++) {
+                fx[i] = (xs[i] + ((fx[i] - 0.5) * fscale)) * scale;
+                fz[i] = (zs[i] + ((fz[i] - 0.5) * fscale)) * scale;
+            }
+        } else {
+            fracture.noise2(xs, zs, fx);
+
+            for (int i = 0; i < out.length; i++) {
+                double f = fx[i] * fscale;
+                fx[i] = (xs[i] + f) * scale;
+                fz[i] = (zs[i] - f) * scale;
+            }
+        }
+
+        generator.noise(fx, fz, null, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] *= opacity;
+        }
+    }
+
+    private void getNoise3(double[] xs, double[] ys, double[] zs, double[] out) {
+        double scale = noscale ? 1 : this.bakedScale * this.scale;
+        double[] fx = new double[out.length];
+        double[] fy = new double[out.length];
+        double[] fz = new double[out.length];
+
+        if (fracture == null || noscale) {
+            for (int i = 0; i < out.length; i++) {
+                fx[i] = xs[i] * scale;
+                fy[i] = ys[i] * scale;
+                fz[i] = zs[i] * scale;
+            }
+        } else if (fracture.isTrueFracturing()) {
+            fracture.noise3(xs, ys, zs, fx);
+            fracture.noise2(ys, xs, fy);
+            fracture.noise3(zs, xs, ys, fz);
+
+            for (int i = 0; i < out.length; i++) {
+                fx[i] = (xs[i] + ((fx[i] - 0.5) * fscale)) * scale;
+                fy[i] = (ys[i] + ((fy[i] - 0.5) * fscale)) * scale;
+                fz[i] = (zs[i] + ((fz[i] - 0.5) * fscale)) * scale;
+            }
+        } else {
+            fracture.noise3(xs, ys, zs, fx);
+
+            for (int i = 0; i < out.length; i++) {
+                double f = fx[i] * fscale;
+                fx[i] = (xs[i] + f) * scale;
+                fy[i] = (ys[i] - f) * scale;
+                fz[i] = (zs[i] - f) * scale;
+            }
+        }
+
+        generator.noise(fx, fy, fz, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] *= opacity;
+        }
     }
 
     public double invertNoise(double... dim) {
@@ -388,24 +580,211 @@ public class CNG {
         return noise(dim);
     }
 
+    /**
+     * Sample noise with any number of dimensions. Prefer the fixed arity overloads, which
+     * java picks automatically for 1 to 3 arguments and which do not allocate.
+     */
     public double noise(double... dim) {
-        double n = getNoise(dim);
-        n = power != 1D ? (n < 0 ? -Math.pow(Math.abs(n), power) : Math.pow(n, power)) : n;
+        switch (dim.length) {
+            case 0:
+                return noise1(0);
+            case 1:
+                return noise1(dim[0]);
+            case 2:
+                return noise2(dim[0], dim[1]);
+            default:
+                return noise3(dim[0], dim[1], dim[2]);
+        }
+    }
+
+    public double noise(double x) {
+        return noise1(x);
+    }
+
+    public double noise(double x, double z) {
+        return noise2(x, z);
+    }
+
+    public double noise(double x, double y, double z) {
+        return noise3(x, y, z);
+    }
+
+    public double noise1(double x) {
+        double n = power(getNoise1(x));
+        hits += oct;
+
+        if (children == null) {
+            return (n - down + up) * patch;
+        }
+
         double m = 1;
+
+        for (int i = 0; i < children.size(); i++) {
+            n = injector.combine(n, children.get(i).noise1(x));
+            m += injector.getWeight();
+        }
+
+        return ((n / m) - down + up) * patch;
+    }
+
+    public double noise2(double x, double z) {
+        double n = power(getNoise2(x, z));
         hits += oct;
+
         if (children == null) {
             return (n - down + up) * patch;
         }
 
-        for (CNG i : children) {
-            double[] r = injector.combine(n, i.noise(dim));
-            n = r[0];
-            m += r[1];
+        double m = 1;
+
+        for (int i = 0; i < children.size(); i++) {
+            n = injector.combine(n, children.get(i).noise2(x, z));
+            m += injector.getWeight();
         }
 
         return ((n / m) - down + up) * patch;
     }
 
+    public double noise3(double x, double y, double z) {
+        double n = power(getNoise3(x, y, z));
+        hits += oct;
+
+        if (children == null) {
+            return (n - down + up) * patch;
+        }
+
+        double m = 1;
+
+        for (int i = 0; i < children.size(); i++) {
+            n = injector.combine(n, children.get(i).noise3(x, y, z));
+            m += injector.getWeight();
+        }
+
+        return ((n / m) - down + up) * patch;
+    }
+
+    /**
+     * Batched {@link #noise2(double, double)}, out[i] receives the noise at (xs[i], zs[i]). Every
+     * node in the graph hands the whole batch to its generator at once instead of point by point,
+     * the values are the same as sampling each point on its own.
+     *
+     * @param xs  the x coordinates
+     * @param zs  the z coordinates
+     * @param out the results, its length is the batch size
+     */
+    public void noise2(double[] xs, double[] zs, double[] out) {
+        getNoise2(xs, zs, out);
+        hits += (long) oct * out.length;
+
+        if (power != 1D) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = power(out[i]);
+            }
+        }
+
+        if (children == null) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = (out[i] - down + up) * patch;
+            }
+
+            return;
+        }
+
+        double[] c = new double[out.length];
+        double m = 1;
+
+        for (int j = 0; j < children.size(); j++) {
+            children.get(j).noise2(xs, zs, c);
+
+            for (int i = 0; i < out.length; i++) {
+                out[i] = injector.combine(out[i], c[i]);
+            }
+
+            m += injector.getWeight();
+        }
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ((out[i] / m) - down + up) * patch;
+        }
+    }
+
+    /**
+     * Batched {@link #noise3(double, double, double)}, out[i] receives the noise at (xs[i], ys[i], zs[i]).
+     * The values are the same as sampling each point on its own.
+     *
+     * @param xs  the x coordinates
+     * @param ys  the y coordinates
+     * @param zs  the z coordinates
+     * @param out the results, its length is the batch size
+     */
+    public void noise3(double[] xs, double[] ys, double[] zs, double[] out) {
+        getNoise3(xs, ys, zs, out);
+        hits += (long) oct * out.length;
+
+        if (power != 1D) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = power(out[i]);
+            }
+        }
+
+        if (children == null) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = (out[i] - down + up) * patch;
+            }
+
+            return;
+        }
+
+        double[] c = new double[out.length];
+        double m = 1;
+
+        for (int j = 0; j < children.size(); j++) {
+            children.get(j).noise3(xs, ys, zs, c);
+
+            for (int i = 0; i < out.length; i++) {
+                out[i] = injector.combine(out[i], c[i]);
+            }
+
+            m += injector.getWeight();
+        }
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = ((out[i] / m) - down + up) * patch;
+        }
+    }
+
+    /**
+     * Batched {@link #fitDouble(double, double, double...)} for 3D points
+     *
+     * @param out the results, its length is the batch size
+     */
+    public void fitDouble(double min, double max, double[] xs, double[] ys, double[] zs, double[] out) {
+        if (min == max) {
+            Arrays.fill(out, min);
+            return;
+        }
+
+        noise3(xs, ys, zs, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = IrisInterpolation.lerp(min, max, out[i]);
+        }
+    }
+
+    private double power(double n) {
+        return power != 1D ? (n < 0 ? -Math.pow(Math.abs(n), power) : Math.pow(n, power)) : n;
+    }
+
+    /**
+     * Flatten this noise graph into a {@link CompiledCNG}. The result is a snapshot, so only
+     * compile once the generator is fully configured.
+     *
+     * @return the compiled noise
+     */
+    public CompiledCNG compile() {
+        return new CompiledCNG(this);
+    }
+
     public CNG pow(double power) {
         this.power = power;
         return this;
@@ -44,4 +44,18 @@ public class CellularNoise implements NoiseGenerator {
     public double noise(double x, double y, double z) {
         return (n.GetCellular((float) x, (float) y, (float) z) / 2D) + 0.5D;
     }
+
+    @Override
+    public void noise(double[] xs, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (n.GetCellular((float) xs[i], (float) zs[i]) / 2D) + 0.5D;
+        }
+    }
+
+    @Override
+    public void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (n.GetCellular((float) xs[i], (float) ys[i], zs == null ? 0 : (float) zs[i]) / 2D) + 0.5D;
+        }
+    }
 }
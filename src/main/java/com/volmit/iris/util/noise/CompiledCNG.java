@@ -0,0 +1,383 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.noise;
+
+import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.function.NoiseInjector;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A CNG graph flattened into primitive arrays. Every node (the root, its children and
+ * fracture generators, recursively) gets an index, the built in injectors become opcodes and
+ * scales are resolved up front, so sampling walks final arrays without touching the CNG
+ * objects, their lists or any lambdas. Produces exactly the same values as the graph it was
+ * compiled from.
+ */
+public class CompiledCNG implements NoiseGenerator {
+    private static final int CUSTOM = 0;
+    private static final int ADD = 1;
+    private static final int SRC_SUBTRACT = 2;
+    private static final int DST_SUBTRACT = 3;
+    private static final int MULTIPLY = 4;
+    private static final int MAX = 5;
+    private static final int MIN = 6;
+    private static final int SRC_MOD = 7;
+    private static final int SRC_POW = 8;
+    private static final int DST_MOD = 9;
+    private static final int DST_POW = 10;
+    private final NoiseGenerator[] generators;
+    private final double[] scale;
+    private final double[] opacity;
+    private final double[] fscale;
+    private final double[] power;
+    private final double[] down;
+    private final double[] up;
+    private final double[] patch;
+    private final double[] weight;
+    private final int[] fracture;
+    private final boolean[] trueFracturing;
+    private final int[] op;
+    private final NoiseInjector[] injectors;
+    private final int[][] children;
+
+    public CompiledCNG(CNG root) {
+        KList<CNG> nodes = new KList<>();
+        Map<CNG, Integer> ids = new IdentityHashMap<>();
+        index(root, nodes, ids);
+        int n = nodes.size();
+        generators = new NoiseGenerator[n];
+        scale = new double[n];
+        opacity = new double[n];
+        fscale = new double[n];
+        power = new double[n];
+        down = new double[n];
+        up = new double[n];
+        patch = new double[n];
+        weight = new double[n];
+        fracture = new int[n];
+        trueFracturing = new boolean[n];
+        op = new int[n];
+        injectors = new NoiseInjector[n];
+        children = new int[n][];
+
+        for (int i = 0; i < n; i++) {
+            CNG c = nodes.get(i);
+            generators[i] = c.getGenerator();
+            scale[i] = c.isNoscale() ? 1 : c.getBakedScale() * c.getScale();
+            opacity[i] = c.getOpacity();
+            fscale[i] = c.getFscale();
+            power[i] = c.getPower();
+            down[i] = c.getDown();
+            up[i] = c.getUp();
+            patch[i] = c.getPatch();
+            weight[i] = c.getInjector().getWeight();
+            fracture[i] = c.getFracture() == null || c.isNoscale() ? -1 : ids.get(c.getFracture());
+            trueFracturing[i] = c.getFracture() != null && c.getFracture().isTrueFracturing();
+            op[i] = opcode(c.getInjector());
+            injectors[i] = c.getInjector();
+
+            if (c.getChildren() != null) {
+                children[i] = new int[c.getChildren().size()];
+
+                for (int j = 0; j < children[i].length; j++) {
+                    children[i][j] = ids.get(c.getChildren().get(j));
+                }
+            }
+        }
+    }
+
+    private static void index(CNG c, KList<CNG> nodes, Map<CNG, Integer> ids) {
+        if (ids.containsKey(c)) {
+            return;
+        }
+
+        ids.put(c, nodes.size());
+        nodes.add(c);
+
+        if (c.getFracture() != null) {
+            index(c.getFracture(), nodes, ids);
+        }
+
+        if (c.getChildren() != null) {
+            for (CNG i : c.getChildren()) {
+                index(i, nodes, ids);
+            }
+        }
+    }
+
+    private static int opcode(NoiseInjector i) {
+        if (i == CNG.ADD) {
+            return ADD;
+        } else if (i == CNG.SRC_SUBTRACT) {
+            return SRC_SUBTRACT;
+        } else if (i == CNG.DST_SUBTRACT) {
+            return DST_SUBTRACT;
+        } else if (i == CNG.MULTIPLY) {
+            return MULTIPLY;
+        } else if (i == CNG.MAX) {
+            return MAX;
+        } else if (i == CNG.MIN) {
+            return MIN;
+        } else if (i == CNG.SRC_MOD) {
+            return SRC_MOD;
+        } else if (i == CNG.SRC_POW) {
+            return SRC_POW;
+        } else if (i == CNG.DST_MOD) {
+            return DST_MOD;
+        } else if (i == CNG.DST_POW) {
+            return DST_POW;
+        }
+
+        return CUSTOM;
+    }
+
+    @Override
+    public double noise(double x) {
+        return noise1(0, x);
+    }
+
+    @Override
+    public double noise(double x, double z) {
+        return noise2(0, x, z);
+    }
+
+    @Override
+    public double noise(double x, double y, double z) {
+        return noise3(0, x, y, z);
+    }
+
+    @Override
+    public void noise(double[] xs, double[] zs, double[] out) {
+        noise2(0, xs, zs, out);
+    }
+
+    private double noise1(int i, double x) {
+        double n = power(i, sample1(i, x));
+        int[] c = children[i];
+
+        if (c == null) {
+            return (n - down[i] + up[i]) * patch[i];
+        }
+
+        double m = 1;
+
+        for (int j : c) {
+            n = combine(i, n, noise1(j, x));
+            m += weight[i];
+        }
+
+        return ((n / m) - down[i] + up[i]) * patch[i];
+    }
+
+    private double noise2(int i, double x, double z) {
+        double n = power(i, sample2(i, x, z));
+        int[] c = children[i];
+
+        if (c == null) {
+            return (n - down[i] + up[i]) * patch[i];
+        }
+
+        double m = 1;
+
+        for (int j : c) {
+            n = combine(i, n, noise2(j, x, z));
+            m += weight[i];
+        }
+
+        return ((n / m) - down[i] + up[i]) * patch[i];
+    }
+
+    private void noise2(int i, double[] xs, double[] zs, double[] out) {
+        sample2(i, xs, zs, out);
+        int[] c = children[i];
+
+        if (power[i] != 1D) {
+            for (int k = 0; k < out.length; k++) {
+                out[k] = power(i, out[k]);
+            }
+        }
+
+        if (c == null) {
+            for (int k = 0; k < out.length; k++) {
+                out[k] = (out[k] - down[i] + up[i]) * patch[i];
+            }
+
+            return;
+        }
+
+        double[] v = new double[out.length];
+        double m = 1;
+
+        for (int j : c) {
+            noise2(j, xs, zs, v);
+
+            for (int k = 0; k < out.length; k++) {
+                out[k] = combine(i, out[k], v[k]);
+            }
+
+            m += weight[i];
+        }
+
+        for (int k = 0; k < out.length; k++) {
+            out[k] = ((out[k] / m) - down[i] + up[i]) * patch[i];
+        }
+    }
+
+    private double noise3(int i, double x, double y, double z) {
+        double n = power(i, sample3(i, x, y, z));
+        int[] c = children[i];
+
+        if (c == null) {
+            return (n - down[i] + up[i]) * patch[i];
+        }
+
+        double m = 1;
+
+        for (int j : c) {
+            n = combine(i, n, noise3(j, x, y, z));
+            m += weight[i];
+        }
+
+        return ((n / m) - down[i] + up[i]) * patch[i];
+    }
+
+    private double sample1(int i, double x) {
+        int f = fracture[i];
+        double s = scale[i];
+
+        if (f < 0) {
+            return generators[i].noise(x * s, 0, 0) * opacity[i];
+        }
+
+        if (trueFracturing[i]) {
+            return generators[i].noise((x + ((noise1(f, x) - 0.5) * fscale[i])) * s, 0, 0) * opacity[i];
+        }
+
+        return generators[i].noise((x + noise1(f, x) * fscale[i]) * s, 0, 0) * opacity[i];
+    }
+
+    private double sample2(int i, double x, double z) {
+        int f = fracture[i];
+        double s = scale[i];
+
+        if (f < 0) {
+            return generators[i].noise(x * s, z * s, 0) * opacity[i];
+        }
+
+        if (trueFracturing[i]) {
+            double fx = x + ((noise2(f, x, z) - 0.5) * fscale[i]);
+            double fz = z + ((noise2(f, z, x) - 0.5) * fscale[i]);
+            return generators[i].noise(fx * s, fz * s, 0) * opacity[i];
+        }
+
+        double ff = noise2(f, x, z) * fscale[i];
+        return generators[i].noise((x + ff) * s, (z - ff) * s, 0) * opacity[i];
+    }
+
+    private void sample2(int i, double[] xs, double[] zs, double[] out) {
+        int f = fracture[i];
+        double s = scale[i];
+        double fs = fscale[i];
+        double[] fx = new double[out.length];
+        double[] fz = new double[out.length];
+
+        if (f < 0) {
+            for (int k = 0; k < out.length; k++) {
+                fx[k] = xs[k] * s;
+                fz[k] = zs[k] * s;
+            }
+        } else if (trueFracturing[i]) {
+            noise2(f, xs, zs, fx);
+            noise2(f, zs, xs, fz);
+
+            for (int k = 0; k < out.length; k++) {
+                fx[k] = (xs[k] + ((fx[k] - 0.5) * fs)) * s;
+                fz[k] = (zs[k] + ((fz[k] - 0.5) * fs)) * s;
+            }
+        } else {
+            noise2(f, xs, zs, fx);
+
+            for (int k = 0; k < out.length; k++) {
+                double ff = fx[k] * fs;
+                fx[k] = (xs[k] + ff) * s;
+                fz[k] = (zs[k] - ff) * s;
+            }
+        }
+
+        generators[i].noise(fx, fz, null, out);
+        double o = opacity[i];
+
+        for (int k = 0; k < out.length; k++) {
+            out[k] *= o;
+        }
+    }
+
+    private double sample3(int i, double x, double y, double z) {
+        int f = fracture[i];
+        double s = scale[i];
+
+        if (f < 0) {
+            return generators[i].noise(x * s, y * s, z * s) * opacity[i];
+        }
+
+        if (trueFracturing[i]) {
+            double fx = x + ((noise3(f, x, y, z) - 0.5) * fscale[i]);
+            double fy = y + ((noise2(f, y, x) - 0.5) * fscale[i]);
+            double fz = z + ((noise3(f, z, x, y) - 0.5) * fscale[i]);
+            return generators[i].noise(fx * s, fy * s, fz * s) * opacity[i];
+        }
+
+        double ff = noise3(f, x, y, z) * fscale[i];
+        return generators[i].noise((x + ff) * s, (y - ff) * s, (z - ff) * s) * opacity[i];
+    }
+
+    private double power(int i, double n) {
+        double p = power[i];
+        return p != 1D ? (n < 0 ? -Math.pow(Math.abs(n), p) : Math.pow(n, p)) : n;
+    }
+
+    private double combine(int i, double s, double v) {
+        switch (op[i]) {
+            case ADD:
+                return s + v;
+            case SRC_SUBTRACT:
+                return s - v < 0 ? 0 : s - v;
+            case DST_SUBTRACT:
+                return v - s < 0 ? 0 : s - v;
+            case MULTIPLY:
+                return s * v;
+            case MAX:
+                return Math.max(s, v);
+            case MIN:
+                return Math.min(s, v);
+            case SRC_MOD:
+                return s % v;
+            case SRC_POW:
+                return Math.pow(s, v);
+            case DST_MOD:
+                return v % s;
+            case DST_POW:
+                return Math.pow(v, s);
+            default:
+                return injectors[i].combine(s, v);
+        }
+    }
+}
@@ -45,4 +45,13 @@ public class CubicNoise implements NoiseGenerator {
     public double noise(double x, double y, double z) {
         return f(n.GetCubic(x, y, z));
     }
+
+    @Override
+    public void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        n.GetCubic(xs, ys, zs, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = f(out[i]);
+        }
+    }
 }
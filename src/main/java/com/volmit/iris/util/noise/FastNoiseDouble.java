@@ -786,6 +786,13 @@ public class FastNoiseDouble {
         return SinglePerlin(m_seed, x * m_frequency, y * m_frequency, z * m_frequency);
     }
 
+    // Batched GetPerlin(x, y, z), a null zs samples z = 0
+    public void GetPerlin(double[] xs, double[] ys, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = SinglePerlin(m_seed, xs[i] * m_frequency, ys[i] * m_frequency, zs == null ? 0 : zs[i] * m_frequency);
+        }
+    }
+
     private double SinglePerlin(long seed, double x, double y, double z) {
         long x0 = fastFloor(x);
         long y0 = fastFloor(y);
@@ -894,6 +901,13 @@ public class FastNoiseDouble {
         return SinglePerlin(m_seed, x * m_frequency, y * m_frequency);
     }
 
+    // Batched GetPerlin(x, y)
+    public void GetPerlin(double[] xs, double[] ys, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = SinglePerlin(m_seed, xs[i] * m_frequency, ys[i] * m_frequency);
+        }
+    }
+
     private double SinglePerlin(long seed, double x, double y) {
         long x0 = fastFloor(x);
         long y0 = fastFloor(y);
@@ -995,6 +1009,16 @@ public class FastNoiseDouble {
         return SingleSimplex(m_seed, x * m_frequency, y * m_frequency, z * m_frequency);
     }
 
+    // Batched GetSimplex(x, y, z), a null zs samples z = 0
+    // Runs on the vector kernel when the incubator module is present, the scalar loop picks up the tail
+    public void GetSimplex(double[] xs, double[] ys, double[] zs, double[] out) {
+        int i = NoiseVectors.isAvailable() ? NoiseVectors.simplex(m_seed, m_frequency, xs, ys, zs, out) : 0;
+
+        for (; i < out.length; i++) {
+            out[i] = SingleSimplex(m_seed, xs[i] * m_frequency, ys[i] * m_frequency, zs == null ? 0 : zs[i] * m_frequency);
+        }
+    }
+
     private final static double F3 = 1.0 / 3.0;
     private final static double G3 = 1.0 / 6.0;
     private final static double G33 = G3 * 3 - 1;
@@ -1174,6 +1198,13 @@ public class FastNoiseDouble {
         return SingleSimplex(m_seed, x * m_frequency, y * m_frequency);
     }
 
+    // Batched GetSimplex(x, y)
+    public void GetSimplex(double[] xs, double[] ys, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = SingleSimplex(m_seed, xs[i] * m_frequency, ys[i] * m_frequency);
+        }
+    }
+
     private final static double F2 = 1.0 / 2.0;
     private final static double G2 = 1.0 / 4.0;
 
@@ -1407,6 +1438,13 @@ public class FastNoiseDouble {
         return SingleCubic(m_seed, x * m_frequency, y * m_frequency, z * m_frequency);
     }
 
+    // Batched GetCubic(x, y, z), a null zs samples z = 0
+    public void GetCubic(double[] xs, double[] ys, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = SingleCubic(m_seed, xs[i] * m_frequency, ys[i] * m_frequency, zs == null ? 0 : zs[i] * m_frequency);
+        }
+    }
+
     private final static double CUBIC_3D_BOUNDING = 1 / (1.5 * 1.5 * 1.5);
 
     private double SingleCubic(long seed, double x, double y, double z) {
@@ -18,6 +18,8 @@
 
 package com.volmit.iris.util.noise;
 
+import java.util.Arrays;
+
 public class FlatNoise implements NoiseGenerator {
     public FlatNoise(long seed) {
 
@@ -37,4 +39,14 @@ public class FlatNoise implements NoiseGenerator {
     public double noise(double x, double y, double z) {
         return 1D;
     }
+
+    @Override
+    public void noise(double[] xs, double[] zs, double[] out) {
+        Arrays.fill(out, 1D);
+    }
+
+    @Override
+    public void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        Arrays.fill(out, 1D);
+    }
 }
@@ -25,6 +25,35 @@ public interface NoiseGenerator {
 
     double noise(double x, double y, double z);
 
+    /**
+     * Sample a batch of 2D points into out. Generators override this with a tight loop, the
+     * default just walks the scalar path.
+     *
+     * @param xs  the x coordinates
+     * @param zs  the z coordinates
+     * @param out the results, its length is the batch size
+     */
+    default void noise(double[] xs, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = noise(xs[i], zs[i]);
+        }
+    }
+
+    /**
+     * Sample a batch of 3D points into out. The z array may be null in which case z is 0,
+     * which is how CNG samples its 2D noise.
+     *
+     * @param xs  the x coordinates
+     * @param ys  the y coordinates
+     * @param zs  the z coordinates or null
+     * @param out the results, its length is the batch size
+     */
+    default void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = noise(xs[i], ys[i], zs == null ? 0 : zs[i]);
+        }
+    }
+
     default boolean isStatic() {
         return false;
     }
@@ -0,0 +1,105 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.noise;
+
+import com.volmit.iris.Iris;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Decides once whether the batched noise paths may use the incubating JDK vector api. The
+ * module has to be added to the boot layer (--add-modules jdk.incubator.vector) and it can be
+ * switched off with -Diris.vector=false, otherwise everything falls back to the scalar loops.
+ * <p>
+ * The kernels are compiled in their own source set (the only one built with the incubator module)
+ * and bound here through method handles, so nothing else has to know about the module.
+ */
+public final class NoiseVectors {
+    private static volatile MethodHandle simplex = bind();
+
+    private NoiseVectors() {
+
+    }
+
+    /**
+     * @return true while the vector kernel is bound and has not failed
+     */
+    public static boolean isAvailable() {
+        return simplex != null;
+    }
+
+    /**
+     * Fill out with 3D simplex noise on the vector kernel for as many whole vectors as fit. If the
+     * kernel fails it is reported once and switched off for good, and 0 is returned so the caller
+     * computes every value on its scalar path instead.
+     *
+     * @return the index the caller has to continue from with the scalar path
+     */
+    public static int simplex(long seed, double frequency, double[] xs, double[] ys, double[] zs, double[] out) {
+        MethodHandle h = simplex;
+
+        if (h == null) {
+            return 0;
+        }
+
+        try {
+            return (int) h.invokeExact(seed, frequency, xs, ys, zs, out);
+        } catch (Throwable e) {
+            fail(e);
+            return 0;
+        }
+    }
+
+    private static synchronized void fail(Throwable e) {
+        if (simplex == null) {
+            return;
+        }
+
+        simplex = null;
+        Iris.warn("Vectorized noise failed, falling back to scalar noise");
+        Iris.reportError(e);
+        e.printStackTrace();
+    }
+
+    private static MethodHandle bind() {
+        if (!Boolean.parseBoolean(System.getProperty("iris.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> kernel = Class.forName("com.volmit.iris.util.noise.SimplexVectorKernel");
+
+            if ((int) lookup.findStatic(kernel, "lanes", MethodType.methodType(int.class)).invokeExact() <= 1) {
+                return null;
+            }
+
+            return lookup.findStatic(kernel, "simplex", MethodType.methodType(int.class, long.class, double.class,
+                    double[].class, double[].class, double[].class, double[].class));
+        } catch (Throwable e) {
+            Iris.warn("Could not bind the vectorized noise kernel, using scalar noise");
+            Iris.reportError(e);
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
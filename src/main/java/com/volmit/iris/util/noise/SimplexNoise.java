@@ -87,6 +87,34 @@ public class SimplexNoise implements NoiseGenerator, OctaveNoise {
         return f(v / m);
     }
 
+    @Override
+    public void noise(double[] xs, double[] zs, double[] out) {
+        if (octaves > 1) {
+            NoiseGenerator.super.noise(xs, zs, out);
+            return;
+        }
+
+        n.GetSimplex(xs, zs, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = f(out[i]);
+        }
+    }
+
+    @Override
+    public void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        if (octaves > 1) {
+            NoiseGenerator.super.noise(xs, ys, zs, out);
+            return;
+        }
+
+        n.GetSimplex(xs, ys, zs, out);
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = f(out[i]);
+        }
+    }
+
     @Override
     public void setOctaves(int o) {
         octaves = o;
@@ -53,4 +53,18 @@ public class WhiteNoise implements NoiseGenerator {
     public double noise(double x, double y, double z) {
         return (n.GetWhiteNoise(f(x), f(y), f(z)) / 2D) + 0.5D;
     }
+
+    @Override
+    public void noise(double[] xs, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (n.GetWhiteNoise(f(xs[i]), f(zs[i])) / 2D) + 0.5D;
+        }
+    }
+
+    @Override
+    public void noise(double[] xs, double[] ys, double[] zs, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (n.GetWhiteNoise(f(xs[i]), f(ys[i]), zs == null ? f(0) : f(zs[i])) / 2D) + 0.5D;
+        }
+    }
 }
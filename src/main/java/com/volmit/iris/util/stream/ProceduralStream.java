@@ -23,6 +23,7 @@ import com.volmit.iris.core.project.loader.IrisData;
 import com.volmit.iris.engine.object.common.IRare;
 import com.volmit.iris.engine.object.noise.IrisStyledRange;
 import com.volmit.iris.util.collection.KList;
+import com.volmit.iris.util.data.WeightedPalette;
 import com.volmit.iris.util.function.Function2;
 import com.volmit.iris.util.function.Function3;
 import com.volmit.iris.util.function.Function4;
@@ -319,6 +320,10 @@ public interface ProceduralStream<T> extends ProceduralLayer, Interpolated<T> {
         return new SelectionStream<V>(this, types);
     }
 
+    default <V> ProceduralStream<V> select(WeightedPalette<V> types) {
+        return new WeightedSelectionStream<V>(this, types);
+    }
+
     @SuppressWarnings("unchecked")
     default <V> ProceduralStream<V> selectRarity(V... types) {
         KList<V> rarityTypes = new KList<>();
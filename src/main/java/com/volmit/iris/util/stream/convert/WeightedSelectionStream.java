@@ -0,0 +1,61 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.volmit.iris.util.stream.convert;
+
+import com.volmit.iris.util.data.WeightedPalette;
+import com.volmit.iris.util.stream.BasicStream;
+import com.volmit.iris.util.stream.ProceduralStream;
+
+public class WeightedSelectionStream<T> extends BasicStream<T> {
+    private final ProceduralStream<Integer> stream;
+    private final WeightedPalette<T> options;
+
+    public WeightedSelectionStream(ProceduralStream<?> stream, WeightedPalette<T> options) {
+        super();
+        this.stream = stream.fit(0, options.getTotalWeight() - 1).round();
+        this.options = options;
+    }
+
+    @Override
+    public double toDouble(T t) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T fromDouble(double d) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public T get(double x, double z) {
+        if (options.isEmpty()) {
+            return null;
+        }
+
+        return options.get(stream.get(x, z));
+    }
+
+    @Override
+    public T get(double x, double y, double z) {
+        if (options.isEmpty()) {
+            return null;
+        }
+
+        return options.get(stream.get(x, y, z));
+    }
+}
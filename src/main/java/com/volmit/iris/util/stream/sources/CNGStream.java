@@ -19,11 +19,13 @@
 package com.volmit.iris.util.stream.sources;
 
 import com.volmit.iris.util.noise.CNG;
+import com.volmit.iris.util.noise.CompiledCNG;
 import com.volmit.iris.util.stream.BasicLayer;
 import com.volmit.iris.util.stream.ProceduralStream;
 
 public class CNGStream extends BasicLayer implements ProceduralStream<Double> {
     private final CNG cng;
+    private volatile CompiledCNG compiled;
 
     public CNGStream(CNG cng) {
         this.cng = cng;
@@ -59,14 +61,28 @@ public class CNGStream extends BasicLayer implements ProceduralStream<Double> {
         return null;
     }
 
+    /**
+     * Streams are sampled long after the noise is built, so compile it on first use
+     */
+    private CompiledCNG compiled() {
+        CompiledCNG c = compiled;
+
+        if (c == null) {
+            c = cng.compile();
+            compiled = c;
+        }
+
+        return c;
+    }
+
     @Override
     public Double get(double x, double z) {
-        return cng.noise((x + getOffsetX()) / getZoom(), (z + getOffsetZ()) / getZoom());
+        return compiled().noise((x + getOffsetX()) / getZoom(), (z + getOffsetZ()) / getZoom());
     }
 
     @Override
     public Double get(double x, double y, double z) {
-        return cng.noise((x + getOffsetX()) / getZoom(), (y + getOffsetY()) / getZoom(), (z + getOffsetZ()) * getZoom());
+        return compiled().noise((x + getOffsetX()) / getZoom(), (y + getOffsetY()) / getZoom(), (z + getOffsetZ()) * getZoom());
     }
 
 }
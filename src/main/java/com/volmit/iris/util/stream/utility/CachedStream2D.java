@@ -23,9 +23,13 @@ import com.volmit.iris.engine.data.cache.Cache;
 import com.volmit.iris.util.stream.BasicStream;
 import com.volmit.iris.util.stream.ProceduralStream;
 
+import java.util.concurrent.atomic.LongAdder;
+
 public class CachedStream2D<T> extends BasicStream<T> implements ProceduralStream<T> {
     private final ProceduralStream<T> stream;
     private final ConcurrentLinkedHashMap<Long, T> cache;
+    private final LongAdder hits;
+    private final LongAdder misses;
 
     public CachedStream2D(ProceduralStream<T> stream, int size) {
         super();
@@ -35,6 +39,8 @@ public class CachedStream2D<T> extends BasicStream<T> implements ProceduralStrea
                 .maximumWeightedCapacity(size)
                 .concurrencyLevel(32)
                 .build();
+        hits = new LongAdder();
+        misses = new LongAdder();
     }
 
     @Override
@@ -47,13 +53,47 @@ public class CachedStream2D<T> extends BasicStream<T> implements ProceduralStrea
         return stream.fromDouble(d);
     }
 
+    /**
+     * Counted outside of the map, a miss is only recorded when the stream was actually sampled.
+     * Racing misses may both sample, the first value stored wins.
+     */
     @Override
     public T get(double x, double z) {
-        return cache.compute(Cache.key((int) x, (int) z), (k, v) -> v != null ? v : stream.get((int) x, (int) z));
+        long key = Cache.key((int) x, (int) z);
+        T v = cache.get(key);
+
+        if (v != null) {
+            hits.increment();
+            return v;
+        }
+
+        misses.increment();
+        v = stream.get((int) x, (int) z);
+        T current = cache.putIfAbsent(key, v);
+        return current != null ? current : v;
     }
 
     @Override
     public T get(double x, double y, double z) {
         return stream.get(x, y, z);
     }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+
+    public double getHitRatio() {
+        long h = getHits();
+        long t = h + getMisses();
+        return t == 0 ? 0 : (double) h / t;
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Iris is a World Generator for Minecraft Bukkit Servers
+ * Copyright (c) 2021 Arcane Arts (Volmit Software)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.volmit.iris.util.noise;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import static jdk.incubator.vector.VectorOperators.AND;
+import static jdk.incubator.vector.VectorOperators.ASHR;
+import static jdk.incubator.vector.VectorOperators.D2L;
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.L2D;
+import static jdk.incubator.vector.VectorOperators.LT;
+import static jdk.incubator.vector.VectorOperators.NE;
+import static jdk.incubator.vector.VectorOperators.XOR;
+
+/**
+ * Lane parallel version of FastNoiseDouble.SingleSimplex(seed, x, y, z). This class lives in the
+ * vector source set, the only one compiled against jdk.incubator.vector, and is only looked up
+ * reflectively by NoiseVectors once the module is present, so the incubator classes are never loaded otherwise.
+ * <p>
+ * Every step mirrors the scalar code operation for operation (no fused multiply adds, same
+ * truncating floor, same long hash) so the output is identical to the scalar path. The
+ * gradient table lookup is replaced with the equivalent selects on the low four hash bits.
+ */
+final class SimplexVectorKernel {
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> L = D.withLanes(long.class);
+    private static final double F3 = 1.0 / 3.0;
+    private static final double G3 = 1.0 / 6.0;
+    private static final double G33 = G3 * 3 - 1;
+    private static final long X_PRIME = 1619;
+    private static final long Y_PRIME = 31337;
+    private static final long Z_PRIME = 6971;
+
+    private SimplexVectorKernel() {
+
+    }
+
+    static int lanes() {
+        return D.length();
+    }
+
+    /**
+     * Fill out with simplex noise for as many whole vectors as fit
+     *
+     * @return the index the caller has to continue from with the scalar path
+     */
+    static int simplex(long seed, double frequency, double[] xs, double[] ys, double[] zs, double[] out) {
+        int bound = D.loopBound(out.length);
+        LongVector s = LongVector.broadcast(L, seed);
+        DoubleVector zero = DoubleVector.zero(D);
+
+        for (int o = 0; o < bound; o += D.length()) {
+            DoubleVector x = DoubleVector.fromArray(D, xs, o).mul(frequency);
+            DoubleVector y = DoubleVector.fromArray(D, ys, o).mul(frequency);
+            DoubleVector z = zs == null ? zero : DoubleVector.fromArray(D, zs, o).mul(frequency);
+
+            DoubleVector t = x.add(y).add(z).mul(F3);
+            LongVector i = floor(x.add(t));
+            LongVector j = floor(y.add(t));
+            LongVector k = floor(z.add(t));
+
+            t = toDouble(i.add(j).add(k)).mul(G3);
+            DoubleVector x0 = x.sub(toDouble(i).sub(t));
+            DoubleVector y0 = y.sub(toDouble(j).sub(t));
+            DoubleVector z0 = z.sub(toDouble(k).sub(t));
+
+            // The scalar branch tree collapsed into masks
+            VectorMask<Double> a = x0.compare(GE, y0);
+            VectorMask<Double> b = y0.compare(GE, z0);
+            VectorMask<Double> c = x0.compare(GE, z0);
+            VectorMask<Double> i1 = a.and(b.or(c));
+            VectorMask<Double> j1 = a.not().and(b);
+            VectorMask<Double> k1 = b.not().and(a.not().or(c.not()));
+            VectorMask<Double> i2 = a.or(b.and(c));
+            VectorMask<Double> j2 = a.not().or(b);
+            VectorMask<Double> k2 = b.not().or(a.not().and(c.not()));
+
+            DoubleVector x1 = x0.sub(zero.blend(1, i1)).add(G3);
+            DoubleVector y1 = y0.sub(zero.blend(1, j1)).add(G3);
+            DoubleVector z1 = z0.sub(zero.blend(1, k1)).add(G3);
+            DoubleVector x2 = x0.sub(zero.blend(1, i2)).add(F3);
+            DoubleVector y2 = y0.sub(zero.blend(1, j2)).add(F3);
+            DoubleVector z2 = z0.sub(zero.blend(1, k2)).add(F3);
+            DoubleVector x3 = x0.add(G33);
+            DoubleVector y3 = y0.add(G33);
+            DoubleVector z3 = z0.add(G33);
+
+            DoubleVector n0 = corner(s, i, j, k, x0, y0, z0);
+            DoubleVector n1 = corner(s, i.add(1, i1.cast(L)), j.add(1, j1.cast(L)), k.add(1, k1.cast(L)), x1, y1, z1);
+            DoubleVector n2 = corner(s, i.add(1, i2.cast(L)), j.add(1, j2.cast(L)), k.add(1, k2.cast(L)), x2, y2, z2);
+            DoubleVector n3 = corner(s, i.add(1), j.add(1), k.add(1), x3, y3, z3);
+            n0.add(n1).add(n2).add(n3).mul(32).intoArray(out, o);
+        }
+
+        return bound;
+    }
+
+    private static DoubleVector corner(LongVector seed, LongVector i, LongVector j, LongVector k, DoubleVector x, DoubleVector y, DoubleVector z) {
+        DoubleVector t = DoubleVector.broadcast(D, 0.6).sub(x.mul(x)).sub(y.mul(y)).sub(z.mul(z));
+        VectorMask<Double> outside = t.compare(LT, 0);
+        t = t.mul(t);
+        return t.mul(t).mul(grad(seed, i, j, k, x, y, z)).blend(0, outside);
+    }
+
+    private static DoubleVector grad(LongVector seed, LongVector i, LongVector j, LongVector k, DoubleVector x, DoubleVector y, DoubleVector z) {
+        LongVector h = seed.lanewise(XOR, i.mul(X_PRIME)).lanewise(XOR, j.mul(Y_PRIME)).lanewise(XOR, k.mul(Z_PRIME));
+        h = h.mul(h).mul(h).mul(60493);
+        h = h.lanewise(ASHR, 13).lanewise(XOR, h).lanewise(AND, 15);
+
+        // GRAD_3D[h] dotted with (x, y, z), written as selects on the index bits
+        DoubleVector u = y.blend(x, h.compare(LT, 8).cast(D));
+        DoubleVector v = z.blend(x, h.compare(EQ, 12).or(h.compare(EQ, 14)).cast(D)).blend(y, h.compare(LT, 4).cast(D));
+        u = u.blend(u.neg(), h.lanewise(AND, 1).compare(NE, 0).cast(D));
+        v = v.blend(v.neg(), h.lanewise(AND, 2).compare(NE, 0).cast(D));
+        return u.add(v);
+    }
+
+    private static LongVector floor(DoubleVector v) {
+        LongVector l = (LongVector) v.convert(D2L, 0);
+        return l.sub(1, v.compare(GE, 0).not().cast(L));
+    }
+
+    private static DoubleVector toDouble(LongVector v) {
+        return (DoubleVector) v.convert(L2D, 0);
+    }
+}